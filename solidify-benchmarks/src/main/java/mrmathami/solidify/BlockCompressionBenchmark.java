@@ -0,0 +1,79 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Compresses and decompresses about 1 MB of TestClass-shaped records, the compression ratio is printed during setup.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockCompressionBenchmark {
+	@Param({"1000"})
+	private int records;
+
+	@Param({"huffman", "deflate-1", "deflate"})
+	private String codec;
+
+	private Compression compression;
+	private byte[] payload;
+	private byte[] compressed;
+	private byte[] chunk;
+
+	@Setup
+	public void setup() throws IOException, LiquifierException {
+		this.compression = codec.equals("huffman") ? Compression.HUFFMAN
+				: codec.equals("deflate-1") ? Compression.deflate(1)
+				: Compression.DEFLATE;
+		this.payload = TestClassPayload.encode(records, 0);
+		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		final OutputStream blockStream = compression.wrap(stream);
+		blockStream.write(payload);
+		blockStream.flush();
+		this.compressed = stream.toByteArray();
+		this.chunk = new byte[8192];
+		System.out.printf("%n%s: %d -> %d bytes, ratio %.2f%n", codec, payload.length, compressed.length, (double) payload.length / compressed.length);
+	}
+
+	@Benchmark
+	public void compress() throws IOException {
+		final OutputStream blockStream = compression.wrap(new NullOutputStream());
+		blockStream.write(payload);
+		blockStream.flush();
+	}
+
+	@Benchmark
+	public int decompress() throws IOException {
+		final BlockInputStream blockStream = new BlockInputStream(new ByteArrayInputStream(compressed));
+		int total = 0;
+		for (int count; (count = blockStream.read(chunk, 0, chunk.length)) >= 0; ) total += count;
+		return total;
+	}
+
+	private static final class NullOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(@Nonnull byte[] b, int off, int len) {
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+// Run with -prof gc: gc.alloc.rate.norm is the garbage per call, which should be just the result array on reads
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoxedArrayProcessorBenchmark {
+	@Param({"1024"})
+	private int size;
+
+	private Integer[] integers;
+	private Boolean[] booleans;
+
+	private BoxedIntegerArrayProcessor integerProcessor;
+	private BoxedBooleanArrayProcessor booleanProcessor;
+
+	private ObjectWriterImpl objectWriter;
+	private ObjectReaderImpl integerReader;
+	private ObjectReaderImpl booleanReader;
+	private ObjectReaderImpl legacyIntegerReader;
+	private ObjectReaderImpl legacyBooleanReader;
+
+	@Setup
+	public void setup() throws IOException {
+		final Random random = new Random(0);
+		this.integers = new Integer[size];
+		this.booleans = new Boolean[size];
+		for (int i = 0; i < size; i++) {
+			if (i % 8 == 7) continue;
+			// boxes of small values are cached, so reads allocate nothing besides the array
+			integers[i] = random.nextInt(256) - 128;
+			booleans[i] = random.nextBoolean();
+		}
+		this.integerProcessor = new BoxedIntegerArrayProcessor();
+		this.booleanProcessor = new BoxedBooleanArrayProcessor();
+		this.objectWriter = new ObjectWriterImpl(Collections.emptySet(), new NullOutputStream(), WireFormat.STANDARD);
+
+		final ByteArrayOutputStream integerBytes = new ByteArrayOutputStream();
+		final ObjectWriterImpl integerWriter = new ObjectWriterImpl(Collections.emptySet(), integerBytes, WireFormat.STANDARD);
+		integerProcessor.liquify(integerWriter, integers);
+		integerWriter.flush();
+		this.integerReader = new ObjectReaderImpl(Collections.emptySet(), new CyclingInputStream(integerBytes.toByteArray()), WireFormat.STANDARD);
+		this.legacyIntegerReader = new ObjectReaderImpl(Collections.emptySet(), new CyclingInputStream(integerBytes.toByteArray()), WireFormat.STANDARD);
+
+		final ByteArrayOutputStream booleanBytes = new ByteArrayOutputStream();
+		final ObjectWriterImpl booleanWriter = new ObjectWriterImpl(Collections.emptySet(), booleanBytes, WireFormat.STANDARD);
+		booleanProcessor.liquify(booleanWriter, booleans);
+		booleanWriter.flush();
+		this.booleanReader = new ObjectReaderImpl(Collections.emptySet(), new CyclingInputStream(booleanBytes.toByteArray()), WireFormat.STANDARD);
+		this.legacyBooleanReader = new ObjectReaderImpl(Collections.emptySet(), new CyclingInputStream(booleanBytes.toByteArray()), WireFormat.STANDARD);
+	}
+
+	@Benchmark
+	public void legacyWriteIntegers() throws IOException {
+		LegacyProcessors.writeIntegers(objectWriter, integers);
+	}
+
+	@Benchmark
+	public void writeIntegers() throws IOException {
+		integerProcessor.liquify(objectWriter, integers);
+	}
+
+	@Benchmark
+	public Integer[] legacyReadIntegers() throws IOException {
+		return LegacyProcessors.readIntegers(legacyIntegerReader, size);
+	}
+
+	@Benchmark
+	public Integer[] readIntegers() throws IOException {
+		return integerProcessor.solidify(integerReader, size);
+	}
+
+	@Benchmark
+	public void legacyWriteBooleans() throws IOException {
+		LegacyProcessors.writeBooleans(objectWriter, booleans);
+	}
+
+	@Benchmark
+	public void writeBooleans() throws IOException {
+		booleanProcessor.liquify(objectWriter, booleans);
+	}
+
+	@Benchmark
+	public Boolean[] legacyReadBooleans() throws IOException {
+		return LegacyProcessors.readBooleans(legacyBooleanReader, size);
+	}
+
+	@Benchmark
+	public Boolean[] readBooleans() throws IOException {
+		return booleanProcessor.solidify(booleanReader, size);
+	}
+
+	private static final class NullOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(@Nonnull byte[] b, int off, int len) {
+		}
+	}
+
+	// Replays the encoded array over and over.
+	private static final class CyclingInputStream extends InputStream {
+		@Nonnull private final byte[] bytes;
+		private int position;
+
+		CyclingInputStream(@Nonnull byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public int read() {
+			if (position == bytes.length) this.position = 0;
+			return bytes[position++] & 0xFF;
+		}
+
+		@Override
+		public int read(@Nonnull byte[] b, int off, int len) {
+			if (position == bytes.length) this.position = 0;
+			final int count = Math.min(len, bytes.length - position);
+			System.arraycopy(bytes, position, b, off, count);
+			this.position += count;
+			return count;
+		}
+	}
+
+	// The mask-array based processors used before the null bitmap was streamed.
+	private static final class LegacyProcessors {
+		static void writeIntegers(@Nonnull ObjectWriter objectWriter, @Nonnull Integer[] array) throws IOException {
+			final int length = array.length;
+			final boolean[] mask = new boolean[length];
+			for (int i = 0; i < length; i++) mask[i] = array[i] != null;
+			objectWriter.writePackedBooleans(mask);
+			for (final Integer object : array) if (object != null) objectWriter.writeInt(object);
+		}
+
+		@Nonnull
+		static Integer[] readIntegers(@Nonnull ObjectReader objectReader, int length) throws IOException {
+			final boolean[] mask = objectReader.readPackedBooleans(length);
+			final Integer[] array = new Integer[length];
+			for (int i = 0; i < length; i++) if (mask[i]) array[i] = objectReader.readInt();
+			return array;
+		}
+
+		static void writeBooleans(@Nonnull ObjectWriter objectWriter, @Nonnull Boolean[] array) throws IOException {
+			final int length = array.length;
+			final boolean[] mask = new boolean[length];
+			final boolean[] packed = new boolean[length];
+			int count = 0;
+			for (int i = 0; i < length; i++) if (mask[i] = array[i] != null) packed[count++] = array[i];
+			objectWriter.writePackedBooleans(mask);
+			objectWriter.writePackedBooleans(count == length ? packed : Arrays.copyOf(packed, count));
+		}
+
+		@Nonnull
+		static Boolean[] readBooleans(@Nonnull ObjectReader objectReader, int length) throws IOException {
+			final boolean[] mask = objectReader.readPackedBooleans(length);
+			int count = 0;
+			for (int i = 0; i < length; i++) if (mask[i]) count++;
+			final boolean[] packed = objectReader.readPackedBooleans(count);
+			final Boolean[] array = new Boolean[length];
+			for (int i = 0, j = 0; i < length; i++) if (mask[i]) array[i] = packed[j++];
+			return array;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+// Writes and reads a batch of objects per call through one processor, with fresh caches every call.
+// processor: an ObjectProcessors constant, or ENUM, ENUM_ARRAY and STRING_OBJECT_ARRAY for the factory methods.
+// length: the array length, or the string length. hitRatio: the share of objects that repeat an earlier one, which
+// is a cache hit for caching processors and no different from a new object for the others.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectProcessorBenchmark {
+	@Param({
+			"BYTE_ARRAY_PROCESSOR", "SHORT_ARRAY_PROCESSOR", "INT_ARRAY_PROCESSOR", "LONG_ARRAY_PROCESSOR",
+			"FLOAT_ARRAY_PROCESSOR", "DOUBLE_ARRAY_PROCESSOR", "BOOLEAN_ARRAY_PROCESSOR", "CHAR_ARRAY_PROCESSOR",
+			"DELTA_INT_ARRAY_PROCESSOR", "DELTA_LONG_ARRAY_PROCESSOR", "FOR_INT_ARRAY_PROCESSOR", "FOR_LONG_ARRAY_PROCESSOR",
+			"XOR_FLOAT_ARRAY_PROCESSOR", "XOR_DOUBLE_ARRAY_PROCESSOR",
+			"BOXED_BYTE_PROCESSOR", "BOXED_SHORT_PROCESSOR", "BOXED_INTEGER_PROCESSOR", "BOXED_LONG_PROCESSOR",
+			"BOXED_FLOAT_PROCESSOR", "BOXED_DOUBLE_PROCESSOR", "BOXED_BOOLEAN_PROCESSOR", "BOXED_CHARACTER_PROCESSOR",
+			"BOXED_BYTE_ARRAY_PROCESSOR", "BOXED_SHORT_ARRAY_PROCESSOR", "BOXED_INTEGER_ARRAY_PROCESSOR",
+			"BOXED_LONG_ARRAY_PROCESSOR", "BOXED_FLOAT_ARRAY_PROCESSOR", "BOXED_DOUBLE_ARRAY_PROCESSOR",
+			"BOXED_BOOLEAN_ARRAY_PROCESSOR", "BOXED_CHARACTER_ARRAY_PROCESSOR",
+			"STRING_PROCESSOR", "ENUM", "ENUM_ARRAY", "STRING_OBJECT_ARRAY"
+	})
+	private String processor;
+
+	@Param({"16", "1024"})
+	private int length;
+
+	@Param({"0.0", "0.5", "0.9"})
+	private double hitRatio;
+
+	@Param({"256"})
+	private int objects;
+
+	private Set<ObjectProcessor<?>> processors;
+	private Class<Object> objectClass;
+	private Object[] values;
+	private ByteBuffer encoded;
+	private OutputStream nullStream;
+
+	private enum Color {RED, ORANGE, YELLOW, GREEN, BLUE, INDIGO, VIOLET}
+
+	@Setup
+	public void setup() throws ReflectiveOperationException, IOException, LiquifierException {
+		final ObjectProcessor<?> objectProcessor;
+		switch (processor) {
+			case "ENUM":
+				objectProcessor = ObjectProcessors.forEnum(Color.class);
+				break;
+			case "ENUM_ARRAY":
+				objectProcessor = ObjectProcessors.forEnumArray(Color.class);
+				break;
+			case "STRING_OBJECT_ARRAY":
+				objectProcessor = ObjectProcessors.forArray(String[].class);
+				break;
+			default:
+				objectProcessor = (ObjectProcessor<?>) ObjectProcessors.class.getField(processor).get(null);
+		}
+		this.processors = new HashSet<>(Arrays.asList(objectProcessor, ObjectProcessors.STRING_PROCESSOR));
+		@SuppressWarnings("unchecked") final Class<Object> objectClass = (Class<Object>) objectProcessor.getObjectClass();
+		this.objectClass = objectClass;
+
+		final Random random = new Random(0);
+		this.values = new Object[objects];
+		for (int i = 0; i < objects; i++) {
+			values[i] = i > 0 && random.nextDouble() < hitRatio ? values[random.nextInt(i)] : value(random);
+		}
+
+		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		write(stream);
+		this.encoded = ByteBuffer.wrap(stream.toByteArray());
+		this.nullStream = new NullOutputStream();
+		System.out.printf("%n%s: %d bytes per object%n", processor, encoded.remaining() / objects);
+	}
+
+	// a new object of objectClass, shaped for what the processor is good at
+	@Nonnull
+	private Object value(@Nonnull Random random) {
+		final Class<?> objectClass = this.objectClass;
+		if (objectClass == String.class) return text(random);
+		if (objectClass == Color.class) return Color.values()[random.nextInt(Color.values().length)];
+		if (!objectClass.isArray()) return element(objectClass, random, 0);
+		final Class<?> componentClass = objectClass.getComponentType();
+		final Object array = Array.newInstance(componentClass, length);
+		double walk = 100.0;
+		for (int i = 0; i < length; i++) {
+			walk += random.nextGaussian() * 0.01;
+			if (processor.startsWith("DELTA_")) {
+				Array.set(array, i, element(componentClass, random, 1000000 + i * 10 + random.nextInt(10)));
+			} else if (processor.startsWith("FOR_")) {
+				Array.set(array, i, element(componentClass, random, 1000000 + random.nextInt(256)));
+			} else if (processor.startsWith("XOR_")) {
+				Array.set(array, i, componentClass == float.class ? (Object) (float) walk : (Object) walk);
+			} else if (!componentClass.isPrimitive() && random.nextInt(8) == 0) {
+				Array.set(array, i, null);
+			} else {
+				Array.set(array, i, element(componentClass, random, random.nextInt(1000)));
+			}
+		}
+		return array;
+	}
+
+	@Nonnull
+	private Object element(@Nonnull Class<?> elementClass, @Nonnull Random random, int value) {
+		if (elementClass == byte.class || elementClass == Byte.class) return (byte) value;
+		if (elementClass == short.class || elementClass == Short.class) return (short) value;
+		if (elementClass == int.class || elementClass == Integer.class) return value;
+		if (elementClass == long.class || elementClass == Long.class) return (long) value;
+		if (elementClass == float.class || elementClass == Float.class) return value * 0.25f;
+		if (elementClass == double.class || elementClass == Double.class) return value * 0.25;
+		if (elementClass == boolean.class || elementClass == Boolean.class) return random.nextBoolean();
+		if (elementClass == char.class || elementClass == Character.class) return (char) ('a' + value % 26);
+		if (elementClass == String.class) return text(random);
+		if (elementClass == Color.class) return Color.values()[value % Color.values().length];
+		throw new IllegalArgumentException(elementClass.getName());
+	}
+
+	@Nonnull
+	private String text(@Nonnull Random random) {
+		final char[] chars = new char[length];
+		for (int i = 0; i < length; i++) chars[i] = (char) ('a' + random.nextInt(26));
+		return new String(chars);
+	}
+
+	private void write(@Nonnull OutputStream stream) throws IOException, LiquifierException {
+		final ObjectWriterImpl objectWriter = new ObjectWriterImpl(processors, stream, WireFormat.STANDARD);
+		for (final Object value : values) objectWriter.writeObject(objectClass, value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void write() throws IOException, LiquifierException {
+		write(nullStream);
+	}
+
+	@Benchmark
+	public void read(@Nonnull Blackhole blackhole) throws IOException, SolidifierException {
+		final ObjectReaderImpl objectReader = new ObjectReaderImpl(processors, encoded, WireFormat.STANDARD);
+		for (int i = 0; i < objects; i++) blackhole.consume(objectReader.readObject(objectClass));
+	}
+
+	private static final class NullOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(@Nonnull byte[] b, int off, int len) {
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Random;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectWriterBenchmark {
+	@Param({"1024"})
+	private int size;
+
+	private int[] ints;
+	private long[] longs;
+	private double[] doubles;
+
+	private LegacyWriter legacyWriter;
+	private ObjectWriterImpl objectWriter;
+
+	@Setup
+	public void setup() throws IOException {
+		final Random random = new Random(0);
+		this.ints = new int[size];
+		this.longs = new long[size];
+		this.doubles = new double[size];
+		for (int i = 0; i < size; i++) {
+			ints[i] = random.nextInt();
+			longs[i] = random.nextLong();
+			doubles[i] = random.nextGaussian();
+		}
+		this.legacyWriter = new LegacyWriter(new NullOutputStream());
+		this.objectWriter = new ObjectWriterImpl(Collections.emptySet(), new NullOutputStream(), WireFormat.STANDARD);
+	}
+
+	@Benchmark
+	public void legacyWriteInt() throws IOException {
+		for (final int value : ints) legacyWriter.writeInt(value);
+		legacyWriter.stream.flush();
+	}
+
+	@Benchmark
+	public void bufferedWriteInt() throws IOException {
+		for (final int value : ints) objectWriter.writeInt(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void legacyWriteLong() throws IOException {
+		for (final long value : longs) legacyWriter.writeLong(value);
+		legacyWriter.stream.flush();
+	}
+
+	@Benchmark
+	public void bufferedWriteLong() throws IOException {
+		for (final long value : longs) objectWriter.writeLong(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void legacyWriteDouble() throws IOException {
+		for (final double value : doubles) legacyWriter.writeDouble(value);
+		legacyWriter.stream.flush();
+	}
+
+	@Benchmark
+	public void bufferedWriteDouble() throws IOException {
+		for (final double value : doubles) objectWriter.writeDouble(value);
+		objectWriter.flush();
+	}
+
+	private static final class NullOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(@Nonnull byte[] b, int off, int len) {
+		}
+	}
+
+	// The per-byte BufferedOutputStream encoding ObjectWriterImpl used before it had its own buffer.
+	private static final class LegacyWriter {
+		@Nonnull private final OutputStream stream;
+
+		LegacyWriter(@Nonnull OutputStream stream) {
+			this.stream = new BufferedOutputStream(stream);
+		}
+
+		void writeShort(short value) throws IOException {
+			stream.write(value);
+			stream.write(value >> 8);
+		}
+
+		void writeInt(int value) throws IOException {
+			stream.write(value);
+			stream.write(value >> 8);
+			stream.write(value >> 16);
+			stream.write(value >> 24);
+		}
+
+		void writeLong(long value) throws IOException {
+			writeInt((int) value);
+			writeInt((int) (value >> 32));
+		}
+
+		void writeDouble(double value) throws IOException {
+			if (value == Double.POSITIVE_INFINITY) {
+				writeShort((short) 0x7FF0);
+			} else if (value == Double.NEGATIVE_INFINITY) {
+				writeShort((short) 0xFFF0);
+			} else if (Double.isNaN(value)) {
+				writeShort((short) 0x7FF8);
+			} else {
+				final long bits = Double.doubleToRawLongBits(value);
+				writeShort((short) (bits >> 48));
+				writeShort((short) (bits >> 32));
+				writeInt((int) bits);
+			}
+		}
+	}
+}
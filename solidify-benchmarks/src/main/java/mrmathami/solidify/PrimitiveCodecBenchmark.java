@@ -0,0 +1,484 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Random;
+
+// Every raw ObjectWriter and ObjectReader method, one value at a time and in bulk, over size values per call.
+// small: values near zero, the case packed encodings are made for. full: values spread over the valid range.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveCodecBenchmark {
+	@Param({"1024"})
+	private int size;
+
+	@Param({"STANDARD", "COMPACT"})
+	private WireFormat format;
+
+	@Param({"small", "full"})
+	private String range;
+
+	private byte[] bytes;
+	private short[] shorts;
+	private short[] packedShorts;
+	private int[] ints;
+	private int[] packedInts;
+	private long[] longs;
+	private long[] packedLongs;
+	private float[] floats;
+	private double[] doubles;
+	private boolean[] booleans;
+	private char[] chars;
+	private String[] strings;
+	private int[] stringLengths;
+
+	private int[] unsignedValues;
+	private long[] unsignedLongValues;
+
+	private ObjectWriterImpl objectWriter;
+	// only one benchmark method runs per trial, so methods reading the same encoding share a reader
+	private ObjectReaderImpl byteReader;
+	private ObjectReaderImpl shortReader;
+	private ObjectReaderImpl packedShortReader;
+	private ObjectReaderImpl intReader;
+	private ObjectReaderImpl packedIntReader;
+	private ObjectReaderImpl longReader;
+	private ObjectReaderImpl packedLongReader;
+	private ObjectReaderImpl floatReader;
+	private ObjectReaderImpl doubleReader;
+	private ObjectReaderImpl booleanReader;
+	private ObjectReaderImpl packedBooleanReader;
+	private ObjectReaderImpl charReader;
+	private ObjectReaderImpl utf8Reader;
+
+	@Setup
+	public void setup() throws IOException {
+		final Random random = new Random(0);
+		final boolean small = range.equals("small");
+		this.bytes = new byte[size];
+		this.shorts = new short[size];
+		this.packedShorts = new short[size];
+		this.ints = new int[size];
+		this.packedInts = new int[size];
+		this.longs = new long[size];
+		this.packedLongs = new long[size];
+		this.floats = new float[size];
+		this.doubles = new double[size];
+		this.booleans = new boolean[size];
+		this.chars = new char[size];
+		this.strings = new String[size];
+		this.stringLengths = new int[size];
+		for (int i = 0; i < size; i++) {
+			bytes[i] = (byte) (small ? random.nextInt(16) : random.nextInt());
+			shorts[i] = (short) (small ? random.nextInt(200) - 100 : random.nextInt());
+			// packed values may not go below -0x80, -0x8000 and -0x80000000 respectively
+			packedShorts[i] = (short) (small ? random.nextInt(200) - 100 : random.nextInt(0x8000 + 0x80) - 0x80);
+			ints[i] = small ? random.nextInt(200) - 100 : random.nextInt();
+			packedInts[i] = small ? random.nextInt(200) - 100 : random.nextInt(Integer.MAX_VALUE) - random.nextInt(0x8000);
+			longs[i] = small ? random.nextInt(200) - 100 : random.nextLong();
+			packedLongs[i] = small ? random.nextInt(200) - 100 : (random.nextLong() >>> 1) - random.nextInt(Integer.MAX_VALUE);
+			floats[i] = small ? random.nextInt(100) * 0.25f : Float.intBitsToFloat(random.nextInt() & 0x7F7FFFFF);
+			doubles[i] = small ? random.nextInt(100) * 0.25 : random.nextGaussian() * 1e6;
+			booleans[i] = random.nextBoolean();
+			chars[i] = (char) (small ? 'a' + random.nextInt(26) : random.nextInt(0xD800));
+			strings[i] = "value-" + (small ? random.nextInt(100) : random.nextLong());
+			stringLengths[i] = strings[i].getBytes(StandardCharsets.UTF_8).length;
+		}
+		this.unsignedValues = new int[size];
+		this.unsignedLongValues = new long[size];
+		this.objectWriter = new ObjectWriterImpl(Collections.emptySet(), new NullOutputStream(), format);
+
+		this.byteReader = reader(objectWriter -> objectWriter.writeBytes(bytes));
+		this.shortReader = reader(objectWriter -> objectWriter.writeShorts(shorts));
+		this.packedShortReader = reader(objectWriter -> objectWriter.writePackedShorts(packedShorts));
+		this.intReader = reader(objectWriter -> objectWriter.writeInts(ints));
+		this.packedIntReader = reader(objectWriter -> objectWriter.writePackedInts(packedInts));
+		this.longReader = reader(objectWriter -> objectWriter.writeLongs(longs));
+		this.packedLongReader = reader(objectWriter -> objectWriter.writePackedLongs(packedLongs));
+		this.floatReader = reader(objectWriter -> objectWriter.writeFloats(floats));
+		this.doubleReader = reader(objectWriter -> objectWriter.writeDoubles(doubles));
+		this.booleanReader = reader(objectWriter -> {
+			for (final boolean value : booleans) objectWriter.writeBoolean(value);
+		});
+		this.packedBooleanReader = reader(objectWriter -> objectWriter.writePackedBooleans(booleans));
+		this.charReader = reader(objectWriter -> objectWriter.writeChars(chars));
+		this.utf8Reader = reader(objectWriter -> {
+			for (final String value : strings) objectWriter.writeUtf8(value);
+		});
+	}
+
+	@Nonnull
+	private ObjectReaderImpl reader(@Nonnull Encoder encoder) throws IOException {
+		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		final ObjectWriterImpl objectWriter = new ObjectWriterImpl(Collections.emptySet(), stream, format);
+		encoder.encode(objectWriter);
+		objectWriter.flush();
+		return new ObjectReaderImpl(Collections.emptySet(), new CyclingInputStream(stream.toByteArray()), format);
+	}
+
+	// region //====== Write ======
+
+	@Benchmark
+	public void writeByte() throws IOException {
+		for (final byte value : bytes) objectWriter.writeByte(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeBytes() throws IOException {
+		objectWriter.writeBytes(bytes);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeShort() throws IOException {
+		for (final short value : shorts) objectWriter.writeShort(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeShorts() throws IOException {
+		objectWriter.writeShorts(shorts);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writePackedShort() throws IOException {
+		for (final short value : packedShorts) objectWriter.writePackedShort(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writePackedShorts() throws IOException {
+		objectWriter.writePackedShorts(packedShorts);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeInt() throws IOException {
+		for (final int value : ints) objectWriter.writeInt(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeInts() throws IOException {
+		objectWriter.writeInts(ints);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writePackedInt() throws IOException {
+		for (final int value : packedInts) objectWriter.writePackedInt(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writePackedInts() throws IOException {
+		objectWriter.writePackedInts(packedInts);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeLong() throws IOException {
+		for (final long value : longs) objectWriter.writeLong(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeLongs() throws IOException {
+		objectWriter.writeLongs(longs);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writePackedLong() throws IOException {
+		for (final long value : packedLongs) objectWriter.writePackedLong(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writePackedLongs() throws IOException {
+		objectWriter.writePackedLongs(packedLongs);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeFloat() throws IOException {
+		for (final float value : floats) objectWriter.writeFloat(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeFloats() throws IOException {
+		objectWriter.writeFloats(floats);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeDouble() throws IOException {
+		for (final double value : doubles) objectWriter.writeDouble(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeDoubles() throws IOException {
+		objectWriter.writeDoubles(doubles);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeBoolean() throws IOException {
+		for (final boolean value : booleans) objectWriter.writeBoolean(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writePackedBooleans() throws IOException {
+		objectWriter.writePackedBooleans(booleans);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeChar() throws IOException {
+		for (final char value : chars) objectWriter.writeChar(value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeChars() throws IOException {
+		objectWriter.writeChars(chars);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void writeUtf8() throws IOException {
+		for (final String value : strings) objectWriter.writeUtf8(value);
+		objectWriter.flush();
+	}
+
+	// endregion //====== Write ======
+
+	// region //====== Read ======
+
+	@Benchmark
+	public void readByte(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(byteReader.readByte());
+	}
+
+	@Benchmark
+	public byte[] readBytes() throws IOException {
+		byteReader.readBytes(bytes, 0, size);
+		return bytes;
+	}
+
+	@Benchmark
+	public void readUnsignedByte(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(byteReader.readUnsignedByte());
+	}
+
+	@Benchmark
+	public int[] readUnsignedBytes() throws IOException {
+		byteReader.readUnsignedBytes(unsignedValues, 0, size);
+		return unsignedValues;
+	}
+
+	@Benchmark
+	public void readShort(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(shortReader.readShort());
+	}
+
+	@Benchmark
+	public short[] readShorts() throws IOException {
+		shortReader.readShorts(shorts, 0, size);
+		return shorts;
+	}
+
+	@Benchmark
+	public void readUnsignedShort(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(shortReader.readUnsignedShort());
+	}
+
+	@Benchmark
+	public int[] readUnsignedShorts() throws IOException {
+		shortReader.readUnsignedShorts(unsignedValues, 0, size);
+		return unsignedValues;
+	}
+
+	@Benchmark
+	public void readPackedShort(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(packedShortReader.readPackedShort());
+	}
+
+	@Benchmark
+	public short[] readPackedShorts() throws IOException {
+		packedShortReader.readPackedShorts(packedShorts, 0, size);
+		return packedShorts;
+	}
+
+	@Benchmark
+	public void readInt(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(intReader.readInt());
+	}
+
+	@Benchmark
+	public int[] readInts() throws IOException {
+		intReader.readInts(ints, 0, size);
+		return ints;
+	}
+
+	@Benchmark
+	public void readUnsignedInt(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(intReader.readUnsignedInt());
+	}
+
+	@Benchmark
+	public long[] readUnsignedInts() throws IOException {
+		intReader.readUnsignedInts(unsignedLongValues, 0, size);
+		return unsignedLongValues;
+	}
+
+	@Benchmark
+	public void readPackedInt(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(packedIntReader.readPackedInt());
+	}
+
+	@Benchmark
+	public int[] readPackedInts() throws IOException {
+		packedIntReader.readPackedInts(packedInts, 0, size);
+		return packedInts;
+	}
+
+	@Benchmark
+	public void readLong(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(longReader.readLong());
+	}
+
+	@Benchmark
+	public long[] readLongs() throws IOException {
+		longReader.readLongs(longs, 0, size);
+		return longs;
+	}
+
+	@Benchmark
+	public void readPackedLong(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(packedLongReader.readPackedLong());
+	}
+
+	@Benchmark
+	public long[] readPackedLongs() throws IOException {
+		packedLongReader.readPackedLongs(packedLongs, 0, size);
+		return packedLongs;
+	}
+
+	@Benchmark
+	public void readFloat(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(floatReader.readFloat());
+	}
+
+	@Benchmark
+	public float[] readFloats() throws IOException {
+		floatReader.readFloats(floats, 0, size);
+		return floats;
+	}
+
+	@Benchmark
+	public void readDouble(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(doubleReader.readDouble());
+	}
+
+	@Benchmark
+	public double[] readDoubles() throws IOException {
+		doubleReader.readDoubles(doubles, 0, size);
+		return doubles;
+	}
+
+	@Benchmark
+	public void readBoolean(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(booleanReader.readBoolean());
+	}
+
+	@Benchmark
+	public boolean[] readPackedBooleans() throws IOException {
+		packedBooleanReader.readPackedBooleans(booleans, 0, size);
+		return booleans;
+	}
+
+	@Benchmark
+	public void readChar(@Nonnull Blackhole blackhole) throws IOException {
+		for (int i = 0; i < size; i++) blackhole.consume(charReader.readChar());
+	}
+
+	@Benchmark
+	public char[] readChars() throws IOException {
+		charReader.readChars(chars, 0, size);
+		return chars;
+	}
+
+	@Benchmark
+	public void readUtf8(@Nonnull Blackhole blackhole) throws IOException {
+		for (final int length : stringLengths) blackhole.consume(utf8Reader.readUtf8(length));
+	}
+
+	// endregion //====== Read ======
+
+	private interface Encoder {
+		void encode(@Nonnull ObjectWriter objectWriter) throws IOException;
+	}
+
+	private static final class NullOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(@Nonnull byte[] b, int off, int len) {
+		}
+	}
+
+	// Replays the encoded values over and over.
+	private static final class CyclingInputStream extends InputStream {
+		@Nonnull private final byte[] bytes;
+		private int position;
+
+		CyclingInputStream(@Nonnull byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public int read() {
+			if (position == bytes.length) this.position = 0;
+			return bytes[position++] & 0xFF;
+		}
+
+		@Override
+		public int read(@Nonnull byte[] b, int off, int len) {
+			if (position == bytes.length) this.position = 0;
+			final int count = Math.min(len, bytes.length - position);
+			System.arraycopy(bytes, position, b, off, count);
+			this.position += count;
+			return count;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package mrmathami.solidify;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.Set;
+
+// TestRecords through the public API: a Liquifier into a heap buffer and a Solidifier back out of it.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordRoundTripBenchmark {
+	@Param({"1000"})
+	private int records;
+
+	@Param({"STANDARD", "COMPACT"})
+	private WireFormat format;
+
+	private Set<ObjectProcessor<?>> processors;
+	private TestRecord[] values;
+	private ByteBuffer buffer;
+	private ByteBuffer encoded;
+
+	@Setup
+	public void setup() throws IOException, LiquifierException {
+		this.processors = TestClassPayload.processors();
+		processors.add(TestRecord.PROCESSOR);
+		final Random random = new Random(0);
+		this.values = new TestRecord[records];
+		for (int i = 0; i < records; i++) values[i] = TestRecord.random(random, i);
+		this.buffer = ByteBuffer.allocate(records * 4096);
+		write();
+		this.encoded = ByteBuffer.allocate(buffer.position());
+		encoded.put(buffer.array(), 0, buffer.position());
+		((Buffer) encoded).flip();
+		System.out.printf("%n%s: %d bytes per record%n", format, encoded.remaining() / records);
+	}
+
+	@Benchmark
+	public ByteBuffer write() throws IOException, LiquifierException {
+		((Buffer) buffer).clear();
+		final Liquifier liquifier = new Liquifier(processors, buffer, LiquifierOptions.DEFAULT.withWireFormat(format));
+		for (final TestRecord record : values) liquifier.liquify(TestRecord.class, record);
+		liquifier.flush();
+		return buffer;
+	}
+
+	@Benchmark
+	public TestRecord read() throws IOException, SolidifierException {
+		final Solidifier solidifier = new Solidifier(processors, encoded);
+		TestRecord record = null;
+		for (int i = 0; i < records; i++) record = solidifier.solidify(TestRecord.class);
+		return record;
+	}
+
+	@Benchmark
+	public TestRecord roundTrip() throws IOException, LiquifierException, SolidifierException {
+		final ByteBuffer written = write();
+		((Buffer) written).flip();
+		final Solidifier solidifier = new Solidifier(processors, written);
+		TestRecord record = null;
+		for (int i = 0; i < records; i++) record = solidifier.solidify(TestRecord.class);
+		return record;
+	}
+}
@@ -0,0 +1,231 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+// The same payloads through Solidify, JDK serialization and hand-written DataOutputStream code, each call encoding or
+// decoding the whole payload with fresh state. The encoded size is printed during setup, run with -prof gc for
+// gc.alloc.rate.norm, the bytes allocated per call.
+// strings: 10000 strings from a vocabulary of 100, equal but never the same instance.
+// arrays: 8 arrays of 65536 doubles. boxed: 100000 Integers, most too large for the Integer cache.
+// records: 1000 TestRecords, a string, boxed and primitive scalars, and 16 short arrays each.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationComparisonBenchmark {
+	@Param({"strings", "arrays", "boxed", "records"})
+	private String shape;
+
+	@Param({"solidify", "solidify-compact", "jdk", "data"})
+	private String codec;
+
+	private Set<ObjectProcessor<?>> processors;
+	private Object[] payload;
+	private ByteArrayOutputStream stream;
+	private byte[] encoded;
+
+	@Setup
+	public void setup() throws IOException, LiquifierException {
+		final Random random = new Random(0);
+		switch (shape) {
+			case "strings": {
+				final String[] vocabulary = new String[100];
+				for (int i = 0; i < vocabulary.length; i++) vocabulary[i] = "word-" + Integer.toHexString(random.nextInt());
+				this.payload = new String[10000];
+				for (int i = 0; i < payload.length; i++) payload[i] = new String(vocabulary[random.nextInt(vocabulary.length)]);
+				break;
+			}
+			case "arrays":
+				this.payload = new double[8][];
+				for (int i = 0; i < payload.length; i++) {
+					final double[] array = new double[65536];
+					for (int j = 0; j < array.length; j++) array[j] = random.nextGaussian();
+					payload[i] = array;
+				}
+				break;
+			case "boxed":
+				this.payload = new Integer[100000];
+				for (int i = 0; i < payload.length; i++) payload[i] = random.nextInt(10000);
+				break;
+			default:
+				this.payload = new TestRecord[1000];
+				for (int i = 0; i < payload.length; i++) payload[i] = TestRecord.random(random, i);
+		}
+		this.processors = new HashSet<>(TestClassPayload.processors());
+		processors.addAll(Arrays.asList(TestRecord.PROCESSOR, ObjectProcessors.DOUBLE_ARRAY_PROCESSOR));
+		this.stream = new ByteArrayOutputStream();
+		encode();
+		this.encoded = stream.toByteArray();
+		System.out.printf("%n%s %s: %d bytes, %.1f per %s%n", shape, codec, encoded.length, (double) encoded.length / payload.length,
+				shape.equals("records") ? "record" : shape.equals("arrays") ? "array" : "value");
+	}
+
+	@Benchmark
+	public int encode() throws IOException, LiquifierException {
+		stream.reset();
+		switch (codec) {
+			case "solidify":
+			case "solidify-compact": {
+				final Liquifier liquifier = new Liquifier(processors, stream, LiquifierOptions.DEFAULT.withWireFormat(codec.equals("solidify") ? WireFormat.STANDARD : WireFormat.COMPACT));
+				liquifySolidify(liquifier);
+				liquifier.flush();
+				break;
+			}
+			case "jdk": {
+				final ObjectOutputStream objectStream = new ObjectOutputStream(stream);
+				objectStream.writeObject(payload);
+				objectStream.flush();
+				break;
+			}
+			default: {
+				final DataOutputStream dataStream = new DataOutputStream(stream);
+				writeData(dataStream);
+				dataStream.flush();
+			}
+		}
+		return stream.size();
+	}
+
+	@Benchmark
+	public Object decode() throws IOException, SolidifierException, ClassNotFoundException {
+		switch (codec) {
+			case "solidify":
+			case "solidify-compact":
+				return solidify(new Solidifier(processors, ByteBuffer.wrap(encoded)));
+			case "jdk":
+				return new ObjectInputStream(new ByteArrayInputStream(encoded)).readObject();
+			default:
+				return readData(new DataInputStream(new ByteArrayInputStream(encoded)));
+		}
+	}
+
+	// region //====== Solidify ======
+
+	private void liquifySolidify(@Nonnull Liquifier liquifier) throws IOException, LiquifierException {
+		switch (shape) {
+			case "strings":
+				for (final Object value : payload) liquifier.liquify(String.class, (String) value);
+				break;
+			case "arrays":
+				for (final Object value : payload) liquifier.liquify(double[].class, (double[]) value);
+				break;
+			case "boxed":
+				for (final Object value : payload) liquifier.liquify(Integer.class, (Integer) value);
+				break;
+			default:
+				for (final Object value : payload) liquifier.liquify(TestRecord.class, (TestRecord) value);
+		}
+	}
+
+	@Nonnull
+	private Object[] solidify(@Nonnull Solidifier solidifier) throws IOException, SolidifierException {
+		final int length = payload.length;
+		switch (shape) {
+			case "strings": {
+				final String[] values = new String[length];
+				for (int i = 0; i < length; i++) values[i] = solidifier.solidify(String.class);
+				return values;
+			}
+			case "arrays": {
+				final double[][] values = new double[length][];
+				for (int i = 0; i < length; i++) values[i] = solidifier.solidify(double[].class);
+				return values;
+			}
+			case "boxed": {
+				final Integer[] values = new Integer[length];
+				for (int i = 0; i < length; i++) values[i] = solidifier.solidify(Integer.class);
+				return values;
+			}
+			default: {
+				final TestRecord[] values = new TestRecord[length];
+				for (int i = 0; i < length; i++) values[i] = solidifier.solidify(TestRecord.class);
+				return values;
+			}
+		}
+	}
+
+	// endregion //====== Solidify ======
+
+	// region //====== DataOutputStream ======
+
+	// a count ahead of the values, no sharing of equal strings, the straightforward code
+	private void writeData(@Nonnull DataOutputStream output) throws IOException {
+		output.writeInt(payload.length);
+		switch (shape) {
+			case "strings":
+				for (final Object value : payload) output.writeUTF((String) value);
+				break;
+			case "arrays":
+				for (final Object value : payload) {
+					final double[] array = (double[]) value;
+					output.writeInt(array.length);
+					for (final double element : array) output.writeDouble(element);
+				}
+				break;
+			case "boxed":
+				for (final Object value : payload) output.writeInt((Integer) value);
+				break;
+			default:
+				for (final Object value : payload) ((TestRecord) value).writeTo(output);
+		}
+	}
+
+	@Nonnull
+	private Object[] readData(@Nonnull DataInputStream input) throws IOException {
+		final int length = input.readInt();
+		switch (shape) {
+			case "strings": {
+				final String[] values = new String[length];
+				for (int i = 0; i < length; i++) values[i] = input.readUTF();
+				return values;
+			}
+			case "arrays": {
+				final double[][] values = new double[length][];
+				for (int i = 0; i < length; i++) {
+					final double[] array = new double[input.readInt()];
+					for (int j = 0; j < array.length; j++) array[j] = input.readDouble();
+					values[i] = array;
+				}
+				return values;
+			}
+			case "boxed": {
+				final Integer[] values = new Integer[length];
+				for (int i = 0; i < length; i++) values[i] = input.readInt();
+				return values;
+			}
+			default: {
+				final TestRecord[] values = new TestRecord[length];
+				for (int i = 0; i < length; i++) values[i] = TestRecord.readFrom(input);
+				return values;
+			}
+		}
+	}
+
+	// endregion //====== DataOutputStream ======
+}
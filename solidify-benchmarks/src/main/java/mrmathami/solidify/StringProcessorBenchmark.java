@@ -0,0 +1,121 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+
+// Writes and reads a batch of strings per call, with fresh caches every call.
+// text: ascii, latin (one in four chars takes two bytes), cjk (three bytes each), emoji (surrogate pairs, four bytes),
+// mixed (all of them). hitRatio: the share of strings equal to an earlier one, which the writer sends as a cache index.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringProcessorBenchmark {
+	private static final String[] KINDS = {"ascii", "latin", "cjk", "emoji"};
+
+	@Param({"8", "64", "1024"})
+	private int length;
+
+	@Param({"ascii", "latin", "cjk", "emoji", "mixed"})
+	private String text;
+
+	@Param({"0.0", "0.5", "0.9"})
+	private double hitRatio;
+
+	@Param({"256"})
+	private int strings;
+
+	private Set<ObjectProcessor<?>> processors;
+	private String[] values;
+	private ByteBuffer encoded;
+	private OutputStream nullStream;
+
+	@Setup
+	public void setup() throws IOException, LiquifierException {
+		this.processors = Collections.singleton(ObjectProcessors.STRING_PROCESSOR);
+		final Random random = new Random(0);
+		this.values = new String[strings];
+		for (int i = 0; i < strings; i++) {
+			// an equal copy, not the same instance, the string cache compares by equality
+			values[i] = i > 0 && random.nextDouble() < hitRatio ? new String(values[random.nextInt(i)]) : text(random);
+		}
+		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		write(stream);
+		this.encoded = ByteBuffer.wrap(stream.toByteArray());
+		this.nullStream = new NullOutputStream();
+	}
+
+	@Nonnull
+	private String text(@Nonnull Random random) {
+		final StringBuilder builder = new StringBuilder(length);
+		while (builder.length() < length) {
+			final String kind = text.equals("mixed") ? KINDS[random.nextInt(KINDS.length)] : text;
+			switch (kind) {
+				case "ascii":
+					builder.append((char) ('a' + random.nextInt(26)));
+					break;
+				case "latin":
+					builder.append(random.nextInt(4) == 0 ? (char) (0xE0 + random.nextInt(32)) : (char) ('a' + random.nextInt(26)));
+					break;
+				case "cjk":
+					builder.append((char) (0x4E00 + random.nextInt(0x5000)));
+					break;
+				default:
+					if (builder.length() + 2 > length) {
+						builder.append(' ');
+					} else {
+						builder.appendCodePoint(0x1F600 + random.nextInt(0x50));
+					}
+			}
+		}
+		return builder.toString();
+	}
+
+	private void write(@Nonnull OutputStream stream) throws IOException, LiquifierException {
+		final ObjectWriterImpl objectWriter = new ObjectWriterImpl(processors, stream, WireFormat.STANDARD);
+		for (final String value : values) objectWriter.writeObject(String.class, value);
+		objectWriter.flush();
+	}
+
+	@Benchmark
+	public void write() throws IOException, LiquifierException {
+		write(nullStream);
+	}
+
+	@Benchmark
+	public void read(@Nonnull Blackhole blackhole) throws IOException, SolidifierException {
+		final ObjectReaderImpl objectReader = new ObjectReaderImpl(processors, encoded, WireFormat.STANDARD);
+		for (int i = 0; i < strings; i++) blackhole.consume(objectReader.readObject(String.class));
+	}
+
+	private static final class NullOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(@Nonnull byte[] b, int off, int len) {
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+// Encoded TestRecords: a string, every boxed and primitive scalar, and every array type.
+final class TestClassPayload {
+	private TestClassPayload() {
+	}
+
+	@Nonnull
+	static Set<ObjectProcessor<?>> processors() {
+		return new HashSet<>(Arrays.asList(
+				ObjectProcessors.STRING_PROCESSOR,
+				ObjectProcessors.BOXED_BYTE_PROCESSOR, ObjectProcessors.BOXED_SHORT_PROCESSOR,
+				ObjectProcessors.BOXED_INTEGER_PROCESSOR, ObjectProcessors.BOXED_LONG_PROCESSOR,
+				ObjectProcessors.BOXED_FLOAT_PROCESSOR, ObjectProcessors.BOXED_DOUBLE_PROCESSOR,
+				ObjectProcessors.BOXED_BOOLEAN_PROCESSOR, ObjectProcessors.BOXED_CHARACTER_PROCESSOR,
+				ObjectProcessors.BOXED_BYTE_ARRAY_PROCESSOR, ObjectProcessors.BOXED_SHORT_ARRAY_PROCESSOR,
+				ObjectProcessors.BOXED_INTEGER_ARRAY_PROCESSOR, ObjectProcessors.BOXED_LONG_ARRAY_PROCESSOR,
+				ObjectProcessors.BOXED_FLOAT_ARRAY_PROCESSOR, ObjectProcessors.BOXED_DOUBLE_ARRAY_PROCESSOR,
+				ObjectProcessors.BOXED_BOOLEAN_ARRAY_PROCESSOR, ObjectProcessors.BOXED_CHARACTER_ARRAY_PROCESSOR,
+				ObjectProcessors.BYTE_ARRAY_PROCESSOR, ObjectProcessors.SHORT_ARRAY_PROCESSOR,
+				ObjectProcessors.INT_ARRAY_PROCESSOR, ObjectProcessors.LONG_ARRAY_PROCESSOR,
+				ObjectProcessors.FLOAT_ARRAY_PROCESSOR, ObjectProcessors.DOUBLE_ARRAY_PROCESSOR,
+				ObjectProcessors.BOOLEAN_ARRAY_PROCESSOR, ObjectProcessors.CHAR_ARRAY_PROCESSOR
+		));
+	}
+
+	// the encoded records without a stream header, as the writer hands them to the stream
+	@Nonnull
+	static byte[] encode(int records, long seed) throws IOException, LiquifierException {
+		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		final ObjectWriterImpl objectWriter = new ObjectWriterImpl(processors(), stream, WireFormat.STANDARD);
+		final Random random = new Random(seed);
+		for (int i = 0; i < records; i++) TestRecord.PROCESSOR.liquify(objectWriter, null, TestRecord.random(random, i));
+		objectWriter.flush();
+		return stream.toByteArray();
+	}
+}
@@ -0,0 +1,420 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.Random;
+
+// The fields of mrmathami.Test.TestClass, with a processor that writes them in declaration order, and the same
+// written by hand with DataOutput the way code without a serialization library would.
+final class TestRecord implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private static final int ARRAY_LENGTH = 16;
+	private static final String[] NAMES = {"alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta"};
+
+	@Nonnull static final ObjectProcessor<TestRecord> PROCESSOR = new Processor();
+
+	String string;
+
+	Byte boxedByte;
+	Short boxedShort;
+	Integer boxedInteger;
+	Long boxedLong;
+	Float boxedFloat;
+	Double boxedDouble;
+	Boolean boxedBoolean;
+	Character boxedCharacter;
+
+	byte primitiveByte;
+	short primitiveShort;
+	int primitiveInt;
+	long primitiveLong;
+	float primitiveFloat;
+	double primitiveDouble;
+	boolean primitiveBoolean;
+	char primitiveChar;
+
+	Byte[] boxedByteArray;
+	Short[] boxedShortArray;
+	Integer[] boxedIntegerArray;
+	Long[] boxedLongArray;
+	Float[] boxedFloatArray;
+	Double[] boxedDoubleArray;
+	Boolean[] boxedBooleanArray;
+	Character[] boxedCharacterArray;
+
+	byte[] primitiveByteArray;
+	short[] primitiveShortArray;
+	int[] primitiveIntArray;
+	long[] primitiveLongArray;
+	float[] primitiveFloatArray;
+	double[] primitiveDoubleArray;
+	boolean[] primitiveBooleanArray;
+	char[] primitiveCharArray;
+
+	// small counters, mostly positive ids and a few nulls, the way real snapshots look
+	@Nonnull
+	static TestRecord random(@Nonnull Random random, int id) {
+		final TestRecord record = new TestRecord();
+		record.string = NAMES[random.nextInt(NAMES.length)] + "-" + random.nextInt(1000);
+
+		record.boxedByte = (byte) random.nextInt(16);
+		record.boxedShort = (short) random.nextInt(1000);
+		record.boxedInteger = id;
+		record.boxedLong = 1600000000000L + id * 1000L;
+		record.boxedFloat = random.nextInt(100) / 4.0f;
+		record.boxedDouble = random.nextInt(10000) / 100.0;
+		record.boxedBoolean = random.nextBoolean() ? Boolean.TRUE : null;
+		record.boxedCharacter = (char) ('a' + random.nextInt(26));
+
+		record.primitiveByte = (byte) random.nextInt(4);
+		record.primitiveShort = (short) random.nextInt(100);
+		record.primitiveInt = random.nextInt(100000);
+		record.primitiveLong = id;
+		record.primitiveFloat = random.nextInt(10) * 0.5f;
+		record.primitiveDouble = random.nextInt(1000) * 0.25;
+		record.primitiveBoolean = random.nextInt(8) == 0;
+		record.primitiveChar = (char) ('A' + random.nextInt(26));
+
+		record.boxedByteArray = new Byte[ARRAY_LENGTH];
+		record.boxedShortArray = new Short[ARRAY_LENGTH];
+		record.boxedIntegerArray = new Integer[ARRAY_LENGTH];
+		record.boxedLongArray = new Long[ARRAY_LENGTH];
+		record.boxedFloatArray = new Float[ARRAY_LENGTH];
+		record.boxedDoubleArray = new Double[ARRAY_LENGTH];
+		record.boxedBooleanArray = new Boolean[ARRAY_LENGTH];
+		record.boxedCharacterArray = new Character[ARRAY_LENGTH];
+		record.primitiveByteArray = new byte[ARRAY_LENGTH];
+		record.primitiveShortArray = new short[ARRAY_LENGTH];
+		record.primitiveIntArray = new int[ARRAY_LENGTH];
+		record.primitiveLongArray = new long[ARRAY_LENGTH];
+		record.primitiveFloatArray = new float[ARRAY_LENGTH];
+		record.primitiveDoubleArray = new double[ARRAY_LENGTH];
+		record.primitiveBooleanArray = new boolean[ARRAY_LENGTH];
+		record.primitiveCharArray = new char[ARRAY_LENGTH];
+		for (int i = 0; i < ARRAY_LENGTH; i++) {
+			final boolean present = random.nextInt(8) != 0;
+			final byte b = (byte) random.nextInt(8);
+			final short s = (short) random.nextInt(500);
+			final int n = random.nextInt(5000);
+			final long l = id * 16L + i;
+			final float f = random.nextInt(64) * 0.125f;
+			final double d = random.nextInt(4096) * 0.0625;
+			final boolean z = random.nextInt(4) == 0;
+			final char c = (char) ('a' + random.nextInt(26));
+			record.primitiveByteArray[i] = b;
+			record.primitiveShortArray[i] = s;
+			record.primitiveIntArray[i] = n;
+			record.primitiveLongArray[i] = l;
+			record.primitiveFloatArray[i] = f;
+			record.primitiveDoubleArray[i] = d;
+			record.primitiveBooleanArray[i] = z;
+			record.primitiveCharArray[i] = c;
+			if (present) {
+				record.boxedByteArray[i] = b;
+				record.boxedShortArray[i] = s;
+				record.boxedIntegerArray[i] = n;
+				record.boxedLongArray[i] = l;
+				record.boxedFloatArray[i] = f;
+				record.boxedDoubleArray[i] = d;
+				record.boxedBooleanArray[i] = z;
+				record.boxedCharacterArray[i] = c;
+			}
+		}
+		return record;
+	}
+
+	// region //====== DataOutput ======
+
+	// nulls are a presence flag ahead of the value, arrays a length ahead of the elements with -1 for null
+	void writeTo(@Nonnull DataOutput output) throws IOException {
+		output.writeBoolean(string != null);
+		if (string != null) output.writeUTF(string);
+
+		output.writeBoolean(boxedByte != null);
+		if (boxedByte != null) output.writeByte(boxedByte);
+		output.writeBoolean(boxedShort != null);
+		if (boxedShort != null) output.writeShort(boxedShort);
+		output.writeBoolean(boxedInteger != null);
+		if (boxedInteger != null) output.writeInt(boxedInteger);
+		output.writeBoolean(boxedLong != null);
+		if (boxedLong != null) output.writeLong(boxedLong);
+		output.writeBoolean(boxedFloat != null);
+		if (boxedFloat != null) output.writeFloat(boxedFloat);
+		output.writeBoolean(boxedDouble != null);
+		if (boxedDouble != null) output.writeDouble(boxedDouble);
+		output.writeBoolean(boxedBoolean != null);
+		if (boxedBoolean != null) output.writeBoolean(boxedBoolean);
+		output.writeBoolean(boxedCharacter != null);
+		if (boxedCharacter != null) output.writeChar(boxedCharacter);
+
+		output.writeByte(primitiveByte);
+		output.writeShort(primitiveShort);
+		output.writeInt(primitiveInt);
+		output.writeLong(primitiveLong);
+		output.writeFloat(primitiveFloat);
+		output.writeDouble(primitiveDouble);
+		output.writeBoolean(primitiveBoolean);
+		output.writeChar(primitiveChar);
+
+		writeLength(output, boxedByteArray);
+		if (boxedByteArray != null) for (final Byte value : boxedByteArray) {
+			output.writeBoolean(value != null);
+			if (value != null) output.writeByte(value);
+		}
+		writeLength(output, boxedShortArray);
+		if (boxedShortArray != null) for (final Short value : boxedShortArray) {
+			output.writeBoolean(value != null);
+			if (value != null) output.writeShort(value);
+		}
+		writeLength(output, boxedIntegerArray);
+		if (boxedIntegerArray != null) for (final Integer value : boxedIntegerArray) {
+			output.writeBoolean(value != null);
+			if (value != null) output.writeInt(value);
+		}
+		writeLength(output, boxedLongArray);
+		if (boxedLongArray != null) for (final Long value : boxedLongArray) {
+			output.writeBoolean(value != null);
+			if (value != null) output.writeLong(value);
+		}
+		writeLength(output, boxedFloatArray);
+		if (boxedFloatArray != null) for (final Float value : boxedFloatArray) {
+			output.writeBoolean(value != null);
+			if (value != null) output.writeFloat(value);
+		}
+		writeLength(output, boxedDoubleArray);
+		if (boxedDoubleArray != null) for (final Double value : boxedDoubleArray) {
+			output.writeBoolean(value != null);
+			if (value != null) output.writeDouble(value);
+		}
+		writeLength(output, boxedBooleanArray);
+		if (boxedBooleanArray != null) for (final Boolean value : boxedBooleanArray) {
+			output.writeBoolean(value != null);
+			if (value != null) output.writeBoolean(value);
+		}
+		writeLength(output, boxedCharacterArray);
+		if (boxedCharacterArray != null) for (final Character value : boxedCharacterArray) {
+			output.writeBoolean(value != null);
+			if (value != null) output.writeChar(value);
+		}
+
+		writeLength(output, primitiveByteArray);
+		if (primitiveByteArray != null) output.write(primitiveByteArray);
+		writeLength(output, primitiveShortArray);
+		if (primitiveShortArray != null) for (final short value : primitiveShortArray) output.writeShort(value);
+		writeLength(output, primitiveIntArray);
+		if (primitiveIntArray != null) for (final int value : primitiveIntArray) output.writeInt(value);
+		writeLength(output, primitiveLongArray);
+		if (primitiveLongArray != null) for (final long value : primitiveLongArray) output.writeLong(value);
+		writeLength(output, primitiveFloatArray);
+		if (primitiveFloatArray != null) for (final float value : primitiveFloatArray) output.writeFloat(value);
+		writeLength(output, primitiveDoubleArray);
+		if (primitiveDoubleArray != null) for (final double value : primitiveDoubleArray) output.writeDouble(value);
+		writeLength(output, primitiveBooleanArray);
+		if (primitiveBooleanArray != null) for (final boolean value : primitiveBooleanArray) output.writeBoolean(value);
+		writeLength(output, primitiveCharArray);
+		if (primitiveCharArray != null) for (final char value : primitiveCharArray) output.writeChar(value);
+	}
+
+	private static void writeLength(@Nonnull DataOutput output, @Nullable Object array) throws IOException {
+		output.writeInt(array != null ? Array.getLength(array) : -1);
+	}
+
+	@Nonnull
+	static TestRecord readFrom(@Nonnull DataInput input) throws IOException {
+		final TestRecord record = new TestRecord();
+		record.string = input.readBoolean() ? input.readUTF() : null;
+
+		record.boxedByte = input.readBoolean() ? input.readByte() : null;
+		record.boxedShort = input.readBoolean() ? input.readShort() : null;
+		record.boxedInteger = input.readBoolean() ? input.readInt() : null;
+		record.boxedLong = input.readBoolean() ? input.readLong() : null;
+		record.boxedFloat = input.readBoolean() ? input.readFloat() : null;
+		record.boxedDouble = input.readBoolean() ? input.readDouble() : null;
+		record.boxedBoolean = input.readBoolean() ? input.readBoolean() : null;
+		record.boxedCharacter = input.readBoolean() ? input.readChar() : null;
+
+		record.primitiveByte = input.readByte();
+		record.primitiveShort = input.readShort();
+		record.primitiveInt = input.readInt();
+		record.primitiveLong = input.readLong();
+		record.primitiveFloat = input.readFloat();
+		record.primitiveDouble = input.readDouble();
+		record.primitiveBoolean = input.readBoolean();
+		record.primitiveChar = input.readChar();
+
+		int length;
+		if ((length = input.readInt()) >= 0) {
+			record.boxedByteArray = new Byte[length];
+			for (int i = 0; i < length; i++) record.boxedByteArray[i] = input.readBoolean() ? input.readByte() : null;
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.boxedShortArray = new Short[length];
+			for (int i = 0; i < length; i++) record.boxedShortArray[i] = input.readBoolean() ? input.readShort() : null;
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.boxedIntegerArray = new Integer[length];
+			for (int i = 0; i < length; i++) record.boxedIntegerArray[i] = input.readBoolean() ? input.readInt() : null;
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.boxedLongArray = new Long[length];
+			for (int i = 0; i < length; i++) record.boxedLongArray[i] = input.readBoolean() ? input.readLong() : null;
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.boxedFloatArray = new Float[length];
+			for (int i = 0; i < length; i++) record.boxedFloatArray[i] = input.readBoolean() ? input.readFloat() : null;
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.boxedDoubleArray = new Double[length];
+			for (int i = 0; i < length; i++) record.boxedDoubleArray[i] = input.readBoolean() ? input.readDouble() : null;
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.boxedBooleanArray = new Boolean[length];
+			for (int i = 0; i < length; i++) record.boxedBooleanArray[i] = input.readBoolean() ? input.readBoolean() : null;
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.boxedCharacterArray = new Character[length];
+			for (int i = 0; i < length; i++) record.boxedCharacterArray[i] = input.readBoolean() ? input.readChar() : null;
+		}
+
+		if ((length = input.readInt()) >= 0) {
+			record.primitiveByteArray = new byte[length];
+			input.readFully(record.primitiveByteArray);
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.primitiveShortArray = new short[length];
+			for (int i = 0; i < length; i++) record.primitiveShortArray[i] = input.readShort();
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.primitiveIntArray = new int[length];
+			for (int i = 0; i < length; i++) record.primitiveIntArray[i] = input.readInt();
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.primitiveLongArray = new long[length];
+			for (int i = 0; i < length; i++) record.primitiveLongArray[i] = input.readLong();
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.primitiveFloatArray = new float[length];
+			for (int i = 0; i < length; i++) record.primitiveFloatArray[i] = input.readFloat();
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.primitiveDoubleArray = new double[length];
+			for (int i = 0; i < length; i++) record.primitiveDoubleArray[i] = input.readDouble();
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.primitiveBooleanArray = new boolean[length];
+			for (int i = 0; i < length; i++) record.primitiveBooleanArray[i] = input.readBoolean();
+		}
+		if ((length = input.readInt()) >= 0) {
+			record.primitiveCharArray = new char[length];
+			for (int i = 0; i < length; i++) record.primitiveCharArray[i] = input.readChar();
+		}
+		return record;
+	}
+
+	// endregion //====== DataOutput ======
+
+	private static final class Processor implements ObjectProcessor<TestRecord> {
+		@Nonnull
+		@Override
+		public CacheType getCacheType() {
+			return CacheType.NO_CACHE;
+		}
+
+		@Nonnull
+		@Override
+		public Class<TestRecord> getObjectClass() {
+			return TestRecord.class;
+		}
+
+		@Override
+		public void liquify(@Nonnull ObjectWriter objectWriter, @Nullable ObjectWriter.Cache<TestRecord> writerCache, @Nullable TestRecord record) throws IOException, LiquifierException {
+			if (record == null) throw new LiquifierException("Null record.");
+			objectWriter.writeObject(String.class, record.string);
+
+			objectWriter.writeObject(Byte.class, record.boxedByte);
+			objectWriter.writeObject(Short.class, record.boxedShort);
+			objectWriter.writeObject(Integer.class, record.boxedInteger);
+			objectWriter.writeObject(Long.class, record.boxedLong);
+			objectWriter.writeObject(Float.class, record.boxedFloat);
+			objectWriter.writeObject(Double.class, record.boxedDouble);
+			objectWriter.writeObject(Boolean.class, record.boxedBoolean);
+			objectWriter.writeObject(Character.class, record.boxedCharacter);
+
+			objectWriter.writeByte(record.primitiveByte);
+			objectWriter.writeShort(record.primitiveShort);
+			objectWriter.writeInt(record.primitiveInt);
+			objectWriter.writeLong(record.primitiveLong);
+			objectWriter.writeFloat(record.primitiveFloat);
+			objectWriter.writeDouble(record.primitiveDouble);
+			objectWriter.writeBoolean(record.primitiveBoolean);
+			objectWriter.writeChar(record.primitiveChar);
+
+			objectWriter.writeObject(Byte[].class, record.boxedByteArray);
+			objectWriter.writeObject(Short[].class, record.boxedShortArray);
+			objectWriter.writeObject(Integer[].class, record.boxedIntegerArray);
+			objectWriter.writeObject(Long[].class, record.boxedLongArray);
+			objectWriter.writeObject(Float[].class, record.boxedFloatArray);
+			objectWriter.writeObject(Double[].class, record.boxedDoubleArray);
+			objectWriter.writeObject(Boolean[].class, record.boxedBooleanArray);
+			objectWriter.writeObject(Character[].class, record.boxedCharacterArray);
+			objectWriter.writeObject(byte[].class, record.primitiveByteArray);
+			objectWriter.writeObject(short[].class, record.primitiveShortArray);
+			objectWriter.writeObject(int[].class, record.primitiveIntArray);
+			objectWriter.writeObject(long[].class, record.primitiveLongArray);
+			objectWriter.writeObject(float[].class, record.primitiveFloatArray);
+			objectWriter.writeObject(double[].class, record.primitiveDoubleArray);
+			objectWriter.writeObject(boolean[].class, record.primitiveBooleanArray);
+			objectWriter.writeObject(char[].class, record.primitiveCharArray);
+		}
+
+		@Nonnull
+		@Override
+		public TestRecord solidify(@Nonnull ObjectReader objectReader, @Nullable ObjectReader.Cache<TestRecord> readerCache) throws IOException, SolidifierException {
+			final TestRecord record = new TestRecord();
+			record.string = objectReader.readObject(String.class);
+
+			record.boxedByte = objectReader.readObject(Byte.class);
+			record.boxedShort = objectReader.readObject(Short.class);
+			record.boxedInteger = objectReader.readObject(Integer.class);
+			record.boxedLong = objectReader.readObject(Long.class);
+			record.boxedFloat = objectReader.readObject(Float.class);
+			record.boxedDouble = objectReader.readObject(Double.class);
+			record.boxedBoolean = objectReader.readObject(Boolean.class);
+			record.boxedCharacter = objectReader.readObject(Character.class);
+
+			record.primitiveByte = objectReader.readByte();
+			record.primitiveShort = objectReader.readShort();
+			record.primitiveInt = objectReader.readInt();
+			record.primitiveLong = objectReader.readLong();
+			record.primitiveFloat = objectReader.readFloat();
+			record.primitiveDouble = objectReader.readDouble();
+			record.primitiveBoolean = objectReader.readBoolean();
+			record.primitiveChar = objectReader.readChar();
+
+			record.boxedByteArray = objectReader.readObject(Byte[].class);
+			record.boxedShortArray = objectReader.readObject(Short[].class);
+			record.boxedIntegerArray = objectReader.readObject(Integer[].class);
+			record.boxedLongArray = objectReader.readObject(Long[].class);
+			record.boxedFloatArray = objectReader.readObject(Float[].class);
+			record.boxedDoubleArray = objectReader.readObject(Double[].class);
+			record.boxedBooleanArray = objectReader.readObject(Boolean[].class);
+			record.boxedCharacterArray = objectReader.readObject(Character[].class);
+			record.primitiveByteArray = objectReader.readObject(byte[].class);
+			record.primitiveShortArray = objectReader.readObject(short[].class);
+			record.primitiveIntArray = objectReader.readObject(int[].class);
+			record.primitiveLongArray = objectReader.readObject(long[].class);
+			record.primitiveFloatArray = objectReader.readObject(float[].class);
+			record.primitiveDoubleArray = objectReader.readObject(double[].class);
+			record.primitiveBooleanArray = objectReader.readObject(boolean[].class);
+			record.primitiveCharArray = objectReader.readObject(char[].class);
+			return record;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XorArrayProcessorBenchmark {
+	@Param({"65536"})
+	private int size;
+
+	// gauge: a slow random walk, steps: a value that changes every minute of samples
+	@Param({"gauge", "steps"})
+	private String series;
+
+	private double[] doubles;
+	private float[] floats;
+
+	private ByteBuffer buffer;
+	private ByteBuffer plainDoubles;
+	private ByteBuffer xorDoubles;
+	private ByteBuffer plainFloats;
+	private ByteBuffer xorFloats;
+
+	@Setup
+	public void setup() throws IOException, LiquifierException {
+		final Random random = new Random(0);
+		this.doubles = new double[size];
+		this.floats = new float[size];
+		double value = 50.0;
+		for (int i = 0; i < size; i++) {
+			value = series.equals("gauge") ? value + random.nextGaussian() * 0.01 : i / 60 * 0.25;
+			doubles[i] = value;
+			floats[i] = (float) value;
+		}
+		this.buffer = ByteBuffer.allocate(size * 12 + 64);
+		this.plainDoubles = encode(ObjectProcessors.DOUBLE_ARRAY_PROCESSOR, double[].class, doubles);
+		this.xorDoubles = encode(ObjectProcessors.XOR_DOUBLE_ARRAY_PROCESSOR, double[].class, doubles);
+		this.plainFloats = encode(ObjectProcessors.FLOAT_ARRAY_PROCESSOR, float[].class, floats);
+		this.xorFloats = encode(ObjectProcessors.XOR_FLOAT_ARRAY_PROCESSOR, float[].class, floats);
+	}
+
+	@Nonnull
+	private <E> ByteBuffer encode(@Nonnull ObjectProcessor<E> processor, @Nonnull Class<E> arrayClass, @Nonnull E array) throws IOException, LiquifierException {
+		final ByteBuffer encoded = ByteBuffer.allocate(size * 12 + 64);
+		write(processor, arrayClass, array, encoded);
+		((Buffer) encoded).flip();
+		return encoded;
+	}
+
+	// caches are per Liquifier, so every write needs a fresh one to encode the whole array again
+	private static <E> void write(@Nonnull ObjectProcessor<E> processor, @Nonnull Class<E> arrayClass, @Nonnull E array, @Nonnull ByteBuffer target) throws IOException, LiquifierException {
+		final Set<ObjectProcessor<?>> processors = Collections.singleton(processor);
+		final Liquifier liquifier = new Liquifier(processors, target);
+		liquifier.liquify(arrayClass, array);
+		liquifier.flush();
+	}
+
+	private static <E> E read(@Nonnull ObjectProcessor<E> processor, @Nonnull Class<E> arrayClass, @Nonnull ByteBuffer source) throws IOException, SolidifierException {
+		return new Solidifier(Collections.singleton(processor), source.duplicate()).solidify(arrayClass);
+	}
+
+	@Benchmark
+	public ByteBuffer plainWriteDouble() throws IOException, LiquifierException {
+		((Buffer) buffer).clear();
+		write(ObjectProcessors.DOUBLE_ARRAY_PROCESSOR, double[].class, doubles, buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public ByteBuffer xorWriteDouble() throws IOException, LiquifierException {
+		((Buffer) buffer).clear();
+		write(ObjectProcessors.XOR_DOUBLE_ARRAY_PROCESSOR, double[].class, doubles, buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public double[] plainReadDouble() throws IOException, SolidifierException {
+		return read(ObjectProcessors.DOUBLE_ARRAY_PROCESSOR, double[].class, plainDoubles);
+	}
+
+	@Benchmark
+	public double[] xorReadDouble() throws IOException, SolidifierException {
+		return read(ObjectProcessors.XOR_DOUBLE_ARRAY_PROCESSOR, double[].class, xorDoubles);
+	}
+
+	@Benchmark
+	public ByteBuffer plainWriteFloat() throws IOException, LiquifierException {
+		((Buffer) buffer).clear();
+		write(ObjectProcessors.FLOAT_ARRAY_PROCESSOR, float[].class, floats, buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public ByteBuffer xorWriteFloat() throws IOException, LiquifierException {
+		((Buffer) buffer).clear();
+		write(ObjectProcessors.XOR_FLOAT_ARRAY_PROCESSOR, float[].class, floats, buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public float[] plainReadFloat() throws IOException, SolidifierException {
+		return read(ObjectProcessors.FLOAT_ARRAY_PROCESSOR, float[].class, plainFloats);
+	}
+
+	@Benchmark
+	public float[] xorReadFloat() throws IOException, SolidifierException {
+		return read(ObjectProcessors.XOR_FLOAT_ARRAY_PROCESSOR, float[].class, xorFloats);
+	}
+}
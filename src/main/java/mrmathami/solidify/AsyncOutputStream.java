@@ -0,0 +1,185 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Fills one buffer on the caller thread while a background thread writes the previous ones to the stream.
+// At most maxBuffers filled buffers wait for the writer thread, a caller that gets ahead of the disk blocks.
+// The thread starts with the first filled buffer, so a stream dropped before any write leaves no thread behind.
+final class AsyncOutputStream extends OutputStream {
+	private static final int BUFFER_SIZE = 0x10000;
+	// tells the writer thread to stop
+	@Nonnull private static final ByteBuffer CLOSE = ByteBuffer.allocate(0);
+	// a flush barrier, never written to, so the same one can be queued any number of times
+	@Nonnull private static final ByteBuffer FLUSH = ByteBuffer.allocate(0);
+
+	@Nonnull private final OutputStream stream;
+	@Nonnull private final BlockingQueue<ByteBuffer> filledBuffers = new LinkedBlockingQueue<>();
+	@Nonnull private final BlockingQueue<ByteBuffer> freeBuffers;
+	@Nonnull private final Thread writerThread;
+	private final int maxBuffers;
+	private int allocatedBuffers;
+	@Nonnull private ByteBuffer current = ByteBuffer.allocate(BUFFER_SIZE);
+	private boolean started;
+	private boolean closed;
+
+	// guarded by this
+	private long requestedBarriers;
+	private long completedBarriers;
+	@Nullable private volatile Throwable failure;
+
+	AsyncOutputStream(@Nonnull OutputStream stream, int maxBuffers) {
+		this.stream = stream;
+		this.maxBuffers = maxBuffers;
+		this.freeBuffers = new ArrayBlockingQueue<>(maxBuffers + 1);
+		this.writerThread = new Thread(this::drain, "solidify-async-writer");
+		writerThread.setDaemon(true);
+	}
+
+	// region //====== Writer thread ======
+
+	private void drain() {
+		while (true) {
+			final ByteBuffer buffer;
+			try {
+				buffer = filledBuffers.take();
+			} catch (InterruptedException exception) {
+				fail(exception);
+				continue;
+			}
+			if (buffer == CLOSE) return;
+			// after a failure buffers are only recycled, so the caller never waits forever
+			if (failure == null) {
+				try {
+					if (buffer == FLUSH) {
+						stream.flush();
+					} else {
+						stream.write(buffer.array(), buffer.arrayOffset(), buffer.limit());
+					}
+				} catch (IOException | RuntimeException exception) {
+					fail(exception);
+				}
+			}
+			if (buffer == FLUSH) {
+				synchronized (this) {
+					this.completedBarriers += 1;
+					notifyAll();
+				}
+			} else {
+				((Buffer) buffer).clear();
+				freeBuffers.add(buffer);
+			}
+		}
+	}
+
+	private synchronized void fail(@Nonnull Throwable exception) {
+		if (failure == null) this.failure = exception;
+		notifyAll();
+	}
+
+	// endregion //====== Writer thread ======
+
+	// region //====== Caller thread ======
+
+	private void checkState() throws IOException {
+		if (closed) throw new IOException("Stream closed.");
+		final Throwable failure = this.failure;
+		if (failure != null) throw new IOException("Asynchronous write failed.", failure);
+	}
+
+	@Override
+	public void write(int value) throws IOException {
+		if (!current.hasRemaining()) handOff();
+		current.put((byte) value);
+	}
+
+	@Override
+	public void write(@Nonnull byte[] bytes, int offset, int length) throws IOException {
+		while (length > 0) {
+			if (!current.hasRemaining()) handOff();
+			final int count = Math.min(length, current.remaining());
+			current.put(bytes, offset, count);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	private void handOff() throws IOException {
+		checkState();
+		if (!started) {
+			this.started = true;
+			writerThread.start();
+		}
+		((Buffer) current).flip();
+		filledBuffers.add(current);
+		ByteBuffer next = freeBuffers.poll();
+		if (next == null) {
+			if (allocatedBuffers < maxBuffers) {
+				this.allocatedBuffers += 1;
+				next = ByteBuffer.allocate(BUFFER_SIZE);
+			} else {
+				try {
+					next = freeBuffers.take();
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+			}
+		}
+		this.current = next;
+	}
+
+	// returns once everything written so far has reached the stream and the stream is flushed
+	@Override
+	public void flush() throws IOException {
+		checkState();
+		if (current.position() > 0) handOff();
+		if (!started) {
+			stream.flush();
+			return;
+		}
+		final long barrier;
+		synchronized (this) {
+			barrier = this.requestedBarriers += 1;
+		}
+		filledBuffers.add(FLUSH);
+		synchronized (this) {
+			try {
+				while (completedBarriers < barrier && failure == null) wait();
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+		}
+		checkState();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+		try {
+			flush();
+		} finally {
+			this.closed = true;
+			if (started) {
+				filledBuffers.add(CLOSE);
+				try {
+					writerThread.join();
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			stream.close();
+		}
+	}
+
+	// endregion //====== Caller thread ======
+}
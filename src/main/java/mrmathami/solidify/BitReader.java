@@ -0,0 +1,79 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Arrays;
+
+final class BitReader {
+	@Nonnull private long[] words = new long[16];
+	// values for read(long[], int, int), shared by the arrays read with this reader
+	@Nonnull private long[] values = new long[0];
+	private int position;
+	private int limit;
+
+	private static void throwInvalidInput() throws IOException {
+		throw new IOException("Invalid input data.");
+	}
+
+	// the bit reader of the stream, reused by every array read from it, a new one for other readers
+	@Nonnull
+	static BitReader of(@Nonnull ObjectReader objectReader) {
+		return objectReader instanceof ObjectReaderImpl ? ((ObjectReaderImpl) objectReader).bitReader() : new BitReader();
+	}
+
+	// room for at least count values, the contents are left from the last use
+	@Nonnull
+	long[] values(int count) {
+		if (values.length < count) this.values = new long[count];
+		return values;
+	}
+
+	void readFrom(@Nonnull ObjectReader objectReader, int bitCount) throws IOException {
+		if (bitCount < 0) throwInvalidInput();
+		final int size = bitCount >>> 6;
+		if (words.length <= size) this.words = new long[Math.max(size + 1, words.length << 1)];
+		if (size > 0) objectReader.readLongs(words, 0, size);
+		long word = 0L;
+		for (int shift = 0, bits = bitCount & 63; shift < bits; shift += 8) {
+			word |= (long) objectReader.readUnsignedByte() << shift;
+		}
+		words[size] = word;
+		this.position = 0;
+		this.limit = bitCount;
+	}
+
+	long read(int width) throws IOException {
+		if (width == 0) return 0L;
+		final int position = this.position;
+		if (width > limit - position) throwInvalidInput();
+		final int index = position >>> 6;
+		final int shift = position & 63;
+		long value = words[index] >>> shift;
+		if (shift + width > 64) value |= words[index + 1] << -shift;
+		this.position = position + width;
+		return value & -1L >>> -width;
+	}
+
+	void read(@Nonnull long[] values, int count, int width) throws IOException {
+		if (width == 0) {
+			Arrays.fill(values, 0, count, 0L);
+			return;
+		}
+		if ((long) width * count > limit - position) throwInvalidInput();
+		final long[] words = this.words;
+		final long mask = -1L >>> -width;
+		int position = this.position;
+		for (int index = 0; index < count; index++, position += width) {
+			final int wordIndex = position >>> 6;
+			final int shift = position & 63;
+			long value = words[wordIndex] >>> shift;
+			if (shift + width > 64) value |= words[wordIndex + 1] << -shift;
+			values[index] = value & mask;
+		}
+		this.position = position;
+	}
+
+	void finish() throws IOException {
+		if (position != limit) throwInvalidInput();
+	}
+}
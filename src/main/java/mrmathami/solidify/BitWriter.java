@@ -0,0 +1,60 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Arrays;
+
+final class BitWriter {
+	@Nonnull private long[] words = new long[16];
+	private int size;
+	private long word;
+	private int bits;
+
+	// the bit writer of the stream, reused by every array written to it, a new one for other writers
+	@Nonnull
+	static BitWriter of(@Nonnull ObjectWriter objectWriter) {
+		if (!(objectWriter instanceof ObjectWriterImpl)) return new BitWriter();
+		final BitWriter bitWriter = ((ObjectWriterImpl) objectWriter).bitWriter();
+		bitWriter.clear();
+		return bitWriter;
+	}
+
+	static int width(long unsignedValue) {
+		return 64 - Long.numberOfLeadingZeros(unsignedValue);
+	}
+
+	// value must not have any bit set above width
+	void write(long value, int width) {
+		if (width == 0) return;
+		final int bits = this.bits;
+		final int total = bits + width;
+		if (total < 64) {
+			this.word |= value << bits;
+			this.bits = total;
+		} else {
+			if (size == words.length) this.words = Arrays.copyOf(words, size << 1);
+			words[size++] = word | value << bits;
+			this.word = bits != 0 ? value >>> -bits : 0L;
+			this.bits = total - 64;
+		}
+	}
+
+	int bitCount() {
+		return (size << 6) + bits;
+	}
+
+	// only the bytes holding the trailing bits are written, the reader must know the bit count
+	void writeTo(@Nonnull ObjectWriter objectWriter) throws IOException {
+		if (size > 0) objectWriter.writeLongs(words, 0, size);
+		final long word = this.word;
+		for (int shift = 0; shift < bits; shift += 8) objectWriter.writeByte((byte) (word >>> shift));
+		clear();
+	}
+
+	// drops the bits of a write that failed half way
+	private void clear() {
+		this.size = 0;
+		this.word = 0L;
+		this.bits = 0;
+	}
+}
@@ -0,0 +1,143 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static mrmathami.solidify.BlockOutputStream.BLOCK_SIZE;
+import static mrmathami.solidify.BlockOutputStream.CODEC_DEFLATE;
+import static mrmathami.solidify.BlockOutputStream.CODEC_HUFFMAN;
+import static mrmathami.solidify.BlockOutputStream.CODEC_STORED;
+import static mrmathami.solidify.BlockOutputStream.HEADER_SIZE;
+
+// Decodes the blocks of BlockOutputStream one at a time, memory is bounded by two block sized arrays.
+final class BlockInputStream extends InputStream {
+	@Nonnull private InputStream stream;
+	// made for the first block of their codec, most streams only ever use one
+	@Nullable private Inflater inflater;
+	@Nullable private HuffmanCodec huffmanCodec;
+	@Nonnull private final byte[] header = new byte[HEADER_SIZE];
+	@Nonnull private final byte[] input = new byte[BLOCK_SIZE];
+	// one spare byte, so an over-long block shows up as extra output
+	@Nonnull private final byte[] block = new byte[BLOCK_SIZE + 1];
+	private int position;
+	private int limit;
+
+	BlockInputStream(@Nonnull InputStream stream) {
+		this.stream = stream;
+	}
+
+	// goes on reading blocks from another stream, keeping the buffers and the inflater, anything unread is dropped
+	void reset(@Nonnull InputStream stream) {
+		this.stream = stream;
+		this.position = 0;
+		this.limit = 0;
+	}
+
+	private static void throwInvalidInput() throws IOException {
+		throw new IOException("Invalid input data.");
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (position == limit && !nextBlock()) return -1;
+		return block[position++] & 0xFF;
+	}
+
+	@Override
+	public int read(@Nonnull byte[] bytes, int offset, int length) throws IOException {
+		if (length == 0) return 0;
+		if (position == limit && !nextBlock()) return -1;
+		final int count = Math.min(length, limit - position);
+		System.arraycopy(block, position, bytes, offset, count);
+		this.position += count;
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return limit - position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (inflater != null) inflater.end();
+		} finally {
+			stream.close();
+		}
+	}
+
+	// false on a clean end of stream at a block boundary
+	private boolean nextBlock() throws IOException {
+		final byte[] header = this.header;
+		final int codec = stream.read();
+		if (codec < 0) return false;
+		readFully(header, 1, HEADER_SIZE - 1);
+		final int rawLength = header[1] & 0xFF | (header[2] & 0xFF) << 8 | (header[3] & 0xFF) << 16 | header[4] << 24;
+		final int storedLength = header[5] & 0xFF | (header[6] & 0xFF) << 8 | (header[7] & 0xFF) << 16 | header[8] << 24;
+		if (rawLength <= 0 || rawLength > BLOCK_SIZE) throwInvalidInput();
+
+		if (codec == CODEC_STORED) {
+			if (storedLength != rawLength) throwInvalidInput();
+			readFully(block, 0, rawLength);
+		} else if (codec == CODEC_DEFLATE) {
+			if (storedLength <= 0 || storedLength >= rawLength) throwInvalidInput();
+			readFully(input, 0, storedLength);
+			inflate(storedLength, rawLength);
+		} else if (codec == CODEC_HUFFMAN) {
+			if (storedLength <= 0 || storedLength >= rawLength) throwInvalidInput();
+			readFully(input, 0, storedLength);
+			huffmanCodec().decode(input, 0, storedLength, block, rawLength);
+		} else {
+			throwInvalidInput();
+		}
+		this.position = 0;
+		this.limit = rawLength;
+		return true;
+	}
+
+	@Nonnull
+	private HuffmanCodec huffmanCodec() {
+		final HuffmanCodec huffmanCodec = this.huffmanCodec;
+		if (huffmanCodec != null) return huffmanCodec;
+		final HuffmanCodec newHuffmanCodec = new HuffmanCodec();
+		this.huffmanCodec = newHuffmanCodec;
+		return newHuffmanCodec;
+	}
+
+	private void inflate(int storedLength, int rawLength) throws IOException {
+		Inflater inflater = this.inflater;
+		if (inflater == null) {
+			inflater = new Inflater();
+			this.inflater = inflater;
+		} else {
+			inflater.reset();
+		}
+		inflater.setInput(input, 0, storedLength);
+		int length = 0;
+		try {
+			while (length <= rawLength) {
+				final int count = inflater.inflate(block, length, rawLength + 1 - length);
+				if (count == 0) break;
+				length += count;
+			}
+		} catch (DataFormatException exception) {
+			throw new IOException("Invalid input data.", exception);
+		}
+		if (length != rawLength || !inflater.finished() || inflater.getRemaining() != 0) throwInvalidInput();
+	}
+
+	private void readFully(@Nonnull byte[] bytes, int offset, int length) throws IOException {
+		while (length > 0) {
+			final int count = stream.read(bytes, offset, length);
+			if (count < 0) throw new EOFException();
+			offset += count;
+			length -= count;
+		}
+	}
+}
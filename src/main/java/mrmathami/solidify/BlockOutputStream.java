@@ -0,0 +1,122 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+// Block: [byte codec][int rawLength][int storedLength][stored bytes], little endian, rawLength <= BLOCK_SIZE.
+// Every block is compressed on its own, so a reader never holds more than one block.
+final class BlockOutputStream extends OutputStream {
+	static final int BLOCK_SIZE = 0x10000;
+	static final int HEADER_SIZE = 9;
+
+	static final int CODEC_STORED = 0;
+	static final int CODEC_DEFLATE = 1;
+	static final int CODEC_HUFFMAN = 2;
+
+	@Nonnull private OutputStream stream;
+	private final int codec;
+	@Nullable private final Deflater deflater;
+	@Nullable private final HuffmanCodec huffmanCodec;
+	@Nonnull private final byte[] block = new byte[BLOCK_SIZE];
+	@Nonnull private final byte[] output = new byte[HEADER_SIZE + BLOCK_SIZE];
+	private int size;
+
+	BlockOutputStream(@Nonnull OutputStream stream, @Nonnull Compression compression) {
+		this.stream = stream;
+		this.codec = compression.codec;
+		this.deflater = codec == CODEC_DEFLATE ? new Deflater(compression.level) : null;
+		this.huffmanCodec = codec == CODEC_HUFFMAN ? new HuffmanCodec() : null;
+	}
+
+	// goes on writing blocks to another stream, keeping the buffers and the deflater, anything unflushed is dropped
+	void reset(@Nonnull OutputStream stream) {
+		this.stream = stream;
+		this.size = 0;
+	}
+
+	@Override
+	public void write(int value) throws IOException {
+		if (size == BLOCK_SIZE) writeBlock();
+		block[size++] = (byte) value;
+	}
+
+	@Override
+	public void write(@Nonnull byte[] bytes, int offset, int length) throws IOException {
+		while (length > 0) {
+			if (size == BLOCK_SIZE) writeBlock();
+			final int count = Math.min(length, BLOCK_SIZE - size);
+			System.arraycopy(bytes, offset, block, size, count);
+			this.size += count;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	// a flush ends the current block early, so everything written so far is decodable
+	@Override
+	public void flush() throws IOException {
+		if (size > 0) writeBlock();
+		stream.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			if (deflater != null) deflater.end();
+			stream.close();
+		}
+	}
+
+	private void writeBlock() throws IOException {
+		final int size = this.size;
+		final int length = codec == CODEC_DEFLATE ? deflate(size) : huffman(size);
+		if (length >= 0) {
+			writeHeader(codec, size, length);
+			stream.write(output, 0, HEADER_SIZE + length);
+		} else {
+			writeHeader(CODEC_STORED, size, size);
+			stream.write(output, 0, HEADER_SIZE);
+			stream.write(block, 0, size);
+		}
+		this.size = 0;
+	}
+
+	// both return the compressed length in output, or -1 if the block should be stored raw
+
+	private int deflate(int size) {
+		final Deflater deflater = this.deflater;
+		assert deflater != null;
+		deflater.reset();
+		deflater.setInput(block, 0, size);
+		deflater.finish();
+		// stop as soon as the output reaches the input size
+		int length = 0;
+		while (!deflater.finished() && length < size) {
+			length += deflater.deflate(output, HEADER_SIZE + length, size - length);
+		}
+		return deflater.finished() && length < size ? length : -1;
+	}
+
+	private int huffman(int size) {
+		assert huffmanCodec != null;
+		return huffmanCodec.encode(block, size, output, HEADER_SIZE);
+	}
+
+	private void writeHeader(int codec, int rawLength, int storedLength) {
+		final byte[] output = this.output;
+		output[0] = (byte) codec;
+		output[1] = (byte) rawLength;
+		output[2] = (byte) (rawLength >> 8);
+		output[3] = (byte) (rawLength >> 16);
+		output[4] = (byte) (rawLength >> 24);
+		output[5] = (byte) storedLength;
+		output[6] = (byte) (storedLength >> 8);
+		output[7] = (byte) (storedLength >> 16);
+		output[8] = (byte) (storedLength >> 24);
+	}
+}
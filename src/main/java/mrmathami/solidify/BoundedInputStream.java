@@ -0,0 +1,50 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+// A window of the next length bytes of a stream, used to keep a frame reader inside its frame.
+final class BoundedInputStream extends InputStream {
+	@Nonnull private final InputStream stream;
+	private long remaining;
+
+	BoundedInputStream(@Nonnull InputStream stream, long length) {
+		this.stream = stream;
+		this.remaining = length;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (remaining == 0) return -1;
+		final int value = stream.read();
+		if (value < 0) throw new EOFException();
+		this.remaining -= 1;
+		return value;
+	}
+
+	@Override
+	public int read(@Nonnull byte[] bytes, int offset, int length) throws IOException {
+		if (length == 0) return 0;
+		if (remaining == 0) return -1;
+		final int count = stream.read(bytes, offset, (int) Math.min(length, remaining));
+		if (count < 0) throw new EOFException();
+		this.remaining -= count;
+		return count;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (int) Math.min(stream.available(), remaining);
+	}
+
+	// moves the underlying stream to the end of the window
+	void skipRemaining() throws IOException {
+		final byte[] skipBuffer = new byte[(int) Math.min(remaining, 8192)];
+		while (remaining > 0) {
+			final int count = read(skipBuffer, 0, skipBuffer.length);
+			if (count < 0) throw new EOFException();
+		}
+	}
+}
@@ -2,21 +2,47 @@ package mrmathami.solidify;
 
 import mrmathami.annotation.Nonnull;
 import java.io.IOException;
-import java.util.Arrays;
+
+final class NullMask {
+	private NullMask() {
+	}
+
+	// one bit per element, most significant bit first, set where the element is not null
+	static void write(@Nonnull ObjectWriter objectWriter, @Nonnull Object[] array) throws IOException {
+		final int length = array.length;
+		for (int from = 0; from < length; from += 8) {
+			int packed = 0;
+			for (int index = from, mask = 0x80, end = Math.min(from + 8, length); index < end; index++, mask >>= 1) {
+				if (array[index] != null) packed |= mask;
+			}
+			objectWriter.writeByte((byte) packed);
+		}
+	}
+
+	// the slots of non-null elements are set to the marker, the caller replaces them with the real values
+	static <E> void read(@Nonnull ObjectReader objectReader, @Nonnull E[] array, @Nonnull E marker) throws IOException {
+		final int length = array.length;
+		for (int from = 0; from < length; from += 8) {
+			final int packed = objectReader.readUnsignedByte();
+			for (int index = from, mask = 0x80, end = Math.min(from + 8, length); index < end; index++, mask >>= 1) {
+				if ((packed & mask) != 0) array[index] = marker;
+			}
+		}
+	}
+}
 
 final class BoxedByteArrayProcessor extends AbstractArrayProcessor<Byte> {
+	@Nonnull private static final Byte PRESENT = (byte) 0;
+
 	BoxedByteArrayProcessor() {
 		super(Byte[].class);
 	}
 
 	@Override
 	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull Byte[] array) throws IOException {
-		final int length = array.length;
-		assert length > 0;
+		assert array.length > 0;
 
-		final boolean[] mask = new boolean[length];
-		for (int i = 0; i < length; i++) mask[i] = array[i] != null;
-		objectWriter.writePackedBooleans(mask);
+		NullMask.write(objectWriter, array);
 		for (final Byte object : array) if (object != null) objectWriter.writeByte(object);
 	}
 
@@ -25,26 +51,25 @@ final class BoxedByteArrayProcessor extends AbstractArrayProcessor<Byte> {
 	protected Byte[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
 		assert length > 0;
 
-		final boolean[] mask = objectReader.readPackedBooleans(length);
 		final Byte[] array = new Byte[length];
-		for (int i = 0; i < length; i++) if (mask[i]) array[i] = objectReader.readByte();
+		NullMask.read(objectReader, array, PRESENT);
+		for (int i = 0; i < length; i++) if (array[i] != null) array[i] = objectReader.readByte();
 		return array;
 	}
 }
 
 final class BoxedShortArrayProcessor extends AbstractArrayProcessor<Short> {
+	@Nonnull private static final Short PRESENT = (short) 0;
+
 	BoxedShortArrayProcessor() {
 		super(Short[].class);
 	}
 
 	@Override
 	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull Short[] array) throws IOException {
-		final int length = array.length;
-		assert length > 0;
+		assert array.length > 0;
 
-		final boolean[] mask = new boolean[length];
-		for (int i = 0; i < length; i++) mask[i] = array[i] != null;
-		objectWriter.writePackedBooleans(mask);
+		NullMask.write(objectWriter, array);
 		for (final Short object : array) if (object != null) objectWriter.writeShort(object);
 	}
 
@@ -53,26 +78,25 @@ final class BoxedShortArrayProcessor extends AbstractArrayProcessor<Short> {
 	protected Short[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
 		assert length > 0;
 
-		final boolean[] mask = objectReader.readPackedBooleans(length);
 		final Short[] array = new Short[length];
-		for (int i = 0; i < length; i++) if (mask[i]) array[i] = objectReader.readShort();
+		NullMask.read(objectReader, array, PRESENT);
+		for (int i = 0; i < length; i++) if (array[i] != null) array[i] = objectReader.readShort();
 		return array;
 	}
 }
 
 final class BoxedIntegerArrayProcessor extends AbstractArrayProcessor<Integer> {
+	@Nonnull private static final Integer PRESENT = 0;
+
 	BoxedIntegerArrayProcessor() {
 		super(Integer[].class);
 	}
 
 	@Override
 	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull Integer[] array) throws IOException {
-		final int length = array.length;
-		assert length > 0;
+		assert array.length > 0;
 
-		final boolean[] mask = new boolean[length];
-		for (int i = 0; i < length; i++) mask[i] = array[i] != null;
-		objectWriter.writePackedBooleans(mask);
+		NullMask.write(objectWriter, array);
 		for (final Integer object : array) if (object != null) objectWriter.writeInt(object);
 	}
 
@@ -81,26 +105,25 @@ final class BoxedIntegerArrayProcessor extends AbstractArrayProcessor<Integer> {
 	protected Integer[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
 		assert length > 0;
 
-		final boolean[] mask = objectReader.readPackedBooleans(length);
 		final Integer[] array = new Integer[length];
-		for (int i = 0; i < length; i++) if (mask[i]) array[i] = objectReader.readInt();
+		NullMask.read(objectReader, array, PRESENT);
+		for (int i = 0; i < length; i++) if (array[i] != null) array[i] = objectReader.readInt();
 		return array;
 	}
 }
 
 final class BoxedLongArrayProcessor extends AbstractArrayProcessor<Long> {
+	@Nonnull private static final Long PRESENT = 0L;
+
 	BoxedLongArrayProcessor() {
 		super(Long[].class);
 	}
 
 	@Override
 	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull Long[] array) throws IOException {
-		final int length = array.length;
-		assert length > 0;
+		assert array.length > 0;
 
-		final boolean[] mask = new boolean[length];
-		for (int i = 0; i < length; i++) mask[i] = array[i] != null;
-		objectWriter.writePackedBooleans(mask);
+		NullMask.write(objectWriter, array);
 		for (final Long object : array) if (object != null) objectWriter.writeLong(object);
 	}
 
@@ -109,26 +132,25 @@ final class BoxedLongArrayProcessor extends AbstractArrayProcessor<Long> {
 	protected Long[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
 		assert length > 0;
 
-		final boolean[] mask = objectReader.readPackedBooleans(length);
 		final Long[] array = new Long[length];
-		for (int i = 0; i < length; i++) if (mask[i]) array[i] = objectReader.readLong();
+		NullMask.read(objectReader, array, PRESENT);
+		for (int i = 0; i < length; i++) if (array[i] != null) array[i] = objectReader.readLong();
 		return array;
 	}
 }
 
 final class BoxedFloatArrayProcessor extends AbstractArrayProcessor<Float> {
+	@Nonnull private static final Float PRESENT = 0.0f;
+
 	BoxedFloatArrayProcessor() {
 		super(Float[].class);
 	}
 
 	@Override
 	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull Float[] array) throws IOException {
-		final int length = array.length;
-		assert length > 0;
+		assert array.length > 0;
 
-		final boolean[] mask = new boolean[length];
-		for (int i = 0; i < length; i++) mask[i] = array[i] != null;
-		objectWriter.writePackedBooleans(mask);
+		NullMask.write(objectWriter, array);
 		for (final Float object : array) if (object != null) objectWriter.writeFloat(object);
 	}
 
@@ -137,26 +159,25 @@ final class BoxedFloatArrayProcessor extends AbstractArrayProcessor<Float> {
 	protected Float[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
 		assert length > 0;
 
-		final boolean[] mask = objectReader.readPackedBooleans(length);
 		final Float[] array = new Float[length];
-		for (int i = 0; i < length; i++) if (mask[i]) array[i] = objectReader.readFloat();
+		NullMask.read(objectReader, array, PRESENT);
+		for (int i = 0; i < length; i++) if (array[i] != null) array[i] = objectReader.readFloat();
 		return array;
 	}
 }
 
 final class BoxedDoubleArrayProcessor extends AbstractArrayProcessor<Double> {
+	@Nonnull private static final Double PRESENT = 0.0;
+
 	BoxedDoubleArrayProcessor() {
 		super(Double[].class);
 	}
 
 	@Override
 	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull Double[] array) throws IOException {
-		final int length = array.length;
-		assert length > 0;
+		assert array.length > 0;
 
-		final boolean[] mask = new boolean[length];
-		for (int i = 0; i < length; i++) mask[i] = array[i] != null;
-		objectWriter.writePackedBooleans(mask);
+		NullMask.write(objectWriter, array);
 		for (final Double object : array) if (object != null) objectWriter.writeDouble(object);
 	}
 
@@ -165,9 +186,9 @@ final class BoxedDoubleArrayProcessor extends AbstractArrayProcessor<Double> {
 	protected Double[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
 		assert length > 0;
 
-		final boolean[] mask = objectReader.readPackedBooleans(length);
 		final Double[] array = new Double[length];
-		for (int i = 0; i < length; i++) if (mask[i]) array[i] = objectReader.readDouble();
+		NullMask.read(objectReader, array, PRESENT);
+		for (int i = 0; i < length; i++) if (array[i] != null) array[i] = objectReader.readDouble();
 		return array;
 	}
 }
@@ -179,17 +200,23 @@ final class BoxedBooleanArrayProcessor extends AbstractArrayProcessor<Boolean> {
 
 	@Override
 	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull Boolean[] array) throws IOException {
-		final int length = array.length;
-		assert length > 0;
-
-		final boolean[] mask = new boolean[length];
-		final boolean[] packed = new boolean[length];
-
-		int count = 0;
-		for (int i = 0; i < length; i++) if (mask[i] = array[i] != null) packed[count++] = array[i];
-
-		objectWriter.writePackedBooleans(mask);
-		objectWriter.writePackedBooleans(count == length ? packed : Arrays.copyOf(packed, count));
+		assert array.length > 0;
+
+		NullMask.write(objectWriter, array);
+
+		// the non-null values follow, packed the same way
+		int packed = 0, mask = 0x80;
+		for (final Boolean object : array) {
+			if (object == null) continue;
+			if (object) packed |= mask;
+			mask >>= 1;
+			if (mask == 0) {
+				objectWriter.writeByte((byte) packed);
+				packed = 0;
+				mask = 0x80;
+			}
+		}
+		if (mask != 0x80) objectWriter.writeByte((byte) packed);
 	}
 
 	@Nonnull
@@ -197,32 +224,35 @@ final class BoxedBooleanArrayProcessor extends AbstractArrayProcessor<Boolean> {
 	protected Boolean[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
 		assert length > 0;
 
-		final boolean[] mask = objectReader.readPackedBooleans(length);
-
-		int count = 0;
-		for (int i = 0; i < length; i++) if (mask[i]) count++;
-
-		final boolean[] packed = objectReader.readPackedBooleans(count);
-
 		final Boolean[] array = new Boolean[length];
-		for (int i = 0, j = 0; i < length; i++) if (mask[i]) array[i] = packed[j++];
+		NullMask.read(objectReader, array, Boolean.TRUE);
+
+		int packed = 0, mask = 0;
+		for (int i = 0; i < length; i++) {
+			if (array[i] == null) continue;
+			if (mask == 0) {
+				packed = objectReader.readUnsignedByte();
+				mask = 0x80;
+			}
+			array[i] = (packed & mask) != 0;
+			mask >>= 1;
+		}
 		return array;
 	}
 }
 
 final class BoxedCharacterArrayProcessor extends AbstractArrayProcessor<Character> {
+	@Nonnull private static final Character PRESENT = '\0';
+
 	BoxedCharacterArrayProcessor() {
 		super(Character[].class);
 	}
 
 	@Override
 	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull Character[] array) throws IOException {
-		final int length = array.length;
-		assert length > 0;
+		assert array.length > 0;
 
-		final boolean[] mask = new boolean[length];
-		for (int i = 0; i < length; i++) mask[i] = array[i] != null;
-		objectWriter.writePackedBooleans(mask);
+		NullMask.write(objectWriter, array);
 		for (final Character object : array) if (object != null) objectWriter.writeChar(object);
 	}
 
@@ -231,9 +261,9 @@ final class BoxedCharacterArrayProcessor extends AbstractArrayProcessor<Characte
 	protected Character[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
 		assert length > 0;
 
-		final boolean[] mask = objectReader.readPackedBooleans(length);
 		final Character[] array = new Character[length];
-		for (int i = 0; i < length; i++) if (mask[i]) array[i] = objectReader.readChar();
+		NullMask.read(objectReader, array, PRESENT);
+		for (int i = 0; i < length; i++) if (array[i] != null) array[i] = objectReader.readChar();
 		return array;
 	}
 }
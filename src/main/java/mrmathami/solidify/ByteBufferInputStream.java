@@ -0,0 +1,34 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+final class ByteBufferInputStream extends InputStream {
+	@Nonnull private final ByteBuffer source;
+
+	ByteBufferInputStream(@Nonnull ByteBuffer source) {
+		this.source = source.duplicate();
+	}
+
+	@Override
+	public int read() {
+		return source.hasRemaining() ? source.get() & 0xFF : -1;
+	}
+
+	@Override
+	public int read(@Nonnull byte[] bytes, int offset, int length) {
+		if (length == 0) return 0;
+		final int remaining = source.remaining();
+		if (remaining == 0) return -1;
+		final int count = Math.min(length, remaining);
+		source.get(bytes, offset, count);
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return source.remaining();
+	}
+}
@@ -0,0 +1,24 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+final class ByteBufferOutputStream extends OutputStream {
+	@Nonnull private final ByteBuffer target;
+
+	ByteBufferOutputStream(@Nonnull ByteBuffer target) {
+		this.target = target;
+	}
+
+	@Override
+	public void write(int value) {
+		target.put((byte) value);
+	}
+
+	@Override
+	public void write(@Nonnull byte[] bytes, int offset, int length) {
+		target.put(bytes, offset, length);
+	}
+}
@@ -0,0 +1,100 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+import java.io.IOException;
+import java.lang.reflect.Array;
+
+// The identity cache and length prefix every array processor writes, for object and primitive arrays alike. An
+// array in the cache is written as its index, a new one as its negated length followed by the elements.
+abstract class CachedArrayProcessor<A> implements ObjectProcessor<A> {
+	@Nonnull private final Class<A> arrayClass;
+	@Nonnull private final A empty;
+	@Nonnull private final A[] preloadObjects;
+
+	CachedArrayProcessor(@Nonnull Class<A> arrayClass) {
+		@SuppressWarnings("unchecked") final A empty = (A) Array.newInstance(arrayClass.getComponentType(), 0);
+		@SuppressWarnings("unchecked") final A[] preloadObjects = (A[]) Array.newInstance(arrayClass, 2);
+
+		preloadObjects[0] = null;
+		preloadObjects[1] = empty;
+
+		this.arrayClass = arrayClass;
+		this.empty = empty;
+		this.preloadObjects = preloadObjects;
+	}
+
+	@Nonnull
+	@Override
+	public final CacheType getCacheType() {
+		return CacheType.IDENTITY_CACHE;
+	}
+
+	@Nonnull
+	@Override
+	public final A[] preloadCache() {
+		return preloadObjects;
+	}
+
+	@Nonnull
+	@Override
+	public final Class<A> getObjectClass() {
+		return arrayClass;
+	}
+
+	abstract int length(@Nonnull A array);
+
+	@Override
+	public final void liquify(@Nonnull ObjectWriter objectWriter, @Nullable ObjectWriter.Cache<A> writerCache, @Nullable A array) throws IOException, LiquifierException {
+		if (writerCache == null) throw new IllegalStateException("Object cache not available.");
+
+		final int length = array != null ? length(array) : -1;
+		final int index = writerCache.putIfAbsent(array == null || length > 0 ? array : empty);
+		if (index >= 0) {
+			objectWriter.writePackedInt(index);
+		} else {
+			assert array != null && length > 0;
+			if (length < 0x8000) {
+				objectWriter.writePackedInt(-length);
+			} else {
+				objectWriter.writePackedInt(-0x8000);
+				objectWriter.writePackedInt(length - 0x8000);
+			}
+			liquify(objectWriter, array);
+		}
+	}
+
+	protected abstract void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull A array) throws IOException, LiquifierException;
+
+	@Nullable
+	@Override
+	public final A solidify(@Nonnull ObjectReader objectReader, @Nullable ObjectReader.Cache<A> readerCache) throws IOException, SolidifierException {
+		if (readerCache == null) throw new IllegalStateException("Object cache not available.");
+
+		final int index = objectReader.readPackedInt();
+		try {
+			if (index < 0) {
+				final ObjectReader.CacheSlot<A> slot = readerCache.alloc();
+				final int length;
+				if (index > -0x8000) {
+					length = -index;
+				} else {
+					final int lengthExt = objectReader.readPackedInt();
+					if (lengthExt < 0) throw new IOException("Invalid input data.");
+					length = lengthExt + 0x8000;
+					if (length < 0) throw new IOException("Invalid input data.");
+				}
+				final A array = solidify(objectReader, length);
+				slot.put(array);
+				return array;
+			} else {
+				return readerCache.get(index);
+			}
+		} catch (ObjectReader.CacheException e) {
+			throw new IOException("Invalid input data.", e);
+		}
+	}
+
+	@Nonnull
+	protected abstract A solidify(@Nonnull ObjectReader objectReader, int length) throws IOException, SolidifierException;
+}
@@ -0,0 +1,39 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+public final class Compression {
+	// no block framing, the encoded bytes go straight to the stream
+	@Nonnull public static final Compression NONE = new Compression(BlockOutputStream.CODEC_STORED, 0);
+	// 64 KB blocks, each deflated at the default level or stored raw when it does not shrink
+	@Nonnull public static final Compression DEFLATE = new Compression(BlockOutputStream.CODEC_DEFLATE, Deflater.DEFAULT_COMPRESSION);
+	// 64 KB blocks, each Huffman coded with its own byte table, much faster than Deflate but without matching
+	@Nonnull public static final Compression HUFFMAN = new Compression(BlockOutputStream.CODEC_HUFFMAN, 0);
+
+	final int codec;
+	final int level;
+
+	private Compression(int codec, int level) {
+		this.codec = codec;
+		this.level = level;
+	}
+
+	@Nonnull
+	public static Compression deflate(int level) {
+		if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException("Invalid compression level.");
+		}
+		return level == Deflater.DEFAULT_COMPRESSION ? DEFLATE : new Compression(BlockOutputStream.CODEC_DEFLATE, level);
+	}
+
+	boolean isFramed() {
+		return this != NONE;
+	}
+
+	@Nonnull
+	OutputStream wrap(@Nonnull OutputStream stream) {
+		return this != NONE ? new BlockOutputStream(stream, this) : stream;
+	}
+}
@@ -0,0 +1,104 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.reflect.Array;
+
+final class EnumArrayProcessor<E extends Enum<E>> extends AbstractArrayProcessor<E> {
+	private static final int CHUNK_WORDS = 256;
+
+	// code 0 is null, code i is the constant with ordinal i - 1
+	@Nonnull private final E[] codes;
+	private final int width;
+
+	EnumArrayProcessor(@Nonnull Class<E> enumClass) {
+		super(arrayClassOf(enumClass));
+		final E[] enumValues = enumClass.getEnumConstants();
+		@SuppressWarnings("unchecked") final E[] codes = (E[]) Array.newInstance(enumClass, enumValues.length + 1);
+		System.arraycopy(enumValues, 0, codes, 1, enumValues.length);
+
+		this.codes = codes;
+		this.width = BitWriter.width(enumValues.length);
+	}
+
+	@Nonnull
+	private static <E> Class<E[]> arrayClassOf(@Nonnull Class<E> enumClass) {
+		@SuppressWarnings("unchecked") final Class<E[]> arrayClass = (Class<E[]>) Array.newInstance(enumClass, 0).getClass();
+		return arrayClass;
+	}
+
+	// codes never straddle two words, so every word decodes on its own
+	@Override
+	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull E[] array) throws IOException {
+		final int width = this.width;
+		if (width == 0) return;
+
+		final int length = array.length;
+		final int perWord = 64 / width;
+		final int fullWords = length / perWord;
+		final long[] words = new long[Math.min(fullWords, CHUNK_WORDS)];
+		int index = 0;
+		for (int done = 0; done < fullWords; ) {
+			final int count = Math.min(fullWords - done, CHUNK_WORDS);
+			for (int wordIndex = 0; wordIndex < count; wordIndex++) {
+				long word = 0L;
+				for (int shift = 0, end = index + perWord; index < end; index++, shift += width) {
+					final E object = array[index];
+					if (object != null) word |= (long) (object.ordinal() + 1) << shift;
+				}
+				words[wordIndex] = word;
+			}
+			objectWriter.writeLongs(words, 0, count);
+			done += count;
+		}
+
+		// only the bytes holding the trailing codes are written
+		long word = 0L;
+		int shift = 0;
+		for (; index < length; index++, shift += width) {
+			final E object = array[index];
+			if (object != null) word |= (long) (object.ordinal() + 1) << shift;
+		}
+		for (int byteShift = 0; byteShift < shift; byteShift += 8) objectWriter.writeByte((byte) (word >>> byteShift));
+	}
+
+	@Nonnull
+	@Override
+	protected E[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
+		@SuppressWarnings("unchecked") final E[] array = (E[]) Array.newInstance(innerClass, length);
+		final int width = this.width;
+		if (width == 0) return array;
+
+		final E[] codes = this.codes;
+		final int perWord = 64 / width;
+		final int fullWords = length / perWord;
+		final long mask = -1L >>> -width;
+		final long[] words = new long[Math.min(fullWords, CHUNK_WORDS)];
+		int index = 0;
+		for (int done = 0; done < fullWords; ) {
+			final int count = Math.min(fullWords - done, CHUNK_WORDS);
+			objectReader.readLongs(words, 0, count);
+			for (int wordIndex = 0; wordIndex < count; wordIndex++) {
+				long word = words[wordIndex];
+				for (final int end = index + perWord; index < end; index++, word >>>= width) {
+					final int code = (int) (word & mask);
+					if (code >= codes.length) throw new IOException("Invalid input data.");
+					array[index] = codes[code];
+				}
+			}
+			done += count;
+		}
+
+		final int tailBits = (length - index) * width;
+		long word = 0L;
+		for (int byteShift = 0; byteShift < tailBits; byteShift += 8) {
+			word |= (long) objectReader.readUnsignedByte() << byteShift;
+		}
+		for (; index < length; index++, word >>>= width) {
+			final int code = (int) (word & mask);
+			if (code >= codes.length) throw new IOException("Invalid input data.");
+			array[index] = codes[code];
+		}
+		return array;
+	}
+}
@@ -0,0 +1,44 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+
+// Hooks for Java Flight Recorder events. Java 8 has no JFR, so these do nothing, the events live in the Java 11
+// version of this class under src/main/java11, built into META-INF/versions/11 of the multi-release jar.
+// A begin method returns null when its event is not recorded, callers skip the measuring then.
+final class FlightRecorder {
+	private FlightRecorder() {
+	}
+
+	@Nullable
+	static Object beginLiquify() {
+		return null;
+	}
+
+	static void endLiquify(@Nonnull Object event, @Nonnull Class<?> objectClass, long bytes, int cacheSize) {
+	}
+
+	@Nullable
+	static Object beginSolidify() {
+		return null;
+	}
+
+	static void endSolidify(@Nonnull Object event, @Nonnull Class<?> objectClass, long bytes, int cacheSize) {
+	}
+
+	@Nullable
+	static Object beginFlush() {
+		return null;
+	}
+
+	static void endFlush(@Nonnull Object event, long bytes) {
+	}
+
+	@Nullable
+	static Object beginRefill() {
+		return null;
+	}
+
+	static void endRefill(@Nonnull Object event, long bytes) {
+	}
+}
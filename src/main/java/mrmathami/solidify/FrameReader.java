@@ -0,0 +1,80 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+import static mrmathami.solidify.ParallelLiquifier.FRAME_HEADER_SIZE;
+
+// Reads the frames of a ParallelLiquifier stream in order, with a fresh reader and caches for every frame.
+final class FrameReader {
+	@Nonnull private final Set<ObjectProcessor<?>> objectProcessors;
+	@Nonnull private final InputStream stream;
+	@Nonnull private final StreamHeader header;
+	@Nullable private final SolidifyMetrics metrics;
+	private final boolean trusted;
+	@Nonnull private final byte[] frameHeader = new byte[FRAME_HEADER_SIZE];
+
+	@Nullable private BoundedInputStream frameStream;
+	@Nullable private ObjectReaderImpl objectReader;
+	private int remaining;
+
+	FrameReader(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull InputStream stream, @Nonnull StreamHeader header, @Nullable SolidifyMetrics metrics, boolean trusted) {
+		this.objectProcessors = objectProcessors;
+		this.stream = stream;
+		this.header = header;
+		this.metrics = metrics;
+		this.trusted = trusted;
+	}
+
+	private static void throwInvalidInput() throws IOException {
+		throw new IOException("Invalid input data.");
+	}
+
+	// the reader for the next object, moving on to the next frame once the current one is used up
+	@Nonnull
+	ObjectReaderImpl nextObject() throws IOException {
+		if (atEnd()) throw new EOFException();
+		this.remaining -= 1;
+		assert objectReader != null;
+		return objectReader;
+	}
+
+	// true once every frame is used up and the stream ends at a frame boundary
+	boolean atEnd() throws IOException {
+		while (remaining == 0) {
+			if (!nextFrame()) return true;
+		}
+		return false;
+	}
+
+	private boolean nextFrame() throws IOException {
+		if (frameStream != null) frameStream.skipRemaining();
+		final byte[] frameHeader = this.frameHeader;
+		for (int offset = 0; offset < FRAME_HEADER_SIZE; ) {
+			final int count = stream.read(frameHeader, offset, FRAME_HEADER_SIZE - offset);
+			if (count < 0) {
+				if (offset == 0) return false;
+				throw new EOFException();
+			}
+			offset += count;
+		}
+		final int payloadLength = getInt(frameHeader, 0);
+		final int objectCount = getInt(frameHeader, 4);
+		if (payloadLength < 0 || objectCount < 0) throwInvalidInput();
+
+		final BoundedInputStream frameStream = new BoundedInputStream(stream, payloadLength);
+		this.frameStream = frameStream;
+		this.objectReader = new ObjectReaderImpl(objectProcessors, header.blocks ? new BlockInputStream(frameStream) : frameStream, header.wireFormat, header.cacheCapacity, metrics, trusted);
+		this.remaining = objectCount;
+		return true;
+	}
+
+	static int getInt(@Nonnull byte[] buffer, int position) {
+		return buffer[position] & 0xFF | (buffer[position + 1] & 0xFF) << 8
+				| (buffer[position + 2] & 0xFF) << 16 | buffer[position + 3] << 24;
+	}
+}
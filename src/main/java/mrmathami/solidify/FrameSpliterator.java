@@ -0,0 +1,163 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import static mrmathami.solidify.ParallelLiquifier.FRAME_HEADER_SIZE;
+
+// Splits a ParallelLiquifier file at frame boundaries. Every split reads its frames with positional reads into its own
+// buffer and decodes them with its own reader, so splits can run on different threads.
+final class FrameSpliterator<E> implements Spliterator<E> {
+	@Nonnull private final Set<ObjectProcessor<?>> objectProcessors;
+	@Nonnull private final FileChannel channel;
+	@Nonnull private final StreamHeader header;
+	@Nonnull private final Class<E> objectClass;
+	@Nonnull private final SolidifierOptions options;
+	// payload position, payload length and total object count before each frame, shared by all splits
+	@Nonnull private final long[] positions;
+	@Nonnull private final int[] lengths;
+	@Nonnull private final long[] objectOffsets;
+	private int frame;
+	private final int endFrame;
+
+	@Nullable private ObjectReaderImpl objectReader;
+	@Nullable private ByteBuffer buffer;
+	private int remaining;
+
+	private FrameSpliterator(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull FileChannel channel, @Nonnull StreamHeader header, @Nonnull Class<E> objectClass, @Nonnull SolidifierOptions options, @Nonnull long[] positions, @Nonnull int[] lengths, @Nonnull long[] objectOffsets, int frame, int endFrame) {
+		this.objectProcessors = objectProcessors;
+		this.channel = channel;
+		this.header = header;
+		this.objectClass = objectClass;
+		this.options = options;
+		this.positions = positions;
+		this.lengths = lengths;
+		this.objectOffsets = objectOffsets;
+		this.frame = frame;
+		this.endFrame = endFrame;
+	}
+
+	private static void throwInvalidInput() throws IOException {
+		throw new IOException("Invalid input data.");
+	}
+
+	// indexes the frames from the current channel position to the end of the file
+	@Nonnull
+	static <E> FrameSpliterator<E> open(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull FileChannel channel, @Nonnull Class<E> objectClass, @Nonnull SolidifierOptions options) throws IOException {
+		final long size = channel.size();
+		long position = channel.position();
+		final ByteBuffer headerBuffer = ByteBuffer.allocate(StreamHeader.SIZE);
+		readFully(channel, headerBuffer, position);
+		final StreamHeader header = StreamHeader.read(headerBuffer);
+		if (!header.frames) throw new IOException("Stream is not framed.");
+		position += StreamHeader.SIZE;
+
+		long[] positions = new long[16];
+		int[] lengths = new int[16];
+		long[] objectOffsets = new long[17];
+		int count = 0;
+		final ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+		final byte[] frameHeaderBytes = frameHeader.array();
+		while (position < size) {
+			((Buffer) frameHeader).clear();
+			readFully(channel, frameHeader, position);
+			final int payloadLength = FrameReader.getInt(frameHeaderBytes, 0);
+			final int objectCount = FrameReader.getInt(frameHeaderBytes, 4);
+			if (payloadLength < 0 || objectCount < 0) throwInvalidInput();
+			position += FRAME_HEADER_SIZE;
+			if (size - position < payloadLength) throw new EOFException();
+
+			if (count == positions.length) {
+				positions = Arrays.copyOf(positions, count << 1);
+				lengths = Arrays.copyOf(lengths, count << 1);
+				objectOffsets = Arrays.copyOf(objectOffsets, (count << 1) + 1);
+			}
+			positions[count] = position;
+			lengths[count] = payloadLength;
+			objectOffsets[count + 1] = objectOffsets[count] + objectCount;
+			count += 1;
+			position += payloadLength;
+		}
+		return new FrameSpliterator<>(objectProcessors, channel, header, objectClass, options, positions, lengths, objectOffsets, 0, count);
+	}
+
+	// fills the buffer from the start, up to its limit
+	private static void readFully(@Nonnull FileChannel channel, @Nonnull ByteBuffer buffer, long position) throws IOException {
+		((Buffer) buffer).position(0);
+		while (buffer.hasRemaining()) {
+			final int count = channel.read(buffer, position + buffer.position());
+			if (count < 0) throw new EOFException();
+		}
+		((Buffer) buffer).flip();
+	}
+
+	private void openFrame(int frame) throws IOException {
+		final int length = lengths[frame];
+		ByteBuffer buffer = this.buffer;
+		if (buffer == null || buffer.capacity() < length) {
+			buffer = ByteBuffer.allocate(Math.max(length, buffer != null ? buffer.capacity() << 1 : 0));
+			this.buffer = buffer;
+		}
+		((Buffer) buffer).clear().limit(length);
+		readFully(channel, buffer, positions[frame]);
+		this.objectReader = header.blocks
+				? new ObjectReaderImpl(objectProcessors, new BlockInputStream(new ByteBufferInputStream(buffer)), header.wireFormat, 0, options.metrics, options.trustedInput)
+				: new ObjectReaderImpl(objectProcessors, buffer, header.wireFormat, 0, options.metrics, options.trustedInput);
+		this.remaining = (int) (objectOffsets[frame + 1] - objectOffsets[frame]);
+	}
+
+	@Override
+	public boolean tryAdvance(@Nonnull Consumer<? super E> action) {
+		try {
+			while (remaining == 0) {
+				if (frame == endFrame) return false;
+				openFrame(frame++);
+			}
+			this.remaining -= 1;
+			assert objectReader != null;
+			action.accept(objectReader.readObject(objectClass));
+			return true;
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		} catch (SolidifierException exception) {
+			throw new UncheckedIOException(new IOException(exception));
+		}
+	}
+
+	// the prefix takes over a frame that is partly read, together with the first half of the frames left
+	@Nullable
+	@Override
+	public Spliterator<E> trySplit() {
+		final int middle = frame + (endFrame - frame >>> 1);
+		if (remaining == 0 && middle == frame) return null;
+		final FrameSpliterator<E> prefix = new FrameSpliterator<>(objectProcessors, channel, header, objectClass, options, positions, lengths, objectOffsets, frame, middle);
+		prefix.objectReader = objectReader;
+		prefix.buffer = buffer;
+		prefix.remaining = remaining;
+		this.objectReader = null;
+		this.buffer = null;
+		this.remaining = 0;
+		this.frame = middle;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return remaining + objectOffsets[endFrame] - objectOffsets[frame];
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+	}
+}
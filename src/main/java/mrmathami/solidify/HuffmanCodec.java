@@ -0,0 +1,339 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Canonical Huffman coding of one block with a table built from that block's own byte histogram.
+// Stored form: 256 code lengths as 4-bit nibbles, the byte lengths of the first three of four segments as unsigned
+// shorts, then the four segments. Each segment codes a quarter of the block LSB first, zero padded to a byte, so the
+// decoder can follow four independent bit streams at once.
+final class HuffmanCodec {
+	static final int TABLE_SIZE = 128;
+
+	private static final int JUMP_SIZE = 6;
+	private static final int MAX_LENGTH = 11;
+	private static final int DECODE_MASK = (1 << MAX_LENGTH) - 1;
+
+	// four interleaved histograms, so runs of one byte do not stall on a single counter
+	@Nonnull private final int[] histograms = new int[256 * 4];
+	@Nonnull private final int[] frequencies = new int[256];
+	@Nonnull private final int[] sorted = new int[256];
+	@Nonnull private final int[] work = new int[256];
+	@Nonnull private final int[] lengths = new int[256];
+	@Nonnull private final int[] counts = new int[MAX_LENGTH + 1];
+	// reversed code << 4 | length
+	@Nonnull private final int[] codes = new int[256];
+	// symbol | length << 8, length 0 marks a code that is not in use
+	@Nonnull private final int[] decodeTable = new int[1 << MAX_LENGTH];
+
+	private static void throwInvalidInput() throws IOException {
+		throw new IOException("Invalid input data.");
+	}
+
+	private static int getInt(@Nonnull byte[] buffer, int position) {
+		return buffer[position] & 0xFF | (buffer[position + 1] & 0xFF) << 8
+				| (buffer[position + 2] & 0xFF) << 16 | buffer[position + 3] << 24;
+	}
+
+	private static long getLong(@Nonnull byte[] buffer, int position) {
+		return getInt(buffer, position) & 0xFFFFFFFFL | (long) getInt(buffer, position + 4) << 32;
+	}
+
+	private static void putLong(@Nonnull byte[] buffer, int position, long value) {
+		buffer[position] = (byte) value;
+		buffer[position + 1] = (byte) (value >> 8);
+		buffer[position + 2] = (byte) (value >> 16);
+		buffer[position + 3] = (byte) (value >> 24);
+		buffer[position + 4] = (byte) (value >> 32);
+		buffer[position + 5] = (byte) (value >> 40);
+		buffer[position + 6] = (byte) (value >> 48);
+		buffer[position + 7] = (byte) (value >> 56);
+	}
+
+	// region //====== Encode ======
+
+	// returns the stored length, or -1 if the block would not get smaller
+	int encode(@Nonnull byte[] block, int size, @Nonnull byte[] output, int offset) {
+		final int[] histograms = this.histograms;
+		final int[] frequencies = this.frequencies;
+		Arrays.fill(histograms, 0);
+		int index = 0;
+		for (final int limit = size & ~3; index < limit; index += 4) {
+			histograms[block[index] & 0xFF]++;
+			histograms[256 + (block[index + 1] & 0xFF)]++;
+			histograms[512 + (block[index + 2] & 0xFF)]++;
+			histograms[768 + (block[index + 3] & 0xFF)]++;
+		}
+		for (; index < size; index++) histograms[block[index] & 0xFF]++;
+		for (int symbol = 0; symbol < 256; symbol++) {
+			frequencies[symbol] = histograms[symbol] + histograms[256 + symbol] + histograms[512 + symbol] + histograms[768 + symbol];
+		}
+		buildLengths();
+
+		final int[] lengths = this.lengths;
+		long bitLength = 0;
+		for (int symbol = 0; symbol < 256; symbol++) bitLength += (long) frequencies[symbol] * lengths[symbol];
+		// every segment pads at most 7 bits, so this bounds the stored length
+		if (TABLE_SIZE + JUMP_SIZE + (bitLength >>> 3) + 4 >= size) return -1;
+
+		for (int symbol = 0; symbol < 256; symbol += 2) {
+			output[offset + (symbol >>> 1)] = (byte) (lengths[symbol] | lengths[symbol + 1] << 4);
+		}
+		if (!buildCodes()) throw new AssertionError();
+
+		final int segmentSize = size + 3 >>> 2;
+		final int jump = offset + TABLE_SIZE;
+		int position = jump + JUMP_SIZE;
+		for (int segment = 0; segment < 4; segment++) {
+			final int from = Math.min(segment * segmentSize, size);
+			final int to = Math.min(from + segmentSize, size);
+			final int end = encodeSegment(block, from, to, output, position);
+			if (segment < 3) {
+				output[jump + segment * 2] = (byte) (end - position);
+				output[jump + segment * 2 + 1] = (byte) (end - position >>> 8);
+			}
+			position = end;
+		}
+		return position - offset;
+	}
+
+	private int encodeSegment(@Nonnull byte[] block, int from, int to, @Nonnull byte[] output, int position) {
+		final int[] codes = this.codes;
+		long bitBuffer = 0;
+		int bitCount = 0;
+		int index = from;
+		// four codes of at most 11 bits on top of at most 7 pending bits always fit one long store
+		for (final int limit = output.length - 8; index + 4 <= to && position <= limit; index += 4) {
+			final int entry0 = codes[block[index] & 0xFF];
+			final int entry1 = codes[block[index + 1] & 0xFF];
+			final int entry2 = codes[block[index + 2] & 0xFF];
+			final int entry3 = codes[block[index + 3] & 0xFF];
+			bitBuffer |= (long) (entry0 >>> 4) << bitCount;
+			bitCount += entry0 & 15;
+			bitBuffer |= (long) (entry1 >>> 4) << bitCount;
+			bitCount += entry1 & 15;
+			bitBuffer |= (long) (entry2 >>> 4) << bitCount;
+			bitCount += entry2 & 15;
+			bitBuffer |= (long) (entry3 >>> 4) << bitCount;
+			bitCount += entry3 & 15;
+			putLong(output, position, bitBuffer);
+			final int bytes = bitCount >>> 3;
+			position += bytes;
+			bitBuffer >>>= bytes << 3;
+			bitCount &= 7;
+		}
+		for (; index < to; index++) {
+			final int entry = codes[block[index] & 0xFF];
+			bitBuffer |= (long) (entry >>> 4) << bitCount;
+			bitCount += entry & 15;
+			for (; bitCount >= 8; bitCount -= 8, bitBuffer >>>= 8) output[position++] = (byte) bitBuffer;
+		}
+		if (bitCount > 0) output[position++] = (byte) bitBuffer;
+		return position;
+	}
+
+	// optimal lengths for the histogram, frequencies are halved until the longest code fits MAX_LENGTH
+	private void buildLengths() {
+		final int[] frequencies = this.frequencies;
+		final int[] sorted = this.sorted;
+		final int[] work = this.work;
+		final int[] lengths = this.lengths;
+		Arrays.fill(lengths, 0);
+
+		int count = 0;
+		for (int symbol = 0; symbol < 256; symbol++) {
+			if (frequencies[symbol] != 0) sorted[count++] = frequencies[symbol] << 8 | symbol;
+		}
+		if (count == 1) {
+			lengths[sorted[0] & 0xFF] = 1;
+			return;
+		}
+		Arrays.sort(sorted, 0, count);
+		while (true) {
+			for (int i = 0; i < count; i++) work[i] = sorted[i] >>> 8;
+			minimumRedundancy(work, count);
+			if (work[0] <= MAX_LENGTH) break;
+			// halving keeps the order, so no need to sort again
+			for (int i = 0; i < count; i++) sorted[i] = (sorted[i] >>> 9 | 1) << 8 | sorted[i] & 0xFF;
+		}
+		for (int i = 0; i < count; i++) lengths[sorted[i] & 0xFF] = work[i];
+	}
+
+	// Moffat-Katajainen in-place code length calculation, values must be sorted ascending, count >= 2
+	private static void minimumRedundancy(@Nonnull int[] values, int count) {
+		values[0] += values[1];
+		int root = 0;
+		int leaf = 2;
+		for (int next = 1; next < count - 1; next++) {
+			if (leaf >= count || values[root] < values[leaf]) {
+				values[next] = values[root];
+				values[root++] = next;
+			} else {
+				values[next] = values[leaf++];
+			}
+			if (leaf >= count || root < next && values[root] < values[leaf]) {
+				values[next] += values[root];
+				values[root++] = next;
+			} else {
+				values[next] += values[leaf++];
+			}
+		}
+
+		values[count - 2] = 0;
+		for (int next = count - 3; next >= 0; next--) values[next] = values[values[next]] + 1;
+
+		int available = 1;
+		int used = 0;
+		int depth = 0;
+		int next = count - 1;
+		root = count - 2;
+		while (available > 0) {
+			while (root >= 0 && values[root] == depth) {
+				used++;
+				root--;
+			}
+			while (available > used) {
+				values[next--] = depth;
+				available--;
+			}
+			available = used << 1;
+			depth++;
+			used = 0;
+		}
+	}
+
+	// assigns canonical codes from the lengths, false if the lengths over-subscribe the code space
+	private boolean buildCodes() {
+		final int[] lengths = this.lengths;
+		final int[] counts = this.counts;
+		Arrays.fill(counts, 0);
+		for (final int length : lengths) counts[length]++;
+		counts[0] = 0;
+
+		int left = 1;
+		for (int length = 1; length <= MAX_LENGTH; length++) {
+			left = (left << 1) - counts[length];
+			if (left < 0) return false;
+		}
+
+		// counts becomes the next code of each length
+		int code = 0;
+		for (int length = 1; length <= MAX_LENGTH; length++) {
+			final int count = counts[length];
+			counts[length] = code;
+			code = code + count << 1;
+		}
+		final int[] codes = this.codes;
+		for (int symbol = 0; symbol < 256; symbol++) {
+			final int length = lengths[symbol];
+			codes[symbol] = length != 0 ? Integer.reverse(counts[length]++) >>> 32 - length << 4 | length : 0;
+		}
+		return true;
+	}
+
+	// endregion //====== Encode ======
+
+	// region //====== Decode ======
+
+	void decode(@Nonnull byte[] input, int offset, int storedLength, @Nonnull byte[] output, int rawLength) throws IOException {
+		if (storedLength < TABLE_SIZE + JUMP_SIZE) throwInvalidInput();
+		final int[] lengths = this.lengths;
+		for (int symbol = 0; symbol < 256; symbol += 2) {
+			final int value = input[offset + (symbol >>> 1)];
+			lengths[symbol] = value & 15;
+			lengths[symbol + 1] = value >>> 4 & 15;
+		}
+		for (final int length : lengths) if (length > MAX_LENGTH) throwInvalidInput();
+		if (!buildCodes()) throwInvalidInput();
+
+		final int[] codes = this.codes;
+		final int[] decodeTable = this.decodeTable;
+		Arrays.fill(decodeTable, 0);
+		for (int symbol = 0; symbol < 256; symbol++) {
+			final int length = codes[symbol] & 15;
+			if (length == 0) continue;
+			final int entry = symbol | length << 8;
+			for (int index = codes[symbol] >>> 4; index <= DECODE_MASK; index += 1 << length) decodeTable[index] = entry;
+		}
+
+		final int jump = offset + TABLE_SIZE;
+		final int start0 = jump + JUMP_SIZE;
+		final int start1 = start0 + (input[jump] & 0xFF | (input[jump + 1] & 0xFF) << 8);
+		final int start2 = start1 + (input[jump + 2] & 0xFF | (input[jump + 3] & 0xFF) << 8);
+		final int start3 = start2 + (input[jump + 4] & 0xFF | (input[jump + 5] & 0xFF) << 8);
+		final int end3 = offset + storedLength;
+		if (start3 > end3) throwInvalidInput();
+
+		final int segmentSize = rawLength + 3 >>> 2;
+		final int limit3 = rawLength;
+		final int from3 = Math.min(segmentSize * 3, rawLength);
+		int position0 = start0, position1 = start1, position2 = start2, position3 = start3;
+		long bitBuffer0 = 0, bitBuffer1 = 0, bitBuffer2 = 0, bitBuffer3 = 0;
+		int bitCount0 = 0, bitCount1 = 0, bitCount2 = 0, bitCount3 = 0;
+		int index = 0;
+		// the first three segments are never shorter than the last, so its index bounds all four
+		while (from3 + index + 4 <= limit3 && position0 + 8 <= start1 && position1 + 8 <= start2
+				&& position2 + 8 <= start3 && position3 + 8 <= end3) {
+			bitBuffer0 |= getLong(input, position0) << bitCount0;
+			position0 += 63 - bitCount0 >>> 3;
+			bitCount0 |= 56;
+			bitBuffer1 |= getLong(input, position1) << bitCount1;
+			position1 += 63 - bitCount1 >>> 3;
+			bitCount1 |= 56;
+			bitBuffer2 |= getLong(input, position2) << bitCount2;
+			position2 += 63 - bitCount2 >>> 3;
+			bitCount2 |= 56;
+			bitBuffer3 |= getLong(input, position3) << bitCount3;
+			position3 += 63 - bitCount3 >>> 3;
+			bitCount3 |= 56;
+			for (final int limit = index + 4; index < limit; index++) {
+				final int entry0 = decodeTable[(int) bitBuffer0 & DECODE_MASK];
+				final int entry1 = decodeTable[(int) bitBuffer1 & DECODE_MASK];
+				final int entry2 = decodeTable[(int) bitBuffer2 & DECODE_MASK];
+				final int entry3 = decodeTable[(int) bitBuffer3 & DECODE_MASK];
+				final int length0 = entry0 >>> 8;
+				final int length1 = entry1 >>> 8;
+				final int length2 = entry2 >>> 8;
+				final int length3 = entry3 >>> 8;
+				if ((length0 == 0) | (length1 == 0) | (length2 == 0) | (length3 == 0)) throwInvalidInput();
+				output[index] = (byte) entry0;
+				output[segmentSize + index] = (byte) entry1;
+				output[segmentSize * 2 + index] = (byte) entry2;
+				output[from3 + index] = (byte) entry3;
+				bitBuffer0 >>>= length0;
+				bitBuffer1 >>>= length1;
+				bitBuffer2 >>>= length2;
+				bitBuffer3 >>>= length3;
+				bitCount0 -= length0;
+				bitCount1 -= length1;
+				bitCount2 -= length2;
+				bitCount3 -= length3;
+			}
+		}
+		decodeSegment(input, bitBuffer0, bitCount0, position0, start1, output, index, Math.min(segmentSize, rawLength));
+		decodeSegment(input, bitBuffer1, bitCount1, position1, start2, output, Math.min(segmentSize + index, rawLength), Math.min(segmentSize * 2, rawLength));
+		decodeSegment(input, bitBuffer2, bitCount2, position2, start3, output, Math.min(segmentSize * 2 + index, rawLength), from3);
+		decodeSegment(input, bitBuffer3, bitCount3, position3, end3, output, from3 + index, limit3);
+	}
+
+	// finishes one segment byte by byte, reading zeros past its end and checking the bit count afterwards
+	private void decodeSegment(@Nonnull byte[] input, long bitBuffer, int bitCount, int position, int end, @Nonnull byte[] output, int index, int limit) throws IOException {
+		final int[] decodeTable = this.decodeTable;
+		for (; index < limit; index++) {
+			for (; bitCount <= 56; bitCount += 8, position++) {
+				bitBuffer |= (long) (position < end ? input[position] & 0xFF : 0) << bitCount;
+			}
+			final int entry = decodeTable[(int) bitBuffer & DECODE_MASK];
+			final int length = entry >>> 8;
+			if (length == 0) throwInvalidInput();
+			output[index] = (byte) entry;
+			bitBuffer >>>= length;
+			bitCount -= length;
+		}
+		final long unusedBits = (long) (end - position) * 8 + bitCount;
+		if (unusedBits < 0 || unusedBits >= 8) throwInvalidInput();
+	}
+
+	// endregion //====== Decode ======
+}
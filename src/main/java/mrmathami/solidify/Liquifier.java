@@ -2,19 +2,132 @@ package mrmathami.solidify;
 
 import mrmathami.annotation.Nonnull;
 import mrmathami.annotation.Nullable;
+import java.io.Closeable;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Set;
 
-public final class Liquifier {
-	@Nonnull private final ObjectWriter objectWriter;
+public final class Liquifier implements Flushable, Closeable {
+	@Nonnull private final ObjectWriterImpl objectWriter;
+	@Nonnull private final StreamHeader header;
+	@Nonnull private final Compression compression;
+	private final boolean async;
+	// the stream the writer ends in, closed with the liquifier, null when writing straight into a buffer
+	@Nullable private OutputStream stream;
+	// the output the header still has to go to, it is written on first use so that constructors do not throw
+	@Nullable private OutputStream headerSink;
+	private boolean closed;
 
 	public Liquifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull OutputStream stream) {
-		this.objectWriter = new ObjectWriterImpl(objectProcessors, stream);
+		this(objectProcessors, stream, LiquifierOptions.DEFAULT);
+	}
+
+	public Liquifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull OutputStream stream, @Nonnull LiquifierOptions options) {
+		final OutputStream sink = options.asyncBuffers > 0 ? new AsyncOutputStream(stream, options.asyncBuffers) : stream;
+		this.header = new StreamHeader(options.wireFormat, options.compression.isFramed(), false, options.cacheCapacity);
+		this.compression = options.compression;
+		this.async = options.asyncBuffers > 0;
+		this.headerSink = sink;
+		this.stream = compression.wrap(sink);
+		this.objectWriter = new ObjectWriterImpl(objectProcessors, this.stream, options.wireFormat, options.cacheCapacity, options.metrics);
+	}
+
+	public Liquifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull ByteBuffer buffer) {
+		this(objectProcessors, buffer, LiquifierOptions.DEFAULT);
+	}
+
+	// an asynchronous Liquifier fills the buffer from its thread, the buffer holds everything only after flush
+	public Liquifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull ByteBuffer buffer, @Nonnull LiquifierOptions options) {
+		this.header = new StreamHeader(options.wireFormat, options.compression.isFramed(), false, options.cacheCapacity);
+		this.compression = options.compression;
+		this.async = options.asyncBuffers > 0;
+		if (async) {
+			final OutputStream sink = new AsyncOutputStream(new ByteBufferOutputStream(buffer), options.asyncBuffers);
+			this.headerSink = sink;
+			this.stream = compression.wrap(sink);
+		} else {
+			header.write(buffer);
+			this.stream = compression.isFramed() ? compression.wrap(new ByteBufferOutputStream(buffer)) : null;
+		}
+		this.objectWriter = stream != null
+				? new ObjectWriterImpl(objectProcessors, stream, options.wireFormat, options.cacheCapacity, options.metrics)
+				: new ObjectWriterImpl(objectProcessors, buffer, options.wireFormat, options.cacheCapacity, options.metrics);
+	}
+
+	// Starts a new stream on another output as if newly created with the same settings, but the caches only go back
+	// to their preloaded objects, keeping their table capacity, and the buffers are kept. Meant for many short
+	// messages, where creating a Liquifier for each costs more than encoding it. The previous output is flushed but
+	// not closed. An asynchronous Liquifier cannot be reset, its thread is bound to the output.
+	public void reset(@Nonnull OutputStream stream) throws IOException {
+		if (async) throw new IllegalStateException("Cannot reset an asynchronous Liquifier.");
+		if (!closed) flush();
+		header.write(stream);
+		final OutputStream output = wrap(stream);
+		objectWriter.reset(output);
+		this.stream = output;
+		this.closed = false;
+	}
+
+	public void reset(@Nonnull ByteBuffer buffer) throws IOException {
+		if (async) throw new IllegalStateException("Cannot reset an asynchronous Liquifier.");
+		if (!closed) flush();
+		header.write(buffer);
+		if (compression.isFramed()) {
+			final OutputStream output = wrap(new ByteBufferOutputStream(buffer));
+			objectWriter.reset(output);
+			this.stream = output;
+		} else {
+			objectWriter.reset(buffer);
+			this.stream = null;
+		}
+		this.closed = false;
+	}
+
+	// an open block stream is pointed at the new output, keeping its buffers and deflater
+	@Nonnull
+	private OutputStream wrap(@Nonnull OutputStream stream) {
+		if (closed || !(this.stream instanceof BlockOutputStream)) return compression.wrap(stream);
+		final BlockOutputStream blockStream = (BlockOutputStream) this.stream;
+		blockStream.reset(stream);
+		return blockStream;
+	}
+
+	private void writeHeader() throws IOException {
+		final OutputStream headerSink = this.headerSink;
+		if (headerSink == null) return;
+		this.headerSink = null;
+		header.write(headerSink);
 	}
 
 	public <E> void liquify(@Nonnull Class<E> objectClass, @Nullable E object) throws IOException, LiquifierException {
+		if (headerSink != null) writeHeader();
+		final Object event = FlightRecorder.beginLiquify();
+		if (event == null) {
+			objectWriter.writeObject(objectClass, object);
+			return;
+		}
+		final long startOffset = objectWriter.offset();
 		objectWriter.writeObject(objectClass, object);
+		FlightRecorder.endLiquify(event, objectClass, objectWriter.offset() - startOffset, objectWriter.cacheSize(objectClass));
 	}
-}
 
+	@Override
+	public void flush() throws IOException {
+		writeHeader();
+		objectWriter.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+		this.closed = true;
+		try {
+			writeHeader();
+			objectWriter.flush();
+		} finally {
+			if (stream != null) stream.close();
+		}
+	}
+}
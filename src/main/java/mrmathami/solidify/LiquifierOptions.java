@@ -0,0 +1,55 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+
+// How a Liquifier writes, whatever the output. Immutable, every with method returns a changed copy.
+public final class LiquifierOptions {
+	// the standard wire format, no compression, written on the caller thread, caches that never evict, no metrics
+	@Nonnull public static final LiquifierOptions DEFAULT = new LiquifierOptions(WireFormat.STANDARD, Compression.NONE, 0, 0, null);
+
+	@Nonnull final WireFormat wireFormat;
+	@Nonnull final Compression compression;
+	final int asyncBuffers;
+	final int cacheCapacity;
+	@Nullable final SolidifyMetrics metrics;
+
+	private LiquifierOptions(@Nonnull WireFormat wireFormat, @Nonnull Compression compression, int asyncBuffers, int cacheCapacity, @Nullable SolidifyMetrics metrics) {
+		this.wireFormat = wireFormat;
+		this.compression = compression;
+		this.asyncBuffers = asyncBuffers;
+		this.cacheCapacity = cacheCapacity;
+		this.metrics = metrics;
+	}
+
+	@Nonnull
+	public LiquifierOptions withWireFormat(@Nonnull WireFormat wireFormat) {
+		return new LiquifierOptions(wireFormat, compression, asyncBuffers, cacheCapacity, metrics);
+	}
+
+	@Nonnull
+	public LiquifierOptions withCompression(@Nonnull Compression compression) {
+		return new LiquifierOptions(wireFormat, compression, asyncBuffers, cacheCapacity, metrics);
+	}
+
+	// With asyncBuffers > 0 a background thread writes to the output, and up to asyncBuffers filled 64 KB buffers
+	// may wait for it before liquify blocks. Flush waits until everything reached the output, close stops the thread.
+	@Nonnull
+	public LiquifierOptions withAsyncBuffers(int asyncBuffers) {
+		if (asyncBuffers < 0) throw new IllegalArgumentException("Invalid buffer count.");
+		return new LiquifierOptions(wireFormat, compression, asyncBuffers, cacheCapacity, metrics);
+	}
+
+	// With cacheCapacity > 0 every cache keeps only its preloaded objects and the last cacheCapacity objects added,
+	// so memory stays flat on endless streams. The capacity goes into the stream header for the Solidifier.
+	@Nonnull
+	public LiquifierOptions withCacheCapacity(int cacheCapacity) {
+		if (cacheCapacity < 0) throw new IllegalArgumentException("Invalid cache capacity.");
+		return new LiquifierOptions(wireFormat, compression, asyncBuffers, cacheCapacity, metrics);
+	}
+
+	@Nonnull
+	public LiquifierOptions withMetrics(@Nullable SolidifyMetrics metrics) {
+		return new LiquifierOptions(wireFormat, compression, asyncBuffers, cacheCapacity, metrics);
+	}
+}
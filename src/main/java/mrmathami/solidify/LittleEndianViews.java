@@ -0,0 +1,88 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+
+// Little-endian views over one byte buffer, heap or direct, for bulk copies of primitive arrays. A typed view only
+// reaches the byte offsets of its alignment, so there is one per alignment, made on first use and then only
+// repositioned.
+final class LittleEndianViews {
+	@Nonnull final ByteBuffer buffer;
+	@Nonnull private final ByteBuffer bytes;
+	@Nonnull private final ShortBuffer[] shortViews = new ShortBuffer[2];
+	@Nonnull private final CharBuffer[] charViews = new CharBuffer[2];
+	@Nonnull private final IntBuffer[] intViews = new IntBuffer[4];
+	@Nonnull private final LongBuffer[] longViews = new LongBuffer[8];
+
+	LittleEndianViews(@Nonnull ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.bytes = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	// the views of an alignment start at that byte, so a byte offset maps to the element index offset / size
+	@Nonnull
+	private ByteBuffer bytesFrom(int alignment) {
+		((Buffer) bytes).position(alignment);
+		return bytes;
+	}
+
+	@Nonnull
+	ByteBuffer bytes(int offset) {
+		((Buffer) bytes).position(offset);
+		return bytes;
+	}
+
+	@Nonnull
+	ShortBuffer shorts(int offset) {
+		final int alignment = offset & 1;
+		ShortBuffer view = shortViews[alignment];
+		if (view == null) {
+			view = bytesFrom(alignment).asShortBuffer();
+			shortViews[alignment] = view;
+		}
+		((Buffer) view).position(offset >> 1);
+		return view;
+	}
+
+	@Nonnull
+	CharBuffer chars(int offset) {
+		final int alignment = offset & 1;
+		CharBuffer view = charViews[alignment];
+		if (view == null) {
+			view = bytesFrom(alignment).asCharBuffer();
+			charViews[alignment] = view;
+		}
+		((Buffer) view).position(offset >> 1);
+		return view;
+	}
+
+	@Nonnull
+	IntBuffer ints(int offset) {
+		final int alignment = offset & 3;
+		IntBuffer view = intViews[alignment];
+		if (view == null) {
+			view = bytesFrom(alignment).asIntBuffer();
+			intViews[alignment] = view;
+		}
+		((Buffer) view).position(offset >> 2);
+		return view;
+	}
+
+	@Nonnull
+	LongBuffer longs(int offset) {
+		final int alignment = offset & 7;
+		LongBuffer view = longViews[alignment];
+		if (view == null) {
+			view = bytesFrom(alignment).asLongBuffer();
+			longViews[alignment] = view;
+		}
+		((Buffer) view).position(offset >> 3);
+		return view;
+	}
+}
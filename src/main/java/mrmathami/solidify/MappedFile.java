@@ -0,0 +1,37 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+// A file read in place through read-only mappings of at most windowSize bytes each, a mapping cannot be larger than
+// 2 GB. Mapping does not move the channel position. A window stays valid after the channel is closed, but the next
+// one cannot be mapped any more.
+final class MappedFile {
+	static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE;
+	// the window must hold the longest value the reader needs in one piece, a bounded header or a varint
+	static final int MIN_WINDOW_SIZE = 16;
+
+	@Nonnull private final FileChannel channel;
+	private final long end;
+	private final int windowSize;
+
+	MappedFile(@Nonnull FileChannel channel, long end, int windowSize) {
+		assert windowSize >= MIN_WINDOW_SIZE;
+		this.channel = channel;
+		this.end = end;
+		this.windowSize = windowSize;
+	}
+
+	long end() {
+		return end;
+	}
+
+	// the window from the file offset on, shorter at the end of the file
+	@Nonnull
+	ByteBuffer map(long offset) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowSize, end - offset));
+	}
+}
@@ -0,0 +1,50 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+// The block or frame stream of a file larger than one mapping, read one window after another.
+final class MappedInputStream extends InputStream {
+	@Nonnull private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+	@Nonnull private final MappedFile file;
+	// the file offset of the window start
+	private long offset;
+	@Nonnull private ByteBuffer window = EMPTY;
+
+	MappedInputStream(@Nonnull MappedFile file, long offset) {
+		this.file = file;
+		this.offset = offset;
+	}
+
+	private boolean nextWindow() throws IOException {
+		final long offset = this.offset + window.limit();
+		if (offset >= file.end()) return false;
+		this.offset = offset;
+		this.window = file.map(offset);
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!window.hasRemaining() && !nextWindow()) return -1;
+		return window.get() & 0xFF;
+	}
+
+	@Override
+	public int read(@Nonnull byte[] bytes, int offset, int length) throws IOException {
+		if (length == 0) return 0;
+		if (!window.hasRemaining() && !nextWindow()) return -1;
+		final int count = Math.min(length, window.remaining());
+		window.get(bytes, offset, count);
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return window.remaining();
+	}
+}
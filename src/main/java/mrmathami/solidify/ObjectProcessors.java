@@ -12,6 +12,13 @@ public final class ObjectProcessors {
 	@Nonnull public static final ObjectProcessor<boolean[]> BOOLEAN_ARRAY_PROCESSOR = new PrimitiveBooleanArrayProcessor();
 	@Nonnull public static final ObjectProcessor<char[]> CHAR_ARRAY_PROCESSOR = new PrimitiveCharArrayProcessor();
 
+	@Nonnull public static final ObjectProcessor<int[]> DELTA_INT_ARRAY_PROCESSOR = new PackedIntArrayProcessor(true);
+	@Nonnull public static final ObjectProcessor<long[]> DELTA_LONG_ARRAY_PROCESSOR = new PackedLongArrayProcessor(true);
+	@Nonnull public static final ObjectProcessor<int[]> FOR_INT_ARRAY_PROCESSOR = new PackedIntArrayProcessor(false);
+	@Nonnull public static final ObjectProcessor<long[]> FOR_LONG_ARRAY_PROCESSOR = new PackedLongArrayProcessor(false);
+	@Nonnull public static final ObjectProcessor<float[]> XOR_FLOAT_ARRAY_PROCESSOR = new XorFloatArrayProcessor();
+	@Nonnull public static final ObjectProcessor<double[]> XOR_DOUBLE_ARRAY_PROCESSOR = new XorDoubleArrayProcessor();
+
 	@Nonnull public static final ObjectProcessor<Byte> BOXED_BYTE_PROCESSOR = new BoxedByteProcessor();
 	@Nonnull public static final ObjectProcessor<Short> BOXED_SHORT_PROCESSOR = new BoxedShortProcessor();
 	@Nonnull public static final ObjectProcessor<Integer> BOXED_INTEGER_PROCESSOR = new BoxedIntegerProcessor();
@@ -40,6 +47,11 @@ public final class ObjectProcessors {
 		return new EnumProcessor<>(enumClass);
 	}
 
+	@Nonnull
+	public static <E extends Enum<E>> ObjectProcessor<E[]> forEnumArray(@Nonnull Class<E> enumClass) {
+		return new EnumArrayProcessor<>(enumClass);
+	}
+
 	@Nonnull
 	public static <E> ObjectProcessor<E[]> forArray(@Nonnull Class<E[]> arrayClass) {
 		return new ObjectArrayProcessor<>(arrayClass);
@@ -3,78 +3,144 @@ package mrmathami.solidify;
 import mrmathami.annotation.Nonnull;
 import mrmathami.annotation.Nullable;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
+// The slice methods have defaults going through the single value methods, so they read the same bytes as the
+// whole array methods, ObjectReaderImpl copies whole ranges instead.
 public interface ObjectReader {
 	byte readByte() throws IOException;
 
 	@Nonnull
 	byte[] readBytes(int size) throws IOException;
 
+	default void readBytes(@Nonnull byte[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readByte();
+	}
+
 	int readUnsignedByte() throws IOException;
 
 	@Nonnull
 	int[] readUnsignedBytes(int size) throws IOException;
 
+	default void readUnsignedBytes(@Nonnull int[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readUnsignedByte();
+	}
+
 	short readShort() throws IOException;
 
 	@Nonnull
 	short[] readShorts(int size) throws IOException;
 
+	default void readShorts(@Nonnull short[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readShort();
+	}
+
 	int readUnsignedShort() throws IOException;
 
 	@Nonnull
 	int[] readUnsignedShorts(int size) throws IOException;
 
+	default void readUnsignedShorts(@Nonnull int[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readUnsignedShort();
+	}
+
 	short readPackedShort() throws IOException;
 
 	@Nonnull
 	short[] readPackedShorts(int size) throws IOException;
 
+	default void readPackedShorts(@Nonnull short[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readPackedShort();
+	}
+
 	int readInt() throws IOException;
 
 	@Nonnull
 	int[] readInts(int size) throws IOException;
 
+	default void readInts(@Nonnull int[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readInt();
+	}
+
 	long readUnsignedInt() throws IOException;
 
 	@Nonnull
 	long[] readUnsignedInts(int size) throws IOException;
 
+	default void readUnsignedInts(@Nonnull long[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readUnsignedInt();
+	}
+
 	int readPackedInt() throws IOException;
 
 	@Nonnull
 	int[] readPackedInts(int size) throws IOException;
 
+	default void readPackedInts(@Nonnull int[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readPackedInt();
+	}
+
 	long readLong() throws IOException;
 
 	@Nonnull
 	long[] readLongs(int size) throws IOException;
 
+	default void readLongs(@Nonnull long[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readLong();
+	}
+
 	long readPackedLong() throws IOException;
 
 	@Nonnull
 	long[] readPackedLongs(int size) throws IOException;
 
+	default void readPackedLongs(@Nonnull long[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readPackedLong();
+	}
+
 	float readFloat() throws IOException;
 
 	@Nonnull
 	float[] readFloats(int size) throws IOException;
 
+	default void readFloats(@Nonnull float[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readFloat();
+	}
+
 	double readDouble() throws IOException;
 
 	@Nonnull
 	double[] readDoubles(int size) throws IOException;
 
+	default void readDoubles(@Nonnull double[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readDouble();
+	}
+
 	boolean readBoolean() throws IOException;
 
 	@Nonnull
 	boolean[] readPackedBooleans(int size) throws IOException;
 
+	// booleans are packed eight to a byte, so the slice cannot go element by element
+	default void readPackedBooleans(@Nonnull boolean[] values, int offset, int length) throws IOException {
+		System.arraycopy(readPackedBooleans(length), 0, values, offset, length);
+	}
+
 	char readChar() throws IOException;
 
 	@Nonnull
 	char[] readChars(int size) throws IOException;
 
+	default void readChars(@Nonnull char[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readChar();
+	}
+
+	// reads size bytes of UTF-8, see ObjectWriter.writeUtf8
+	@Nonnull
+	default String readUtf8(int size) throws IOException {
+		return new String(readBytes(size), StandardCharsets.UTF_8);
+	}
+
 	@Nullable
 	<E> E readObject(@Nonnull Class<E> objectClass) throws IOException, SolidifierException;
 
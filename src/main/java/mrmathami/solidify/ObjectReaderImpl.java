@@ -6,12 +6,16 @@ import mrmathami.annotation.Nonnull;
 import mrmathami.annotation.Nullable;
 import mrmathami.util.Pair;
 
-import java.io.BufferedInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,19 +24,93 @@ import java.util.Set;
 import static mrmathami.solidify.ObjectProcessor.CacheType;
 
 final class ObjectReaderImpl implements ObjectReader {
-	@Nonnull private final Map<Class<?>, Pair<ObjectProcessor<?>, Cache<?>>> classMap;
-	@Nonnull private final InputStream stream;
-
-	public ObjectReaderImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull InputStream stream) {
-		this.classMap = new HashMap<>();
-		this.stream = stream instanceof BufferedInputStream ? stream : new BufferedInputStream(stream);
+	private static final int BUFFER_SIZE = 8192;
+
+	@Nonnull private final Map<Class<?>, Pair<ObjectProcessor<?>, ManagedCache<?>>> classMap;
+	@Nullable private InputStream stream;
+	// little-endian, a view of the ByteBuffer source or the staging buffer of the stream
+	@Nonnull private ByteBuffer buffer;
+	// a file larger than one mapping is read a window at a time, the buffer is the window from windowOffset on
+	@Nullable private MappedFile file;
+	private long windowOffset;
+	// made again only when buffer is replaced
+	@Nullable private LittleEndianViews views;
+	// scratch of the bit packed array processors, made on first use
+	@Nullable private BitReader bitReader;
+	private int position;
+	private int limit;
+	private boolean compact;
+	@Nullable private final SolidifyMetrics metrics;
+	private final boolean timed;
+	// skips the checks that only catch malformed input
+	private final boolean trusted;
+	// bytes that left the buffer, the read offset is consumedBytes + position
+	private long consumedBytes;
+
+	public ObjectReaderImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull InputStream stream, @Nonnull WireFormat wireFormat) {
+		this(objectProcessors, stream, wireFormat, 0, null);
+	}
+
+	// cacheCapacity must be the one the stream was written with, see ObjectWriterImpl
+	public ObjectReaderImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull InputStream stream, @Nonnull WireFormat wireFormat, int cacheCapacity, @Nullable SolidifyMetrics metrics) {
+		this(objectProcessors, stream, wireFormat, cacheCapacity, metrics, false);
+	}
+
+	// trusted input is not checked for duplicate cached objects, invalid booleans, floats or doubles
+	public ObjectReaderImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull InputStream stream, @Nonnull WireFormat wireFormat, int cacheCapacity, @Nullable SolidifyMetrics metrics, boolean trusted) {
+		this.classMap = createClassMap(objectProcessors, cacheCapacity, trusted);
+		this.stream = stream;
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		this.compact = wireFormat == WireFormat.COMPACT;
+		this.metrics = metrics;
+		this.timed = metrics != null && metrics.isTimed();
+		this.trusted = trusted;
+	}
+
+	public ObjectReaderImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull ByteBuffer source, @Nonnull WireFormat wireFormat) {
+		this(objectProcessors, source, wireFormat, 0, null);
+	}
+
+	public ObjectReaderImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull ByteBuffer source, @Nonnull WireFormat wireFormat, int cacheCapacity, @Nullable SolidifyMetrics metrics) {
+		this(objectProcessors, source, wireFormat, cacheCapacity, metrics, false);
+	}
+
+	public ObjectReaderImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull ByteBuffer source, @Nonnull WireFormat wireFormat, int cacheCapacity, @Nullable SolidifyMetrics metrics, boolean trusted) {
+		this.classMap = createClassMap(objectProcessors, cacheCapacity, trusted);
+		// decode straight from the source, heap or direct, the source buffer itself is left untouched
+		this.stream = null;
+		this.buffer = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		this.position = source.position();
+		this.limit = source.limit();
+		this.compact = wireFormat == WireFormat.COMPACT;
+		this.metrics = metrics;
+		this.timed = metrics != null && metrics.isTimed();
+		this.trusted = trusted;
+	}
+
+	// the first window is mapped on the first read
+	public ObjectReaderImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull MappedFile file, long offset, @Nonnull WireFormat wireFormat, int cacheCapacity, @Nullable SolidifyMetrics metrics, boolean trusted) {
+		this.classMap = createClassMap(objectProcessors, cacheCapacity, trusted);
+		this.stream = null;
+		this.buffer = ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN);
+		this.file = file;
+		this.windowOffset = offset;
+		this.compact = wireFormat == WireFormat.COMPACT;
+		this.metrics = metrics;
+		this.timed = metrics != null && metrics.isTimed();
+		this.trusted = trusted;
+	}
 
+	@Nonnull
+	private static Map<Class<?>, Pair<ObjectProcessor<?>, ManagedCache<?>>> createClassMap(@Nonnull Set<ObjectProcessor<?>> objectProcessors, int cacheCapacity, boolean trusted) {
+		final Map<Class<?>, Pair<ObjectProcessor<?>, ManagedCache<?>>> classMap = new HashMap<>();
 		for (final ObjectProcessor<?> objectProcessor : objectProcessors) {
 			final Class<?> objectClass = objectProcessor.getObjectClass();
-			if (classMap.put(objectClass, Pair.immutableOf(objectProcessor, createCache(objectProcessor))) != null) {
+			if (classMap.put(objectClass, Pair.immutableOf(objectProcessor, createCache(objectProcessor, cacheCapacity, trusted))) != null) {
 				throw new IllegalArgumentException("Duplicate ObjectProcessor for class: " + objectClass.getName());
 			}
 		}
+		return classMap;
 	}
 
 	private static void throwInvalidInput() throws IOException {
@@ -43,12 +121,20 @@ final class ObjectReaderImpl implements ObjectReader {
 		throw new IllegalArgumentException("Size must be positive.");
 	}
 
+	private static void checkRange(int arrayLength, int offset, int length) {
+		if (length <= 0) throwInvalidSize();
+		if (offset < 0 || offset > arrayLength - length) {
+			throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+					+ ") out of bounds for length " + arrayLength);
+		}
+	}
+
 	private static void throwUnregisteredClass(@Nonnull Class<?> objectClass) {
 		throw new IllegalArgumentException("Cannot find ObjectProcessor for class: " + objectClass.getName());
 	}
 
 	@Nullable
-	private static <E> Cache<E> createCache(@Nonnull ObjectProcessor<E> objectProcessor) {
+	private static <E> ManagedCache<E> createCache(@Nonnull ObjectProcessor<E> objectProcessor, int cacheCapacity, boolean trusted) {
 		final CacheType cacheType = objectProcessor.getCacheType();
 		if (cacheType == CacheType.NO_CACHE) return null;
 
@@ -67,7 +153,11 @@ final class ObjectReaderImpl implements ObjectReader {
 				list.add(object);
 			}
 		}
-		return new Cache<E>() {
+		// trusted input keeps only the list, the set just finds objects added twice
+		final Set<E> checkedSet = trusted ? null : set;
+		if (cacheCapacity > 0) return new RingCache<>(list, checkedSet, cacheCapacity);
+		final int preloadSize = list.size();
+		return new ManagedCache<E>() {
 			@Nullable
 			@Override
 			public E get(int index) throws CacheException {
@@ -83,33 +173,245 @@ final class ObjectReaderImpl implements ObjectReader {
 			public CacheSlot<E> alloc() {
 				final int index = list.size();
 				list.add(index, null);
+				if (checkedSet == null) return object -> list.set(index, object);
 				return object -> {
-					if (!set.add(object)) throw new CacheException("Object already existed in cache.");
+					if (!checkedSet.add(object)) throw new CacheException("Object already existed in cache.");
 					if (list.set(index, object) != null) throw new CacheException("Cache slot already used.");
 				};
 			}
+
+			@Override
+			public int size() {
+				return list.size();
+			}
+
+			@Override
+			public void reset() {
+				list.subList(preloadSize, list.size()).clear();
+				if (checkedSet != null) {
+					checkedSet.clear();
+					checkedSet.addAll(list);
+				}
+			}
 		};
 	}
 
+	// Starts over on another input written with the same cache capacity, with every cache back to its preloaded
+	// objects. A buffer borrowed from a ByteBuffer source is given back and replaced.
+	void reset(@Nonnull InputStream stream, @Nonnull WireFormat wireFormat) {
+		resetCaches();
+		if (this.stream == null) this.buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		this.stream = stream;
+		this.file = null;
+		this.position = 0;
+		this.limit = 0;
+		this.compact = wireFormat == WireFormat.COMPACT;
+		this.consumedBytes = 0L;
+	}
+
+	void reset(@Nonnull ByteBuffer source, @Nonnull WireFormat wireFormat) {
+		resetCaches();
+		this.stream = null;
+		this.file = null;
+		this.buffer = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		this.position = source.position();
+		this.limit = source.limit();
+		this.compact = wireFormat == WireFormat.COMPACT;
+		this.consumedBytes = 0L;
+	}
+
+	private void resetCaches() {
+		for (final Pair<ObjectProcessor<?>, ManagedCache<?>> pair : classMap.values()) {
+			final ManagedCache<?> cache = pair.getB();
+			if (cache != null) cache.reset();
+		}
+	}
+
+	// the number of objects in the cache of a registered class, 0 when it has none
+	int cacheSize(@Nonnull Class<?> objectClass) {
+		final Pair<ObjectProcessor<?>, ManagedCache<?>> pair = classMap.get(objectClass);
+		final ManagedCache<?> cache = pair != null ? pair.getB() : null;
+		return cache != null ? cache.size() : 0;
+	}
+
+	// region //====== Buffer ======
+
+	private void ensureAvailable(int length) throws IOException {
+		if (limit - position < length) refill(length);
+	}
+
+	private int availableUnits(int unitSize, int units) throws IOException {
+		ensureAvailable(unitSize);
+		return Math.min(units, (limit - position) / unitSize);
+	}
+
+	@Nonnull
+	private LittleEndianViews views() {
+		final LittleEndianViews views = this.views;
+		if (views != null && views.buffer == buffer) return views;
+		final LittleEndianViews newViews = new LittleEndianViews(buffer);
+		this.views = newViews;
+		return newViews;
+	}
+
+	@Nonnull
+	BitReader bitReader() {
+		final BitReader bitReader = this.bitReader;
+		if (bitReader != null) return bitReader;
+		final BitReader newBitReader = new BitReader();
+		this.bitReader = newBitReader;
+		return newBitReader;
+	}
+
+	private void refill(int length) throws IOException {
+		if (file != null) {
+			remap(file, length);
+			return;
+		}
+		if (stream == null) throw new EOFException();
+		final int remaining = limit - position;
+		this.consumedBytes += position;
+		// the staging buffer of a stream is always an array of its own
+		if (buffer.capacity() < length) {
+			final ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() << 1)).order(ByteOrder.LITTLE_ENDIAN);
+			System.arraycopy(buffer.array(), position, newBuffer.array(), 0, remaining);
+			this.buffer = newBuffer;
+		} else if (position > 0) {
+			System.arraycopy(buffer.array(), position, buffer.array(), 0, remaining);
+		}
+		this.position = 0;
+		this.limit = remaining;
+		final byte[] array = buffer.array();
+		final Object event = FlightRecorder.beginRefill();
+		do {
+			final int count = stream.read(array, limit, array.length - limit);
+			if (count < 0) throw new EOFException();
+			this.limit += count;
+		} while (limit < length);
+		if (event != null) FlightRecorder.endRefill(event, limit - remaining);
+	}
+
+	// The next window starts at the first unread byte, so a value cut by the end of the previous one is read whole.
+	// No read needs more than a window in one piece, the longer ones go in parts.
+	private void remap(@Nonnull MappedFile file, int length) throws IOException {
+		final long offset = windowOffset + position;
+		if (file.end() - offset < length) throw new EOFException();
+		final Object event = FlightRecorder.beginRefill();
+		final ByteBuffer window = file.map(offset).order(ByteOrder.LITTLE_ENDIAN);
+		if (event != null) FlightRecorder.endRefill(event, window.limit() - (limit - position));
+		this.consumedBytes += position;
+		this.windowOffset = offset;
+		this.buffer = window;
+		this.position = 0;
+		this.limit = window.limit();
+	}
+
+	// the read position, the difference between two calls is the number of bytes read in between
+	long offset() {
+		return consumedBytes + position;
+	}
+
+	// true when the input ends right here, a truncated object still fails when it is read
+	boolean atEnd() throws IOException {
+		if (position < limit) return false;
+		if (file != null) return windowOffset + position >= file.end();
+		if (stream == null) return true;
+		final Object event = FlightRecorder.beginRefill();
+		int count;
+		do {
+			count = stream.read(buffer.array(), 0, buffer.capacity());
+		} while (count == 0);
+		if (event != null) FlightRecorder.endRefill(event, Math.max(count, 0));
+		this.consumedBytes += position;
+		this.position = 0;
+		this.limit = Math.max(count, 0);
+		return count < 0;
+	}
+
+	private long readVarLong(int maxLength) throws IOException {
+		if (limit - position < maxLength) return readVarLongByByte(maxLength);
+		final ByteBuffer buffer = this.buffer;
+		int position = this.position;
+		final int maxShift = maxLength * 7;
+		long value = 0L;
+		int shift = 0;
+		byte current;
+		do {
+			if (shift == maxShift) throwInvalidInput();
+			current = buffer.get(position++);
+			value |= (current & 0x7FL) << shift;
+			shift += 7;
+		} while (current < 0);
+		this.position = position;
+		return value;
+	}
+
+	private long readVarLongByByte(int maxLength) throws IOException {
+		// near the end of the input, the varint may be shorter than its maximum length
+		final int maxShift = maxLength * 7;
+		long value = 0L;
+		int shift = 0;
+		byte current;
+		do {
+			if (shift == maxShift) throwInvalidInput();
+			current = readByte();
+			value |= (current & 0x7FL) << shift;
+			shift += 7;
+		} while (current < 0);
+		return value;
+	}
+
+	private static long decodeZigzag(long value) {
+		return value >>> 1 ^ -(value & 1L);
+	}
+
+	// endregion
+
 	// region //====== Basic read ======
 
 	@Override
 	public byte readByte() throws IOException {
-		return (byte) readUnsignedByte();
+		ensureAvailable(1);
+		return buffer.get(position++);
 	}
 
 	@Nonnull
 	@Override
 	public byte[] readBytes(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
-		return readFromStream(size);
+		final byte[] values = new byte[size];
+		readBytes(values, 0, size);
+		return values;
+	}
+
+	@Override
+	public void readBytes(@Nonnull byte[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int buffered = Math.min(length, limit - position);
+		views().bytes(position).get(values, offset, buffered);
+		this.position += buffered;
+		if (buffered < length) {
+			final int remaining = length - buffered;
+			if (remaining >= buffer.capacity() && stream != null) {
+				readFromStream(values, offset + buffered, remaining);
+			} else {
+				// in parts, the rest of the buffer or of the window each time
+				final int end = offset + length;
+				int index = offset + buffered;
+				do {
+					final int count = availableUnits(1, end - index);
+					views().bytes(position).get(values, index, count);
+					this.position += count;
+					index += count;
+				} while (index < end);
+			}
+		}
 	}
 
 	@Override
 	public int readUnsignedByte() throws IOException {
-		final int value = stream.read();
-		if (value < 0) throw new EOFException();
-		return value;
+		ensureAvailable(1);
+		return buffer.get(position++) & 0xFF;
 	}
 
 	@Nonnull
@@ -117,13 +419,32 @@ final class ObjectReaderImpl implements ObjectReader {
 	public int[] readUnsignedBytes(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
 		final int[] values = new int[size];
-		for (int i = 0; i < size; i++) values[i] = readUnsignedByte();
+		readUnsignedBytes(values, 0, size);
 		return values;
 	}
 
+	@Override
+	public void readUnsignedBytes(@Nonnull int[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = availableUnits(1, end - index);
+			final ByteBuffer buffer = this.buffer;
+			int position = this.position;
+			for (final int chunkEnd = index + count; index < chunkEnd; index++, position += 1) {
+				values[index] = buffer.get(position) & 0xFF;
+			}
+			this.position = position;
+		} while (index < end);
+	}
+
 	@Override
 	public short readShort() throws IOException {
-		return (short) readUnsignedShort();
+		ensureAvailable(2);
+		final int position = this.position;
+		this.position = position + 2;
+		return buffer.getShort(position);
 	}
 
 	@Nonnull
@@ -131,13 +452,29 @@ final class ObjectReaderImpl implements ObjectReader {
 	public short[] readShorts(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
 		final short[] values = new short[size];
-		for (int i = 0; i < size; i++) values[i] = readShort();
+		readShorts(values, 0, size);
 		return values;
 	}
 
+	@Override
+	public void readShorts(@Nonnull short[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = availableUnits(2, end - index);
+			views().shorts(position).get(values, index, count);
+			this.position += count << 1;
+			index += count;
+		} while (index < end);
+	}
+
 	@Override
 	public int readUnsignedShort() throws IOException {
-		return readUnsignedByte() | readUnsignedByte() << 8;
+		ensureAvailable(2);
+		final int position = this.position;
+		this.position = position + 2;
+		return buffer.getShort(position) & 0xFFFF;
 	}
 
 	@Nonnull
@@ -145,16 +482,37 @@ final class ObjectReaderImpl implements ObjectReader {
 	public int[] readUnsignedShorts(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
 		final int[] values = new int[size];
-		for (int i = 0; i < size; i++) values[i] = readUnsignedShort();
+		readUnsignedShorts(values, 0, size);
 		return values;
 	}
 
+	@Override
+	public void readUnsignedShorts(@Nonnull int[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = availableUnits(2, end - index);
+			final ByteBuffer buffer = this.buffer;
+			int position = this.position;
+			for (final int chunkEnd = index + count; index < chunkEnd; index++, position += 2) {
+				values[index] = buffer.getShort(position) & 0xFFFF;
+			}
+			this.position = position;
+		} while (index < end);
+	}
+
 	@Override
 	public short readPackedShort() throws IOException {
+		if (compact) {
+			final long value = decodeZigzag(readVarLong(3));
+			if (value < -0x80L || value > Short.MAX_VALUE) throwInvalidInput();
+			return (short) value;
+		}
 		final int low = readUnsignedByte();
 		if (low < 0x80) return (short) low;
 		final int high = readUnsignedByte();
-		return (short) (high > 0 ? high << 7 | low & 0x7F : low);
+		return (short) (high > 0 ? high << 7 | low & 0x7F : (byte) low);
 	}
 
 	@Nonnull
@@ -162,14 +520,22 @@ final class ObjectReaderImpl implements ObjectReader {
 	public short[] readPackedShorts(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
 		final short[] values = new short[size];
-		for (int i = 0; i < size; i++) values[i] = readPackedShort();
+		readPackedShorts(values, 0, size);
 		return values;
 	}
 
+	@Override
+	public void readPackedShorts(@Nonnull short[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readPackedShort();
+	}
+
 	@Override
 	public int readInt() throws IOException {
-		return readUnsignedByte() | readUnsignedByte() << 8
-				| readUnsignedByte() << 16 | readUnsignedByte() << 24;
+		ensureAvailable(4);
+		final int position = this.position;
+		this.position = position + 4;
+		return buffer.getInt(position);
 	}
 
 	@Nonnull
@@ -177,14 +543,26 @@ final class ObjectReaderImpl implements ObjectReader {
 	public int[] readInts(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
 		final int[] values = new int[size];
-		for (int i = 0; i < size; i++) values[i] = readInt();
+		readInts(values, 0, size);
 		return values;
 	}
 
+	@Override
+	public void readInts(@Nonnull int[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = availableUnits(4, end - index);
+			views().ints(position).get(values, index, count);
+			this.position += count << 2;
+			index += count;
+		} while (index < end);
+	}
+
 	@Override
 	public long readUnsignedInt() throws IOException {
-		return readUnsignedByte() | readUnsignedByte() << 8
-				| readUnsignedByte() << 16 | (long) readUnsignedByte() << 24;
+		return readInt() & 0xFFFFFFFFL;
 	}
 
 	@Nonnull
@@ -192,12 +570,33 @@ final class ObjectReaderImpl implements ObjectReader {
 	public long[] readUnsignedInts(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
 		final long[] values = new long[size];
-		for (int i = 0; i < size; i++) values[i] = readUnsignedInt();
+		readUnsignedInts(values, 0, size);
 		return values;
 	}
 
+	@Override
+	public void readUnsignedInts(@Nonnull long[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = availableUnits(4, end - index);
+			final ByteBuffer buffer = this.buffer;
+			int position = this.position;
+			for (final int chunkEnd = index + count; index < chunkEnd; index++, position += 4) {
+				values[index] = buffer.getInt(position) & 0xFFFFFFFFL;
+			}
+			this.position = position;
+		} while (index < end);
+	}
+
 	@Override
 	public int readPackedInt() throws IOException {
+		if (compact) {
+			final long value = decodeZigzag(readVarLong(5));
+			if (value < -0x8000L || value > Integer.MAX_VALUE) throwInvalidInput();
+			return (int) value;
+		}
 		final int low = readUnsignedShort();
 		if (low < 0x8000) return low;
 		final int high = readUnsignedShort();
@@ -209,13 +608,22 @@ final class ObjectReaderImpl implements ObjectReader {
 	public int[] readPackedInts(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
 		final int[] values = new int[size];
-		for (int i = 0; i < size; i++) values[i] = readPackedInt();
+		readPackedInts(values, 0, size);
 		return values;
 	}
 
+	@Override
+	public void readPackedInts(@Nonnull int[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readPackedInt();
+	}
+
 	@Override
 	public long readLong() throws IOException {
-		return readUnsignedInt() | (long) readInt() << 32;
+		ensureAvailable(8);
+		final int position = this.position;
+		this.position = position + 8;
+		return buffer.getLong(position);
 	}
 
 	@Nonnull
@@ -223,12 +631,30 @@ final class ObjectReaderImpl implements ObjectReader {
 	public long[] readLongs(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
 		final long[] values = new long[size];
-		for (int i = 0; i < size; i++) values[i] = readLong();
+		readLongs(values, 0, size);
 		return values;
 	}
 
+	@Override
+	public void readLongs(@Nonnull long[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = availableUnits(8, end - index);
+			views().longs(position).get(values, index, count);
+			this.position += count << 3;
+			index += count;
+		} while (index < end);
+	}
+
 	@Override
 	public long readPackedLong() throws IOException {
+		if (compact) {
+			final long value = decodeZigzag(readVarLong(10));
+			if (value < -0x80000000L) throwInvalidInput();
+			return value;
+		}
 		final int low = readInt();
 		if (low >= 0) return low;
 		final long high = readUnsignedInt();
@@ -240,10 +666,16 @@ final class ObjectReaderImpl implements ObjectReader {
 	public long[] readPackedLongs(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
 		final long[] values = new long[size];
-		for (int i = 0; i < size; i++) values[i] = readPackedLong();
+		readPackedLongs(values, 0, size);
 		return values;
 	}
 
+	@Override
+	public void readPackedLongs(@Nonnull long[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readPackedLong();
+	}
+
 	@Override
 	public float readFloat() throws IOException {
 		// 0111 1111 1000 0000 positive infinity
@@ -256,7 +688,7 @@ final class ObjectReaderImpl implements ObjectReader {
 		if (leadingBits == 0x7F80) return Float.POSITIVE_INFINITY;
 		if (leadingBits == 0xFF80) return Float.NEGATIVE_INFINITY;
 		if (leadingBits == 0x7FC0) return Float.NaN;
-		if ((leadingBits & 0x7F80) == 0x7F80) throwInvalidInput();
+		if (!trusted && (leadingBits & 0x7F80) == 0x7F80) throwInvalidInput();
 		return Float.intBitsToFloat(leadingBits << 16 | readUnsignedShort());
 	}
 
@@ -265,10 +697,16 @@ final class ObjectReaderImpl implements ObjectReader {
 	public float[] readFloats(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
 		final float[] values = new float[size];
-		for (int i = 0; i < size; i++) values[i] = readFloat();
+		readFloats(values, 0, size);
 		return values;
 	}
 
+	@Override
+	public void readFloats(@Nonnull float[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readFloat();
+	}
+
 	@Override
 	public double readDouble() throws IOException {
 		// 0111 1111 1111 0000 positive infinity
@@ -281,8 +719,13 @@ final class ObjectReaderImpl implements ObjectReader {
 		if (leadingBits == 0x7FF0) return Double.POSITIVE_INFINITY;
 		if (leadingBits == 0xFFF0) return Double.NEGATIVE_INFINITY;
 		if (leadingBits == 0x7FF8) return Double.NaN;
-		if ((leadingBits & 0x7FF0) == 0x7FF0) throwInvalidInput();
-		return Double.longBitsToDouble(((long) (leadingBits << 16 | readUnsignedShort())) << 32 | readUnsignedInt());
+		if (!trusted && (leadingBits & 0x7FF0) == 0x7FF0) throwInvalidInput();
+		ensureAvailable(6);
+		final ByteBuffer buffer = this.buffer;
+		final int position = this.position;
+		this.position = position + 6;
+		return Double.longBitsToDouble((long) (leadingBits << 16 | buffer.getShort(position) & 0xFFFF) << 32
+				| buffer.getInt(position + 2) & 0xFFFFFFFFL);
 	}
 
 	@Nonnull
@@ -290,14 +733,20 @@ final class ObjectReaderImpl implements ObjectReader {
 	public double[] readDoubles(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
 		final double[] values = new double[size];
-		for (int i = 0; i < size; i++) values[i] = readDouble();
+		readDoubles(values, 0, size);
 		return values;
 	}
 
+	@Override
+	public void readDoubles(@Nonnull double[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		for (int index = offset, end = offset + length; index < end; index++) values[index] = readDouble();
+	}
+
 	@Override
 	public boolean readBoolean() throws IOException {
 		final int value = readUnsignedByte();
-		if (value != 0x00 && value != 0x80) throwInvalidInput();
+		if (!trusted && value != 0x00 && value != 0x80) throwInvalidInput();
 		return value != 0x00;
 	}
 
@@ -305,32 +754,43 @@ final class ObjectReaderImpl implements ObjectReader {
 	@Override
 	public boolean[] readPackedBooleans(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
-
-		final int length = size + 7 >> 3;
-		final byte[] buffer = readFromStream(length);
 		final boolean[] values = new boolean[size];
-		int vi = 7, bi = 0;
-		while (vi < size) {
-			final byte packed = buffer[bi++];
-			values[vi - 7] = (packed & 0x80) != 0;
-			values[vi - 6] = (packed & 0x40) != 0;
-			values[vi - 5] = (packed & 0x20) != 0;
-			values[vi - 4] = (packed & 0x10) != 0;
-			values[vi - 3] = (packed & 0x08) != 0;
-			values[vi - 2] = (packed & 0x04) != 0;
-			values[vi - 1] = (packed & 0x02) != 0;
-			values[vi] = (packed & 0x01) != 0;
-			vi += 8;
+		readPackedBooleans(values, 0, size);
+		return values;
+	}
+
+	@Override
+	public void readPackedBooleans(@Nonnull boolean[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+
+		final int end = offset + length;
+		final int packedLength = length >> 3;
+		int vi = offset, bi = 0;
+		while (bi < packedLength) {
+			final int count = availableUnits(1, packedLength - bi);
+			final ByteBuffer buffer = this.buffer;
+			int position = this.position;
+			for (final int chunkEnd = bi + count; bi < chunkEnd; bi++) {
+				final byte packed = buffer.get(position++);
+				values[vi] = (packed & 0x80) != 0;
+				values[vi + 1] = (packed & 0x40) != 0;
+				values[vi + 2] = (packed & 0x20) != 0;
+				values[vi + 3] = (packed & 0x10) != 0;
+				values[vi + 4] = (packed & 0x08) != 0;
+				values[vi + 5] = (packed & 0x04) != 0;
+				values[vi + 6] = (packed & 0x02) != 0;
+				values[vi + 7] = (packed & 0x01) != 0;
+				vi += 8;
+			}
+			this.position = position;
 		}
-		if (bi < length) {
-			vi -= 7;
-			byte value = buffer[bi];
+		if (vi < end) {
+			byte value = readByte();
 			do {
 				values[vi++] = (value & 0x80) != 0;
 				value += value;
-			} while (vi < size);
+			} while (vi < end);
 		}
-		return values;
 	}
 
 	@Override
@@ -343,47 +803,194 @@ final class ObjectReaderImpl implements ObjectReader {
 	public char[] readChars(int size) throws IOException {
 		if (size <= 0) throwInvalidSize();
 		final char[] values = new char[size];
-		for (int i = 0; i < size; i++) values[i] = readChar();
+		readChars(values, 0, size);
 		return values;
 	}
 
+	@Override
+	public void readChars(@Nonnull char[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = availableUnits(2, end - index);
+			views().chars(position).get(values, index, count);
+			this.position += count << 1;
+			index += count;
+		} while (index < end);
+	}
+
+	@Nonnull
+	@Override
+	public String readUtf8(int size) throws IOException {
+		if (size <= 0) throwInvalidSize();
+		if (size > buffer.capacity() && (stream != null || file != null)) return new String(readBytes(size), StandardCharsets.UTF_8);
+
+		ensureAvailable(size);
+		final ByteBuffer buffer = this.buffer;
+		final int start = this.position, end = start + size;
+		int index = start;
+		while (index < end && buffer.get(index) >= 0) index += 1;
+		this.position = end;
+		final Charset charset = index == end ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8;
+		if (buffer.hasArray()) return new String(buffer.array(), buffer.arrayOffset() + start, size, charset);
+		final byte[] bytes = new byte[size];
+		views().bytes(start).get(bytes);
+		return new String(bytes, charset);
+	}
+
 	// endregion
 
+	@Nullable
+	private <E> E readMeasured(@Nonnull Class<E> objectClass, @Nonnull ObjectProcessor<E> objectProcessor, @Nullable Cache<E> readerCache) throws IOException, SolidifierException {
+		assert metrics != null;
+		final long startOffset = offset();
+		final long startTime = timed ? System.nanoTime() : 0L;
+		final E object = objectProcessor.solidify(this, readerCache);
+		final long nanos = timed ? System.nanoTime() - startTime : 0L;
+		metrics.objectRead(objectClass, offset() - startOffset, nanos);
+		return object;
+	}
+
 	@Nullable
 	@Override
 	public <E> E readObject(@Nonnull Class<E> objectClass) throws IOException, SolidifierException {
-		final Pair<ObjectProcessor<?>, Cache<?>> pair = classMap.get(objectClass);
+		final Pair<ObjectProcessor<?>, ManagedCache<?>> pair = classMap.get(objectClass);
 		if (pair == null) throwUnregisteredClass(objectClass);
 		@SuppressWarnings("unchecked") final ObjectProcessor<E> objectProcessor = (ObjectProcessor<E>) pair.getA();
 		@SuppressWarnings("unchecked") final Cache<E> readerCache = (Cache<E>) pair.getB();
-		return objectProcessor.solidify(this, readerCache);
+		return metrics != null
+				? readMeasured(objectClass, objectProcessor, readerCache)
+				: objectProcessor.solidify(this, readerCache);
 	}
 
 	@Nonnull
 	@Override
 	public <E> E[] readObjects(@Nonnull Class<E> objectClass, int size) throws IOException, SolidifierException {
 		if (size <= 0) throwInvalidSize();
-		final Pair<ObjectProcessor<?>, Cache<?>> pair = classMap.get(objectClass);
+		final Pair<ObjectProcessor<?>, ManagedCache<?>> pair = classMap.get(objectClass);
 		if (pair == null) throwUnregisteredClass(objectClass);
 		@SuppressWarnings("unchecked") final ObjectProcessor<E> objectProcessor = (ObjectProcessor<E>) pair.getA();
 		@SuppressWarnings("unchecked") final Cache<E> readerCache = (Cache<E>) pair.getB();
 		@SuppressWarnings("unchecked") final E[] objects = (E[]) Array.newInstance(objectClass, size);
-		for (int i = 0; i < size; i++) {
-			objects[i] = objectProcessor.solidify(this, readerCache);
+		if (metrics != null) {
+			for (int i = 0; i < size; i++) objects[i] = readMeasured(objectClass, objectProcessor, readerCache);
+		} else {
+			for (int i = 0; i < size; i++) objects[i] = objectProcessor.solidify(this, readerCache);
 		}
 		return objects;
 	}
 
-	@Nonnull
-	private byte[] readFromStream(int length) throws IOException {
-		assert length > 0;
-		final byte[] bytes = new byte[length];
-		int index = 0;
+	private void readFromStream(@Nonnull byte[] bytes, int offset, int length) throws IOException {
+		assert stream != null && length > 0;
+		final Object event = FlightRecorder.beginRefill();
+		final int end = offset + length;
 		do {
-			final int count = stream.read(bytes, index, length - index);
+			final int count = stream.read(bytes, offset, end - offset);
 			if (count < 0) throw new EOFException();
-			index += count;
-		} while (index < length);
-		return bytes;
+			offset += count;
+		} while (offset < end);
+		if (event != null) FlightRecorder.endRefill(event, length);
+		this.consumedBytes += length;
+	}
+
+	// a reader cache that can tell how many objects it holds and go back to only its preloaded objects
+	private interface ManagedCache<E> extends Cache<E> {
+		int size();
+
+		// keeps the table capacity, so a reused reader does not grow it again
+		void reset();
+	}
+
+	// The reader side of ObjectWriterImpl.RingCache, slots are taken in the order the writer added the objects.
+	private static final class RingCache<E> implements ManagedCache<E> {
+		@Nonnull private final List<E> preloadObjects;
+		// null for trusted input
+		@Nullable private final Set<E> set;
+		private final int capacity;
+		@Nonnull private Object[] ring;
+		// per slot, the allocation it belongs to, 0 before its first one
+		@Nonnull private long[] allocations;
+		@Nonnull private boolean[] stored;
+		private long allocationCount;
+		private int next;
+		private boolean full;
+
+		RingCache(@Nonnull List<E> preloadObjects, @Nullable Set<E> set, int capacity) {
+			this.preloadObjects = preloadObjects;
+			this.set = set;
+			this.capacity = capacity;
+			final int length = Math.min(capacity, 16);
+			this.ring = new Object[length];
+			this.allocations = new long[length];
+			this.stored = new boolean[length];
+		}
+
+		@Nullable
+		@Override
+		public E get(int index) throws CacheException {
+			final int preloadSize = preloadObjects.size();
+			if (index < preloadSize) {
+				if (index < 0) throw new CacheException("Cache index out of bound.");
+				return preloadObjects.get(index);
+			}
+			final int slot = index - preloadSize;
+			if (slot >= ring.length || allocations[slot] == 0) throw new CacheException("Cache index out of bound.");
+			@SuppressWarnings("unchecked") final E object = (E) ring[slot];
+			return object;
+		}
+
+		@Nonnull
+		@Override
+		public CacheSlot<E> alloc() {
+			final int slot = next;
+			if (slot == ring.length) {
+				final int length = Math.min(capacity, slot << 1);
+				this.ring = Arrays.copyOf(ring, length);
+				this.allocations = Arrays.copyOf(allocations, length);
+				this.stored = Arrays.copyOf(stored, length);
+			} else if (stored[slot]) {
+				// evicted, the writer forgot it when it added the object taking its place
+				if (set != null) set.remove(ring[slot]);
+				ring[slot] = null;
+				stored[slot] = false;
+			}
+			final long allocation = ++this.allocationCount;
+			allocations[slot] = allocation;
+			if (slot + 1 < capacity) {
+				this.next = slot + 1;
+			} else {
+				this.next = 0;
+				this.full = true;
+			}
+			return object -> {
+				// an object whose slot was taken again while it was being read, the writer evicted it as well
+				if (allocations[slot] != allocation) return;
+				if (stored[slot]) throw new CacheException("Cache slot already used.");
+				if (set != null && !set.add(object)) throw new CacheException("Object already existed in cache.");
+				ring[slot] = object;
+				stored[slot] = true;
+			};
+		}
+
+		@Override
+		public int size() {
+			return preloadObjects.size() + (full ? capacity : next);
+		}
+
+		@Override
+		public void reset() {
+			final int used = full ? capacity : next;
+			if (set != null) {
+				for (int slot = 0; slot < used; slot++) {
+					if (stored[slot]) set.remove(ring[slot]);
+				}
+			}
+			Arrays.fill(ring, 0, used, null);
+			Arrays.fill(allocations, 0, used, 0L);
+			Arrays.fill(stored, 0, used, false);
+			this.next = 0;
+			this.full = false;
+		}
 	}
 }
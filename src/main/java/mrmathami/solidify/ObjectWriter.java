@@ -3,52 +3,108 @@ package mrmathami.solidify;
 import mrmathami.annotation.Nonnull;
 import mrmathami.annotation.Nullable;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
+// The slice methods have defaults going through the single value methods, so they write the same bytes as the
+// whole array methods, ObjectWriterImpl copies whole ranges instead.
 public interface ObjectWriter {
 	void writeByte(byte value) throws IOException;
 
 	void writeBytes(@Nonnull byte... values) throws IOException;
 
+	default void writeBytes(@Nonnull byte[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) writeByte(values[index]);
+	}
+
 	void writeShort(short value) throws IOException;
 
 	void writeShorts(@Nonnull short... values) throws IOException;
 
+	default void writeShorts(@Nonnull short[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) writeShort(values[index]);
+	}
+
 	void writePackedShort(short value) throws IOException;
 
 	void writePackedShorts(@Nonnull short... values) throws IOException;
 
+	default void writePackedShorts(@Nonnull short[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) writePackedShort(values[index]);
+	}
+
 	void writeInt(int value) throws IOException;
 
 	void writeInts(@Nonnull int... values) throws IOException;
 
+	default void writeInts(@Nonnull int[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) writeInt(values[index]);
+	}
+
 	void writePackedInt(int value) throws IOException;
 
 	void writePackedInts(@Nonnull int... values) throws IOException;
 
+	default void writePackedInts(@Nonnull int[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) writePackedInt(values[index]);
+	}
+
 	void writeLong(long value) throws IOException;
 
 	void writeLongs(@Nonnull long... values) throws IOException;
 
+	default void writeLongs(@Nonnull long[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) writeLong(values[index]);
+	}
+
 	void writePackedLong(long value) throws IOException;
 
 	void writePackedLongs(@Nonnull long... values) throws IOException;
 
+	default void writePackedLongs(@Nonnull long[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) writePackedLong(values[index]);
+	}
+
 	void writeFloat(float value) throws IOException;
 
 	void writeFloats(@Nonnull float... values) throws IOException;
 
+	default void writeFloats(@Nonnull float[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) writeFloat(values[index]);
+	}
+
 	void writeDouble(double value) throws IOException;
 
 	void writeDoubles(@Nonnull double... values) throws IOException;
 
+	default void writeDoubles(@Nonnull double[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) writeDouble(values[index]);
+	}
+
 	void writeBoolean(boolean value) throws IOException;
 
 	void writePackedBooleans(@Nonnull boolean... values) throws IOException;
 
+	// booleans are packed eight to a byte, so the slice cannot go element by element
+	default void writePackedBooleans(@Nonnull boolean[] values, int offset, int length) throws IOException {
+		writePackedBooleans(Arrays.copyOfRange(values, offset, offset + length));
+	}
+
 	void writeChar(char value) throws IOException;
 
 	void writeChars(@Nonnull char... values) throws IOException;
 
+	default void writeChars(@Nonnull char[] values, int offset, int length) throws IOException {
+		for (int index = offset, end = offset + length; index < end; index++) writeChar(values[index]);
+	}
+
+	// Writes the UTF-8 bytes of the string, without a length, the reader needs the byte count from elsewhere. This is
+	// lossy for malformed strings: an unpaired surrogate is written as '?', like String.getBytes, and reads back as '?'.
+	default void writeUtf8(@Nonnull String value) throws IOException {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > 0) writeBytes(bytes);
+	}
+
 	<E> void writeObject(@Nonnull Class<E> objectClass, @Nullable E object) throws IOException, LiquifierException;
 
 	<E> void writeObjects(@Nonnull Class<E> objectClass, @Nonnull E[] objects) throws IOException, LiquifierException;
@@ -8,33 +8,100 @@ import mrmathami.annotation.Nonnull;
 import mrmathami.annotation.Nullable;
 import mrmathami.util.Pair;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
 final class ObjectWriterImpl implements ObjectWriter {
-	@Nonnull private final Map<Class<?>, Pair<ObjectProcessor<?>, Cache<?>>> classMap;
-	@Nonnull private final OutputStream stream;
+	private static final int BUFFER_SIZE = 8192;
+
+	@Nonnull private final Map<Class<?>, Pair<ObjectProcessor<?>, ManagedCache<?>>> classMap;
+	@Nullable private OutputStream stream;
+	@Nullable private ByteBuffer target;
+	// little-endian, a view of the ByteBuffer target or the staging buffer of the stream
+	@Nonnull private ByteBuffer buffer;
+	// made again only when buffer is replaced
+	@Nullable private LittleEndianViews views;
+	// scratch of the bit packed array processors, made on first use
+	@Nullable private BitWriter bitWriter;
+	private int position;
+	private int limit;
+	// the position last given back to a ByteBuffer target
+	private int flushedPosition;
+	private final boolean compact;
+	@Nullable private final SolidifyMetrics metrics;
+	private final boolean timed;
+	// bytes that left the buffer, the write offset is flushedBytes + position
+	private long flushedBytes;
+
+	public ObjectWriterImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull OutputStream stream, @Nonnull WireFormat wireFormat) {
+		this(objectProcessors, stream, wireFormat, 0, null);
+	}
+
+	// cacheCapacity > 0 bounds every cache to its preloaded objects plus the last cacheCapacity objects added
+	public ObjectWriterImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull OutputStream stream, @Nonnull WireFormat wireFormat, int cacheCapacity, @Nullable SolidifyMetrics metrics) {
+		this.classMap = createClassMap(objectProcessors, cacheCapacity, metrics);
+		this.stream = stream;
+		this.target = null;
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		this.limit = BUFFER_SIZE;
+		this.compact = wireFormat == WireFormat.COMPACT;
+		this.metrics = metrics;
+		this.timed = metrics != null && metrics.isTimed();
+	}
 
-	public ObjectWriterImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull OutputStream stream) {
-		this.classMap = new HashMap<>();
-		this.stream = stream instanceof BufferedOutputStream ? stream : new BufferedOutputStream(stream);
+	public ObjectWriterImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull ByteBuffer target, @Nonnull WireFormat wireFormat) {
+		this(objectProcessors, target, wireFormat, 0, null);
+	}
+
+	public ObjectWriterImpl(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull ByteBuffer target, @Nonnull WireFormat wireFormat, int cacheCapacity, @Nullable SolidifyMetrics metrics) {
+		this.classMap = createClassMap(objectProcessors, cacheCapacity, metrics);
+		// encode straight into the target, heap or direct, its position is updated on flush
+		this.stream = null;
+		this.target = target;
+		this.buffer = target.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		this.position = target.position();
+		this.limit = target.limit();
+		this.flushedPosition = position;
+		this.compact = wireFormat == WireFormat.COMPACT;
+		this.metrics = metrics;
+		this.timed = metrics != null && metrics.isTimed();
+	}
 
+	@Nonnull
+	private static Map<Class<?>, Pair<ObjectProcessor<?>, ManagedCache<?>>> createClassMap(@Nonnull Set<ObjectProcessor<?>> objectProcessors, int cacheCapacity, @Nullable SolidifyMetrics metrics) {
+		final Map<Class<?>, Pair<ObjectProcessor<?>, ManagedCache<?>>> classMap = new HashMap<>();
 		for (final ObjectProcessor<?> objectProcessor : objectProcessors) {
 			final Class<?> objectClass = objectProcessor.getObjectClass();
-			if (classMap.put(objectClass, Pair.immutableOf(objectProcessor, createCache(objectProcessor))) != null) {
+			final ManagedCache<?> cache = metrics != null
+					? createMeasuredCache(objectProcessor, cacheCapacity, metrics)
+					: createCache(objectProcessor, cacheCapacity);
+			if (classMap.put(objectClass, Pair.immutableOf(objectProcessor, cache)) != null) {
 				throw new IllegalArgumentException("Duplicate ObjectProcessor for class: " + objectClass.getName());
 			}
 		}
+		return classMap;
 	}
 
 	private static void throwEmptyValues() {
 		throw new IllegalArgumentException("Values should not be empty.");
 	}
 
+	private static void checkRange(int arrayLength, int offset, int length) {
+		if (length == 0) throwEmptyValues();
+		if ((offset | length) < 0 || offset > arrayLength - length) {
+			throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+					+ ") out of bounds for length " + arrayLength);
+		}
+	}
+
 	private static void throwOutOfRangeValue() {
 		throw new IllegalArgumentException("Value out of range.");
 	}
@@ -44,7 +111,7 @@ final class ObjectWriterImpl implements ObjectWriter {
 	}
 
 	@Nullable
-	private static <E> Cache<E> createCache(@Nonnull ObjectProcessor<E> objectProcessor) {
+	private static <E> ManagedCache<E> createCache(@Nonnull ObjectProcessor<E> objectProcessor, int cacheCapacity) {
 		final ObjectProcessor.CacheType cacheType = objectProcessor.getCacheType();
 		if (cacheType == ObjectProcessor.CacheType.NO_CACHE) return null;
 
@@ -61,7 +128,43 @@ final class ObjectWriterImpl implements ObjectWriter {
 					}
 				}
 			}
-			return object -> map.putIfAbsent(object, map.size());
+			if (cacheCapacity > 0) {
+				return new RingCache<E>(map.size(), cacheCapacity) {
+					@Override
+					int indexOf(@Nullable E object) {
+						return map.getInt(object);
+					}
+
+					@Override
+					void add(@Nullable E object, int index) {
+						map.put(object, index);
+					}
+
+					@Override
+					void remove(@Nullable E object) {
+						map.removeInt(object);
+					}
+				};
+			}
+			return new ManagedCache<E>() {
+				@Override
+				public int putIfAbsent(@Nullable E object) {
+					return map.putIfAbsent(object, map.size());
+				}
+
+				@Override
+				public int size() {
+					return map.size();
+				}
+
+				@Override
+				public void reset() {
+					map.clear();
+					if (preloadObjects != null) {
+						for (int i = 0; i < preloadObjects.length; i++) map.put(preloadObjects[i], i);
+					}
+				}
+			};
 		} else {
 			final Reference2IntMap<E> map = new Reference2IntOpenHashMap<>();
 			map.defaultReturnValue(-1);
@@ -73,249 +176,752 @@ final class ObjectWriterImpl implements ObjectWriter {
 					}
 				}
 			}
-			return object -> map.putIfAbsent(object, map.size());
+			if (cacheCapacity > 0) {
+				return new RingCache<E>(map.size(), cacheCapacity) {
+					@Override
+					int indexOf(@Nullable E object) {
+						return map.getInt(object);
+					}
+
+					@Override
+					void add(@Nullable E object, int index) {
+						map.put(object, index);
+					}
+
+					@Override
+					void remove(@Nullable E object) {
+						map.removeInt(object);
+					}
+				};
+			}
+			return new ManagedCache<E>() {
+				@Override
+				public int putIfAbsent(@Nullable E object) {
+					return map.putIfAbsent(object, map.size());
+				}
+
+				@Override
+				public int size() {
+					return map.size();
+				}
+
+				@Override
+				public void reset() {
+					map.clear();
+					if (preloadObjects != null) {
+						for (int i = 0; i < preloadObjects.length; i++) map.put(preloadObjects[i], i);
+					}
+				}
+			};
 		}
 	}
 
+	@Nullable
+	private static <E> ManagedCache<E> createMeasuredCache(@Nonnull ObjectProcessor<E> objectProcessor, int cacheCapacity, @Nonnull SolidifyMetrics metrics) {
+		final ManagedCache<E> cache = createCache(objectProcessor, cacheCapacity);
+		if (cache == null) return null;
+		final Class<E> objectClass = objectProcessor.getObjectClass();
+		return new ManagedCache<E>() {
+			@Override
+			public int putIfAbsent(@Nullable E object) {
+				final int index = cache.putIfAbsent(object);
+				metrics.cacheLookup(objectClass, index >= 0);
+				return index;
+			}
+
+			@Override
+			public int size() {
+				return cache.size();
+			}
+
+			@Override
+			public void reset() {
+				cache.reset();
+			}
+		};
+	}
+
+	// Starts over on another stream as if newly created, with every cache back to its preloaded objects. Nothing is
+	// flushed, a buffer borrowed from a ByteBuffer target is given back and replaced.
+	void reset(@Nonnull OutputStream stream) {
+		resetCaches();
+		if (target != null) this.buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		this.stream = stream;
+		this.target = null;
+		this.position = 0;
+		this.limit = buffer.capacity();
+		this.flushedBytes = 0L;
+	}
+
+	void reset(@Nonnull ByteBuffer target) {
+		resetCaches();
+		this.stream = null;
+		this.target = target;
+		this.buffer = target.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		this.position = target.position();
+		this.limit = target.limit();
+		this.flushedPosition = position;
+		this.flushedBytes = 0L;
+	}
+
+	private void resetCaches() {
+		for (final Pair<ObjectProcessor<?>, ManagedCache<?>> pair : classMap.values()) {
+			final ManagedCache<?> cache = pair.getB();
+			if (cache != null) cache.reset();
+		}
+	}
+
+	// the number of objects in the cache of a registered class, 0 when it has none
+	int cacheSize(@Nonnull Class<?> objectClass) {
+		final Pair<ObjectProcessor<?>, ManagedCache<?>> pair = classMap.get(objectClass);
+		final ManagedCache<?> cache = pair != null ? pair.getB() : null;
+		return cache != null ? cache.size() : 0;
+	}
+
+	// region //====== Buffer ======
+
+	private void ensureRemaining(int length) throws IOException {
+		if (limit - position < length) flushBuffer(length);
+	}
+
+	private int reserveUnits(int unitSize, int units) throws IOException {
+		ensureRemaining(unitSize);
+		return Math.min(units, (limit - position) / unitSize);
+	}
+
+	@Nonnull
+	private LittleEndianViews views() {
+		final LittleEndianViews views = this.views;
+		if (views != null && views.buffer == buffer) return views;
+		final LittleEndianViews newViews = new LittleEndianViews(buffer);
+		this.views = newViews;
+		return newViews;
+	}
+
+	@Nonnull
+	BitWriter bitWriter() {
+		final BitWriter bitWriter = this.bitWriter;
+		if (bitWriter != null) return bitWriter;
+		final BitWriter newBitWriter = new BitWriter();
+		this.bitWriter = newBitWriter;
+		return newBitWriter;
+	}
+
+	// the write position, the difference between two calls is the number of bytes written in between
+	long offset() {
+		return flushedBytes + position;
+	}
+
+	private void flushBuffer(int length) throws IOException {
+		if (stream == null) throw new BufferOverflowException();
+		if (position > 0) {
+			final Object event = FlightRecorder.beginFlush();
+			stream.write(buffer.array(), 0, position);
+			if (event != null) FlightRecorder.endFlush(event, position);
+			this.flushedBytes += position;
+			this.position = 0;
+		}
+		if (buffer.capacity() < length) {
+			this.buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() << 1)).order(ByteOrder.LITTLE_ENDIAN);
+			this.limit = buffer.capacity();
+		}
+	}
+
+	void flush() throws IOException {
+		if (stream != null) {
+			flushBuffer(0);
+			stream.flush();
+		} else {
+			assert target != null;
+			// only when something was written since, a target cleared after the last flush is left alone
+			if (position != flushedPosition) {
+				((Buffer) target).position(position);
+				this.flushedPosition = position;
+			}
+		}
+	}
+
+	private void putVarInt(int value) throws IOException {
+		ensureRemaining(5);
+		final ByteBuffer buffer = this.buffer;
+		int position = this.position;
+		while ((value & ~0x7F) != 0) {
+			buffer.put(position++, (byte) (value | 0x80));
+			value >>>= 7;
+		}
+		buffer.put(position, (byte) value);
+		this.position = position + 1;
+	}
+
+	private void putVarLong(long value) throws IOException {
+		ensureRemaining(10);
+		final ByteBuffer buffer = this.buffer;
+		int position = this.position;
+		while ((value & ~0x7FL) != 0L) {
+			buffer.put(position++, (byte) (value | 0x80));
+			value >>>= 7;
+		}
+		buffer.put(position, (byte) value);
+		this.position = position + 1;
+	}
+
+	// endregion
+
 	// region //====== Basic write ======
 
 	@Override
 	public void writeByte(byte value) throws IOException {
-		stream.write(value);
+		ensureRemaining(1);
+		buffer.put(position++, value);
 	}
 
 	@Override
 	public void writeBytes(@Nonnull byte... values) throws IOException {
-		if (values.length == 0) throwEmptyValues();
-		stream.write(values);
+		writeBytes(values, 0, values.length);
+	}
+
+	@Override
+	public void writeBytes(@Nonnull byte[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		if (limit - position < length) {
+			flushBuffer(0);
+			if (length >= limit) {
+				final Object event = FlightRecorder.beginFlush();
+				stream.write(values, offset, length);
+				if (event != null) FlightRecorder.endFlush(event, length);
+				this.flushedBytes += length;
+				return;
+			}
+		}
+		views().bytes(position).put(values, offset, length);
+		this.position += length;
 	}
 
 	@Override
 	public void writeShort(short value) throws IOException {
-		stream.write(value);
-		stream.write(value >> 8);
+		ensureRemaining(2);
+		buffer.putShort(position, value);
+		this.position += 2;
 	}
 
 	@Override
 	public void writeShorts(@Nonnull short... values) throws IOException {
-		if (values.length == 0) throwEmptyValues();
-		for (short value : values) writeShort(value);
+		writeShorts(values, 0, values.length);
+	}
+
+	@Override
+	public void writeShorts(@Nonnull short[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = reserveUnits(2, end - index);
+			views().shorts(position).put(values, index, count);
+			this.position += count << 1;
+			index += count;
+		} while (index < end);
 	}
 
 	@Override
 	public void writePackedShort(short value) throws IOException {
 		if (value < (short) -0x80) throwOutOfRangeValue();
+		if (compact) {
+			putVarInt(value << 1 ^ value >> 31);
+			return;
+		}
+		ensureRemaining(2);
+		final ByteBuffer buffer = this.buffer;
+		final int position = this.position;
 		if (value < (short) 0x80) {
-			stream.write(value);
-			if (value < (short) 0) stream.write(0);
+			buffer.put(position, (byte) value);
+			if (value < (short) 0) {
+				buffer.put(position + 1, (byte) 0);
+				this.position = position + 2;
+			} else {
+				this.position = position + 1;
+			}
 		} else {
-			stream.write(value | 0x80);
-			stream.write(value >> 7);
+			buffer.put(position, (byte) (value | 0x80));
+			buffer.put(position + 1, (byte) (value >> 7));
+			this.position = position + 2;
 		}
 	}
 
 	@Override
 	public void writePackedShorts(@Nonnull short... values) throws IOException {
-		if (values.length == 0) throwEmptyValues();
-		for (short value : values) writePackedShort(value);
+		writePackedShorts(values, 0, values.length);
+	}
+
+	@Override
+	public void writePackedShorts(@Nonnull short[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		for (int index = offset, end = offset + length; index < end; index++) writePackedShort(values[index]);
 	}
 
 	@Override
 	public void writeInt(int value) throws IOException {
-		stream.write(value);
-		stream.write(value >> 8);
-		stream.write(value >> 16);
-		stream.write(value >> 24);
+		ensureRemaining(4);
+		buffer.putInt(position, value);
+		this.position += 4;
 	}
 
 	@Override
 	public void writeInts(@Nonnull int... values) throws IOException {
-		if (values.length == 0) throwEmptyValues();
-		for (int value : values) writeInt(value);
+		writeInts(values, 0, values.length);
+	}
+
+	@Override
+	public void writeInts(@Nonnull int[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = reserveUnits(4, end - index);
+			views().ints(position).put(values, index, count);
+			this.position += count << 2;
+			index += count;
+		} while (index < end);
 	}
 
 	@Override
 	public void writePackedInt(int value) throws IOException {
 		if (value < -0x8000) throwOutOfRangeValue();
-		stream.write(value);
+		if (compact) {
+			putVarInt(value << 1 ^ value >> 31);
+			return;
+		}
+		ensureRemaining(4);
+		final ByteBuffer buffer = this.buffer;
+		final int position = this.position;
+		buffer.put(position, (byte) value);
 		if (value < 0x8000) {
-			stream.write(value >> 8);
+			buffer.put(position + 1, (byte) (value >> 8));
 			if (value < 0) {
-				stream.write(0);
-				stream.write(0);
+				buffer.put(position + 2, (byte) 0);
+				buffer.put(position + 3, (byte) 0);
+				this.position = position + 4;
+			} else {
+				this.position = position + 2;
 			}
 		} else {
-			stream.write(value >> 8 | 0x80);
-			stream.write(value >> 15);
-			stream.write(value >> 23);
+			buffer.put(position + 1, (byte) (value >> 8 | 0x80));
+			buffer.put(position + 2, (byte) (value >> 15));
+			buffer.put(position + 3, (byte) (value >> 23));
+			this.position = position + 4;
 		}
 	}
 
 	@Override
 	public void writePackedInts(@Nonnull int... values) throws IOException {
-		if (values.length == 0) throwEmptyValues();
-		for (int value : values) writePackedInt(value);
+		writePackedInts(values, 0, values.length);
+	}
+
+	@Override
+	public void writePackedInts(@Nonnull int[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		for (int index = offset, end = offset + length; index < end; index++) writePackedInt(values[index]);
 	}
 
 	@Override
 	public void writeLong(long value) throws IOException {
-		writeInt((int) value);
-		writeInt((int) (value >> 32));
+		ensureRemaining(8);
+		buffer.putLong(position, value);
+		this.position += 8;
 	}
 
 	@Override
 	public void writeLongs(@Nonnull long... values) throws IOException {
-		if (values.length == 0) throwEmptyValues();
-		for (long value : values) writeLong(value);
+		writeLongs(values, 0, values.length);
+	}
+
+	@Override
+	public void writeLongs(@Nonnull long[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = reserveUnits(8, end - index);
+			views().longs(position).put(values, index, count);
+			this.position += count << 3;
+			index += count;
+		} while (index < end);
 	}
 
 	@Override
 	public void writePackedLong(long value) throws IOException {
 		if (value < -0x80000000L) throwOutOfRangeValue();
+		if (compact) {
+			putVarLong(value << 1 ^ value >> 63);
+			return;
+		}
+		ensureRemaining(8);
+		final ByteBuffer buffer = this.buffer;
+		final int position = this.position;
 		if (value < 0x80000000L) {
-			writeInt((int) value);
+			buffer.put(position, (byte) value);
+			buffer.put(position + 1, (byte) (value >> 8));
+			buffer.put(position + 2, (byte) (value >> 16));
+			buffer.put(position + 3, (byte) (value >> 24));
 			if (value < 0L) {
-				// writeInt(0);
-				stream.write(0);
-				stream.write(0);
-				stream.write(0);
-				stream.write(0);
+				buffer.put(position + 4, (byte) 0);
+				buffer.put(position + 5, (byte) 0);
+				buffer.put(position + 6, (byte) 0);
+				buffer.put(position + 7, (byte) 0);
+				this.position = position + 8;
+			} else {
+				this.position = position + 4;
 			}
 		} else {
-			writeInt((int) (value | 0x80000000L));
-			writeInt((int) (value >> 31));
+			buffer.put(position, (byte) value);
+			buffer.put(position + 1, (byte) (value >> 8));
+			buffer.put(position + 2, (byte) (value >> 16));
+			buffer.put(position + 3, (byte) (value >> 24 | 0x80));
+			buffer.put(position + 4, (byte) (value >> 31));
+			buffer.put(position + 5, (byte) (value >> 39));
+			buffer.put(position + 6, (byte) (value >> 47));
+			buffer.put(position + 7, (byte) (value >> 55));
+			this.position = position + 8;
 		}
 	}
 
 	@Override
 	public void writePackedLongs(@Nonnull long... values) throws IOException {
-		if (values.length == 0) throwEmptyValues();
-		for (long value : values) writePackedLong(value);
+		writePackedLongs(values, 0, values.length);
 	}
 
 	@Override
-	public void writeFloat(float value) throws IOException {
+	public void writePackedLongs(@Nonnull long[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		for (int index = offset, end = offset + length; index < end; index++) writePackedLong(values[index]);
+	}
+
+	private static int putFloat(@Nonnull ByteBuffer buffer, int position, float value) {
 		// 0111 1111 1000 0000 positive infinity
 		// 1111 1111 1000 0000 negative infinity
 		// 0111 1111 1100 0000 NaN
 		// ?000 0000 0??? ???? \
 		// ?... .... .??? ????  | normal double
 		// ?111 1111 0??? ???? /
+		final int leadingBits;
 		if (value == Float.POSITIVE_INFINITY) {
-			writeShort((short) 0x7F80);
+			leadingBits = 0x7F80;
 		} else if (value == Float.NEGATIVE_INFINITY) {
-			writeShort((short) 0xFF80);
+			leadingBits = 0xFF80;
 		} else if (Float.isNaN(value)) {
-			writeShort((short) 0x7FC0);
+			leadingBits = 0x7FC0;
 		} else {
 			final int bits = Float.floatToRawIntBits(value);
 			assert (bits & 0x7F800000) != 0x7F800000;
-			writeShort((short) (bits >> 16));
-			writeShort((short) bits);
+			buffer.putShort(position, (short) (bits >> 16));
+			buffer.putShort(position + 2, (short) bits);
+			return position + 4;
 		}
+		buffer.putShort(position, (short) leadingBits);
+		return position + 2;
+	}
+
+	@Override
+	public void writeFloat(float value) throws IOException {
+		ensureRemaining(4);
+		this.position = putFloat(buffer, position, value);
 	}
 
 	@Override
 	public void writeFloats(@Nonnull float... values) throws IOException {
-		if (values.length == 0) throwEmptyValues();
-		for (float value : values) writeFloat(value);
+		writeFloats(values, 0, values.length);
 	}
 
 	@Override
-	public void writeDouble(double value) throws IOException {
+	public void writeFloats(@Nonnull float[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = reserveUnits(4, end - index);
+			final ByteBuffer buffer = this.buffer;
+			int position = this.position;
+			for (final int chunkEnd = index + count; index < chunkEnd; index++) {
+				position = putFloat(buffer, position, values[index]);
+			}
+			this.position = position;
+		} while (index < end);
+	}
+
+	private static int putDouble(@Nonnull ByteBuffer buffer, int position, double value) {
 		// 0111 1111 1111 0000 positive infinity
 		// 1111 1111 1111 0000 negative infinity
 		// 0111 1111 1111 1000 NaN
 		// ?000 0000 0000 ???? \
 		// ?... .... .... ????  | normal double
 		// ?111 1111 1110 ???? /
+		final int leadingBits;
 		if (value == Double.POSITIVE_INFINITY) {
-			writeShort((short) 0x7FF0);
+			leadingBits = 0x7FF0;
 		} else if (value == Double.NEGATIVE_INFINITY) {
-			writeShort((short) 0xFFF0);
+			leadingBits = 0xFFF0;
 		} else if (Double.isNaN(value)) {
-			writeShort((short) 0x7FF8);
+			leadingBits = 0x7FF8;
 		} else {
 			final long bits = Double.doubleToRawLongBits(value);
 			assert (bits & 0x7FF0000000000000L) != 0x7FF0000000000000L;
-			writeShort((short) (bits >> 48));
-			writeShort((short) (bits >> 32));
-			writeInt((int) bits);
+			buffer.putShort(position, (short) (bits >> 48));
+			buffer.putShort(position + 2, (short) (bits >> 32));
+			buffer.putInt(position + 4, (int) bits);
+			return position + 8;
 		}
+		buffer.putShort(position, (short) leadingBits);
+		return position + 2;
+	}
+
+	@Override
+	public void writeDouble(double value) throws IOException {
+		ensureRemaining(8);
+		this.position = putDouble(buffer, position, value);
 	}
 
 	@Override
 	public void writeDoubles(@Nonnull double... values) throws IOException {
-		if (values.length == 0) throwEmptyValues();
-		for (double value : values) writeDouble(value);
+		writeDoubles(values, 0, values.length);
+	}
+
+	@Override
+	public void writeDoubles(@Nonnull double[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = reserveUnits(8, end - index);
+			final ByteBuffer buffer = this.buffer;
+			int position = this.position;
+			for (final int chunkEnd = index + count; index < chunkEnd; index++) {
+				position = putDouble(buffer, position, values[index]);
+			}
+			this.position = position;
+		} while (index < end);
 	}
 
 	@Override
 	public void writeBoolean(boolean value) throws IOException {
-		stream.write(value ? 0x80 : 0);
+		ensureRemaining(1);
+		buffer.put(position++, (byte) (value ? 0x80 : 0));
 	}
 
 	@Override
 	public void writePackedBooleans(@Nonnull boolean... values) throws IOException {
-		final int size = values.length;
-		if (size == 0) throwEmptyValues();
-
-		final int length = size + 7 >> 3;
-		final byte[] buffer = new byte[length];
-		int vi = 7, bi = 0;
-		while (vi < size) {
-			buffer[bi++] = (byte) ((values[vi - 7] ? 0x80 : 0)
-					| (values[vi - 6] ? 0x40 : 0)
-					| (values[vi - 5] ? 0x20 : 0)
-					| (values[vi - 4] ? 0x10 : 0)
-					| (values[vi - 3] ? 0x08 : 0)
-					| (values[vi - 2] ? 0x04 : 0)
-					| (values[vi - 1] ? 0x02 : 0)
-					| (values[vi] ? 0x01 : 0));
-			vi += 8;
+		writePackedBooleans(values, 0, values.length);
+	}
+
+	@Override
+	public void writePackedBooleans(@Nonnull boolean[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+
+		final int end = offset + length;
+		final int packedLength = length >> 3;
+		int vi = offset, bi = 0;
+		while (bi < packedLength) {
+			final int count = reserveUnits(1, packedLength - bi);
+			final ByteBuffer buffer = this.buffer;
+			int position = this.position;
+			for (final int chunkEnd = bi + count; bi < chunkEnd; bi++) {
+				buffer.put(position++, (byte) ((values[vi] ? 0x80 : 0)
+						| (values[vi + 1] ? 0x40 : 0)
+						| (values[vi + 2] ? 0x20 : 0)
+						| (values[vi + 3] ? 0x10 : 0)
+						| (values[vi + 4] ? 0x08 : 0)
+						| (values[vi + 5] ? 0x04 : 0)
+						| (values[vi + 6] ? 0x02 : 0)
+						| (values[vi + 7] ? 0x01 : 0)));
+				vi += 8;
+			}
+			this.position = position;
 		}
-		if (bi < length) {
-			vi -= 7;
-			int value = 0, mask = (byte) 0x80;
+		if (vi < end) {
+			int value = 0, mask = 0x80;
 			do {
 				value |= values[vi++] ? mask : 0;
 				mask >>= 1;
-			} while (vi < size);
-			buffer[bi] = (byte) value;
+			} while (vi < end);
+			writeByte((byte) value);
 		}
-		stream.write(buffer);
 	}
 
 	@Override
 	public void writeChar(char value) throws IOException {
-		stream.write(value);
-		stream.write(value >> 8);
+		ensureRemaining(2);
+		buffer.putChar(position, value);
+		this.position += 2;
 	}
 
 	@Override
 	public void writeChars(@Nonnull char... values) throws IOException {
-		if (values.length == 0) throwEmptyValues();
-		for (char value : values) writeChar(value);
+		writeChars(values, 0, values.length);
+	}
+
+	@Override
+	public void writeChars(@Nonnull char[] values, int offset, int length) throws IOException {
+		checkRange(values.length, offset, length);
+		final int end = offset + length;
+		int index = offset;
+		do {
+			final int count = reserveUnits(2, end - index);
+			views().chars(position).put(values, index, count);
+			this.position += count << 1;
+			index += count;
+		} while (index < end);
+	}
+
+	@Override
+	public void writeUtf8(@Nonnull String value) throws IOException {
+		final int length = value.length();
+		int index = 0;
+		while (index < length) {
+			// reserve the worst case of a code point per char, so surrogate pairs always fit
+			final int count = reserveUnits(4, length - index);
+			final ByteBuffer buffer = this.buffer;
+			int position = this.position;
+			final int end = index + count;
+			while (index < end) {
+				final char c = value.charAt(index);
+				if (c >= 0x80) break;
+				buffer.put(position++, (byte) c);
+				index += 1;
+			}
+			while (index < end) {
+				final char c = value.charAt(index++);
+				if (c < 0x80) {
+					buffer.put(position++, (byte) c);
+				} else if (c < 0x800) {
+					buffer.put(position, (byte) (0xC0 | c >> 6));
+					buffer.put(position + 1, (byte) (0x80 | c & 0x3F));
+					position += 2;
+				} else if (!Character.isSurrogate(c)) {
+					buffer.put(position, (byte) (0xE0 | c >> 12));
+					buffer.put(position + 1, (byte) (0x80 | c >> 6 & 0x3F));
+					buffer.put(position + 2, (byte) (0x80 | c & 0x3F));
+					position += 3;
+				} else if (Character.isHighSurrogate(c) && index < length
+						&& Character.isLowSurrogate(value.charAt(index))) {
+					final int codePoint = Character.toCodePoint(c, value.charAt(index++));
+					buffer.put(position, (byte) (0xF0 | codePoint >> 18));
+					buffer.put(position + 1, (byte) (0x80 | codePoint >> 12 & 0x3F));
+					buffer.put(position + 2, (byte) (0x80 | codePoint >> 6 & 0x3F));
+					buffer.put(position + 3, (byte) (0x80 | codePoint & 0x3F));
+					position += 4;
+				} else {
+					// unpaired surrogate, same replacement as String.getBytes
+					buffer.put(position++, (byte) '?');
+				}
+			}
+			this.position = position;
+		}
 	}
 
 	// endregion
 
+	private <E> void writeMeasured(@Nonnull Class<E> objectClass, @Nonnull ObjectProcessor<E> objectProcessor, @Nullable Cache<E> writerCache, @Nullable E object) throws IOException, LiquifierException {
+		assert metrics != null;
+		final long startOffset = offset();
+		final long startTime = timed ? System.nanoTime() : 0L;
+		objectProcessor.liquify(this, writerCache, object);
+		final long nanos = timed ? System.nanoTime() - startTime : 0L;
+		metrics.objectWritten(objectClass, offset() - startOffset, nanos);
+	}
+
 	@Override
 	public <E> void writeObject(@Nonnull Class<E> objectClass, @Nullable E object) throws IOException, LiquifierException {
-		final Pair<ObjectProcessor<?>, Cache<?>> pair = classMap.get(objectClass);
+		final Pair<ObjectProcessor<?>, ManagedCache<?>> pair = classMap.get(objectClass);
 		if (pair == null) throwUnregisteredClass(objectClass);
 		@SuppressWarnings("unchecked") final ObjectProcessor<E> objectProcessor = (ObjectProcessor<E>) pair.getA();
 		@SuppressWarnings("unchecked") final Cache<E> writerCache = (Cache<E>) pair.getB();
-		objectProcessor.liquify(this, writerCache, object);
+		if (metrics != null) {
+			writeMeasured(objectClass, objectProcessor, writerCache, object);
+		} else {
+			objectProcessor.liquify(this, writerCache, object);
+		}
 	}
 
 	@Override
 	public <E> void writeObjects(@Nonnull Class<E> objectClass, @Nonnull E[] objects) throws IOException, LiquifierException {
 		if (objects.length <= 0) throwEmptyValues();
-		final Pair<ObjectProcessor<?>, Cache<?>> pair = classMap.get(objectClass);
+		final Pair<ObjectProcessor<?>, ManagedCache<?>> pair = classMap.get(objectClass);
 		if (pair == null) throwUnregisteredClass(objectClass);
 		@SuppressWarnings("unchecked") final ObjectProcessor<E> objectProcessor = (ObjectProcessor<E>) pair.getA();
 		@SuppressWarnings("unchecked") final Cache<E> writerCache = (Cache<E>) pair.getB();
-		for (final E object : objects) objectProcessor.liquify(this, writerCache, object);
+		if (metrics != null) {
+			for (final E object : objects) writeMeasured(objectClass, objectProcessor, writerCache, object);
+		} else {
+			for (final E object : objects) objectProcessor.liquify(this, writerCache, object);
+		}
+	}
+
+	// a writer cache that can tell how many objects it holds and go back to only its preloaded objects
+	private interface ManagedCache<E> extends Cache<E> {
+		int size();
+
+		// keeps the table capacity, so a reused writer does not grow it again
+		void reset();
+	}
+
+	// The preloaded objects, which are never evicted, then a ring of cacheCapacity slots. A new object takes the next
+	// slot and evicts the one in it, ObjectReaderImpl allocates its slots in the same order, so indices always agree.
+	private abstract static class RingCache<E> implements ManagedCache<E> {
+		private final int preloadSize;
+		private final int capacity;
+		// grown up to capacity as needed, a bound that is never reached costs no memory
+		@Nonnull private Object[] ring;
+		private int next;
+		private boolean full;
+
+		RingCache(int preloadSize, int capacity) {
+			this.preloadSize = preloadSize;
+			this.capacity = capacity;
+			this.ring = new Object[Math.min(capacity, 16)];
+		}
+
+		abstract int indexOf(@Nullable E object);
+
+		abstract void add(@Nullable E object, int index);
+
+		abstract void remove(@Nullable E object);
+
+		@Override
+		public final int putIfAbsent(@Nullable E object) {
+			final int index = indexOf(object);
+			if (index >= 0) return index;
+			final int slot = next;
+			if (full) {
+				@SuppressWarnings("unchecked") final E evicted = (E) ring[slot];
+				remove(evicted);
+			} else if (slot == ring.length) {
+				this.ring = Arrays.copyOf(ring, Math.min(capacity, slot << 1));
+			}
+			ring[slot] = object;
+			add(object, preloadSize + slot);
+			if (slot + 1 < capacity) {
+				this.next = slot + 1;
+			} else {
+				this.next = 0;
+				this.full = true;
+			}
+			return -1;
+		}
+
+		@Override
+		public final int size() {
+			return preloadSize + (full ? capacity : next);
+		}
+
+		// the preloaded objects are never in the ring, removing the ring objects leaves exactly them
+		@Override
+		public final void reset() {
+			final int used = full ? capacity : next;
+			for (int slot = 0; slot < used; slot++) {
+				@SuppressWarnings("unchecked") final E object = (E) ring[slot];
+				remove(object);
+			}
+			Arrays.fill(ring, 0, used, null);
+			this.next = 0;
+			this.full = false;
+		}
 	}
 }
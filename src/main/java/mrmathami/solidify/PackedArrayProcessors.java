@@ -0,0 +1,147 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+
+import java.io.IOException;
+
+final class PackedIntArrayProcessor extends CachedArrayProcessor<int[]> {
+	private static final int BLOCK_SIZE = 128;
+
+	private final boolean delta;
+
+	PackedIntArrayProcessor(boolean delta) {
+		super(int[].class);
+		this.delta = delta;
+	}
+
+	@Override
+	int length(@Nonnull int[] array) {
+		return array.length;
+	}
+
+	@Override
+	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull int[] array) throws IOException {
+		final int length = array.length;
+		final int start = delta ? 1 : 0;
+		if (delta) objectWriter.writeInt(array[0]);
+
+		final BitWriter bitWriter = BitWriter.of(objectWriter);
+		for (int from = start; from < length; from += BLOCK_SIZE) {
+			final int to = Math.min(from + BLOCK_SIZE, length);
+			int minimum = Integer.MAX_VALUE;
+			int maximum = Integer.MIN_VALUE;
+			for (int index = from; index < to; index++) {
+				final int value = delta ? array[index] - array[index - 1] : array[index];
+				if (value < minimum) minimum = value;
+				if (value > maximum) maximum = value;
+			}
+			final int width = BitWriter.width((long) maximum - minimum);
+			objectWriter.writeByte((byte) width);
+			objectWriter.writeInt(minimum);
+			if (width == 0) continue;
+			if (delta) {
+				for (int index = from; index < to; index++) bitWriter.write((array[index] - array[index - 1] - minimum) & 0xFFFFFFFFL, width);
+			} else {
+				for (int index = from; index < to; index++) bitWriter.write((array[index] - minimum) & 0xFFFFFFFFL, width);
+			}
+			bitWriter.writeTo(objectWriter);
+		}
+	}
+
+	@Nonnull
+	@Override
+	protected int[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
+		final int[] array = new int[length];
+		final int start = delta ? 1 : 0;
+		int previous = delta ? objectReader.readInt() : 0;
+		if (delta) array[0] = previous;
+
+		final BitReader bitReader = BitReader.of(objectReader);
+		final long[] block = bitReader.values(BLOCK_SIZE);
+		for (int from = start; from < length; from += BLOCK_SIZE) {
+			final int count = Math.min(BLOCK_SIZE, length - from);
+			final int width = objectReader.readUnsignedByte();
+			if (width > 32) throw new IOException("Invalid input data.");
+			final int minimum = objectReader.readInt();
+			bitReader.readFrom(objectReader, width * count);
+			bitReader.read(block, count, width);
+			if (delta) {
+				for (int index = 0; index < count; index++) array[from + index] = previous += minimum + (int) block[index];
+			} else {
+				for (int index = 0; index < count; index++) array[from + index] = minimum + (int) block[index];
+			}
+		}
+		return array;
+	}
+}
+
+final class PackedLongArrayProcessor extends CachedArrayProcessor<long[]> {
+	private static final int BLOCK_SIZE = 128;
+
+	private final boolean delta;
+
+	PackedLongArrayProcessor(boolean delta) {
+		super(long[].class);
+		this.delta = delta;
+	}
+
+	@Override
+	int length(@Nonnull long[] array) {
+		return array.length;
+	}
+
+	@Override
+	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull long[] array) throws IOException {
+		final int length = array.length;
+		final int start = delta ? 1 : 0;
+		if (delta) objectWriter.writeLong(array[0]);
+
+		final BitWriter bitWriter = BitWriter.of(objectWriter);
+		for (int from = start; from < length; from += BLOCK_SIZE) {
+			final int to = Math.min(from + BLOCK_SIZE, length);
+			long minimum = Long.MAX_VALUE;
+			long maximum = Long.MIN_VALUE;
+			for (int index = from; index < to; index++) {
+				final long value = delta ? array[index] - array[index - 1] : array[index];
+				if (value < minimum) minimum = value;
+				if (value > maximum) maximum = value;
+			}
+			final int width = BitWriter.width(maximum - minimum);
+			objectWriter.writeByte((byte) width);
+			objectWriter.writeLong(minimum);
+			if (width == 0) continue;
+			if (delta) {
+				for (int index = from; index < to; index++) bitWriter.write(array[index] - array[index - 1] - minimum, width);
+			} else {
+				for (int index = from; index < to; index++) bitWriter.write(array[index] - minimum, width);
+			}
+			bitWriter.writeTo(objectWriter);
+		}
+	}
+
+	@Nonnull
+	@Override
+	protected long[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
+		final long[] array = new long[length];
+		final int start = delta ? 1 : 0;
+		long previous = delta ? objectReader.readLong() : 0L;
+		if (delta) array[0] = previous;
+
+		final BitReader bitReader = BitReader.of(objectReader);
+		final long[] block = bitReader.values(BLOCK_SIZE);
+		for (int from = start; from < length; from += BLOCK_SIZE) {
+			final int count = Math.min(BLOCK_SIZE, length - from);
+			final int width = objectReader.readUnsignedByte();
+			if (width > 64) throw new IOException("Invalid input data.");
+			final long minimum = objectReader.readLong();
+			bitReader.readFrom(objectReader, width * count);
+			bitReader.read(block, count, width);
+			if (delta) {
+				for (int index = 0; index < count; index++) array[from + index] = previous += minimum + block[index];
+			} else {
+				for (int index = 0; index < count; index++) array[from + index] = minimum + block[index];
+			}
+		}
+		return array;
+	}
+}
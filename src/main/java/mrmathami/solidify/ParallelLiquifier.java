@@ -0,0 +1,198 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Cuts the stream into frames of objects, each encoded with its own caches on a ForkJoinPool and written in order.
+// Frame: [int payloadLength][int objectCount][payload], little endian. With compression the payload is block framed.
+// Objects are encoded after liquify returns, so they must not be changed until the next flush, and a failure while
+// encoding a frame is thrown from a later liquify, flush or close. A failed frame is never skipped, it stays first in
+// line and fails every later write, so the frames that made it to the stream are always a complete prefix.
+public final class ParallelLiquifier implements Flushable, Closeable {
+	static final int FRAME_HEADER_SIZE = 8;
+
+	private static final int DEFAULT_FRAME_OBJECTS = 4096;
+
+	@Nonnull private final Set<ObjectProcessor<?>> objectProcessors;
+	@Nonnull private final OutputStream stream;
+	@Nonnull private final WireFormat wireFormat;
+	@Nonnull private final Compression compression;
+	@Nonnull private final ForkJoinPool pool;
+	@Nullable private final SolidifyMetrics metrics;
+	private final int frameObjects;
+	private final int maxPendingFrames;
+	@Nonnull private final ArrayDeque<ForkJoinTask<EncodedFrame>> pendingFrames = new ArrayDeque<>();
+	@Nonnull private final byte[] frameHeader = new byte[FRAME_HEADER_SIZE];
+
+	@Nonnull private Class<?>[] classes;
+	@Nonnull private Object[] objects;
+	private int count;
+	// the stream header goes out with the first frame or flush, so that constructors do not throw
+	private boolean headerWritten;
+	private boolean closed;
+
+	public ParallelLiquifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull OutputStream stream) {
+		this(objectProcessors, stream, LiquifierOptions.DEFAULT, DEFAULT_FRAME_OBJECTS, ForkJoinPool.commonPool());
+	}
+
+	// Every frame has caches of its own that never outgrow it, so a cache capacity is refused. The metrics are called
+	// from the pool threads, bytes are counted within the frame payload. Async buffers move the writes of finished
+	// frames to a background thread.
+	public ParallelLiquifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull OutputStream stream, @Nonnull LiquifierOptions options, int frameObjects, @Nonnull ForkJoinPool pool) {
+		if (frameObjects <= 0) throw new IllegalArgumentException("Invalid frame size.");
+		if (options.cacheCapacity > 0) throw new IllegalArgumentException("Frames cannot have a cache capacity.");
+		this.objectProcessors = objectProcessors;
+		this.stream = options.asyncBuffers > 0 ? new AsyncOutputStream(stream, options.asyncBuffers) : stream;
+		this.wireFormat = options.wireFormat;
+		this.compression = options.compression;
+		this.pool = pool;
+		this.metrics = options.metrics;
+		this.frameObjects = frameObjects;
+		this.maxPendingFrames = pool.getParallelism() * 2;
+		this.classes = new Class<?>[frameObjects];
+		this.objects = new Object[frameObjects];
+	}
+
+	public <E> void liquify(@Nonnull Class<E> objectClass, @Nullable E object) throws IOException, LiquifierException {
+		if (closed) throw new IllegalStateException("Cannot liquify into a closed ParallelLiquifier.");
+		classes[count] = objectClass;
+		objects[count] = object;
+		if (++count == frameObjects) submitFrame();
+	}
+
+	// ends the current frame and waits until every frame is written
+	@Override
+	public void flush() throws IOException {
+		try {
+			if (count > 0) submitFrame();
+			while (!pendingFrames.isEmpty()) writeOldestFrame();
+		} catch (LiquifierException exception) {
+			throw new IOException(exception);
+		}
+		writeHeader();
+		stream.flush();
+	}
+
+	// Writes every pending frame and closes the stream. On a failed frame the frames after it are still waited for,
+	// so no encoding outlives the liquifier, and the first failure is thrown.
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+		this.closed = true;
+		try {
+			flush();
+		} finally {
+			for (ForkJoinTask<EncodedFrame> task; (task = pendingFrames.poll()) != null; ) task.quietlyJoin();
+			stream.close();
+		}
+	}
+
+	private void submitFrame() throws IOException, LiquifierException {
+		final Set<ObjectProcessor<?>> objectProcessors = this.objectProcessors;
+		final WireFormat wireFormat = this.wireFormat;
+		final Compression compression = this.compression;
+		final SolidifyMetrics metrics = this.metrics;
+		final Class<?>[] classes = this.classes;
+		final Object[] objects = this.objects;
+		final int count = this.count;
+		pendingFrames.add(pool.submit(() -> encodeFrame(objectProcessors, wireFormat, compression, metrics, classes, objects, count)));
+		this.classes = new Class<?>[frameObjects];
+		this.objects = new Object[frameObjects];
+		this.count = 0;
+
+		// write whatever is done in order, and block on the oldest frame once too many are in flight
+		while (!pendingFrames.isEmpty() && (pendingFrames.size() > maxPendingFrames || pendingFrames.peek().isDone())) {
+			writeOldestFrame();
+		}
+	}
+
+	private void writeHeader() throws IOException {
+		if (headerWritten) return;
+		this.headerWritten = true;
+		new StreamHeader(wireFormat, compression.isFramed(), true).write(stream);
+	}
+
+	// the frame only leaves the queue once written, the header goes first even when the frame failed
+	private void writeOldestFrame() throws IOException, LiquifierException {
+		final ForkJoinTask<EncodedFrame> task = pendingFrames.peek();
+		assert task != null;
+		writeHeader();
+		writeFrame(task);
+		pendingFrames.poll();
+	}
+
+	// a checked failure comes back in the frame, the pool would only hand it back wrapped in a RuntimeException
+	@Nonnull
+	private static EncodedFrame encodeFrame(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull WireFormat wireFormat, @Nonnull Compression compression, @Nullable SolidifyMetrics metrics, @Nonnull Class<?>[] classes, @Nonnull Object[] objects, int count) {
+		final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		try {
+			final OutputStream frameStream = compression.wrap(payload);
+			final ObjectWriterImpl objectWriter = new ObjectWriterImpl(objectProcessors, frameStream, wireFormat, 0, metrics);
+			for (int i = 0; i < count; i++) {
+				@SuppressWarnings("unchecked") final Class<Object> objectClass = (Class<Object>) classes[i];
+				objectWriter.writeObject(objectClass, objects[i]);
+			}
+			objectWriter.flush();
+			frameStream.close();
+		} catch (IOException | LiquifierException exception) {
+			return new EncodedFrame(payload, count, exception);
+		}
+		return new EncodedFrame(payload, count, null);
+	}
+
+	private void writeFrame(@Nonnull ForkJoinTask<EncodedFrame> task) throws IOException, LiquifierException {
+		final EncodedFrame frame;
+		try {
+			frame = task.get();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException exception) {
+			final Throwable cause = exception.getCause();
+			if (cause instanceof IOException) throw (IOException) cause;
+			if (cause instanceof LiquifierException) throw (LiquifierException) cause;
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IOException(cause);
+		}
+		if (frame.failure instanceof IOException) throw (IOException) frame.failure;
+		if (frame.failure instanceof LiquifierException) throw (LiquifierException) frame.failure;
+		final byte[] frameHeader = this.frameHeader;
+		final int payloadLength = frame.payload.size();
+		final int objectCount = frame.objectCount;
+		frameHeader[0] = (byte) payloadLength;
+		frameHeader[1] = (byte) (payloadLength >> 8);
+		frameHeader[2] = (byte) (payloadLength >> 16);
+		frameHeader[3] = (byte) (payloadLength >> 24);
+		frameHeader[4] = (byte) objectCount;
+		frameHeader[5] = (byte) (objectCount >> 8);
+		frameHeader[6] = (byte) (objectCount >> 16);
+		frameHeader[7] = (byte) (objectCount >> 24);
+		stream.write(frameHeader);
+		frame.payload.writeTo(stream);
+	}
+
+	private static final class EncodedFrame {
+		@Nonnull final ByteArrayOutputStream payload;
+		final int objectCount;
+		// an IOException or LiquifierException, the frame is not written then
+		@Nullable final Exception failure;
+
+		EncodedFrame(@Nonnull ByteArrayOutputStream payload, int objectCount, @Nullable Exception failure) {
+			this.payload = payload;
+			this.objectCount = objectCount;
+			this.failure = failure;
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Reads objects of one class on a background thread, up to prefetchObjects ahead of the consumer, until the input ends.
+// The solidifier belongs to the background thread from construction on and must not be used directly anymore.
+// Objects are handed over in batches, one queue handoff per object costs more than decoding a small object.
+public final class PrefetchingSolidifier<E> implements Iterator<E>, Closeable {
+	private static final int MAX_BATCH_SIZE = 64;
+	private static final long CLOSE_TIMEOUT_MILLIS = 1000L;
+	// how often a reader thread waiting on a full queue looks for close
+	private static final long OFFER_TIMEOUT_MILLIS = 100L;
+	// stands in for null objects in a batch
+	@Nonnull private static final Object NULL = new Object();
+
+	@Nonnull private final Solidifier solidifier;
+	@Nonnull private final Class<E> objectClass;
+	private final int batchSize;
+	// full batches of objects, then an End
+	@Nonnull private final BlockingQueue<Object> queue;
+	@Nonnull private final Thread readerThread;
+	private volatile boolean closed;
+	// the batch being consumed, or the End once every batch is
+	@Nullable private Object current;
+	private int index;
+
+	public PrefetchingSolidifier(@Nonnull Solidifier solidifier, @Nonnull Class<E> objectClass, int prefetchObjects) {
+		if (prefetchObjects <= 0) throw new IllegalArgumentException("Invalid prefetch size.");
+		this.solidifier = solidifier;
+		this.objectClass = objectClass;
+		this.batchSize = Math.min(prefetchObjects, MAX_BATCH_SIZE);
+		this.queue = new ArrayBlockingQueue<>(Math.max(prefetchObjects / batchSize, 1));
+		this.readerThread = new Thread(this::prefetch, "solidify-prefetch");
+		readerThread.setDaemon(true);
+		readerThread.start();
+	}
+
+	// region //====== Reader thread ======
+
+	private void prefetch() {
+		Object[] batch = new Object[batchSize];
+		int count = 0;
+		try {
+			try {
+				while (!closed) {
+					if (solidifier.atEnd()) break;
+					final E object = solidifier.solidify(objectClass);
+					batch[count++] = object != null ? object : NULL;
+					if (count == batchSize) {
+						if (!handOff(batch)) return;
+						batch = new Object[batchSize];
+						count = 0;
+					}
+				}
+				if (closed) return;
+				if (count > 0 && !handOff(Arrays.copyOf(batch, count))) return;
+				handOff(End.END);
+			} catch (IOException | SolidifierException | RuntimeException | Error exception) {
+				if (closed) return;
+				// the objects before the failure are still delivered
+				if (count > 0 && !handOff(Arrays.copyOf(batch, count))) return;
+				handOff(new End(exception));
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// false once closed, the wait on a full queue is in steps so close never has to interrupt the thread
+	private boolean handOff(@Nonnull Object element) throws InterruptedException {
+		while (!closed) {
+			if (queue.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) return true;
+		}
+		return false;
+	}
+
+	// endregion //====== Reader thread ======
+
+	// region //====== Consumer thread ======
+
+	// the batch holding the next object, or the End
+	@Nonnull
+	private Object peek() throws IOException {
+		if (closed) throw new IOException("Solidifier closed.");
+		final Object current = this.current;
+		if (current != null && (current instanceof End || index < ((Object[]) current).length)) return current;
+		try {
+			this.index = 0;
+			return this.current = queue.take();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+	}
+
+	// blocks until the next object is decoded, throws EOFException at the end of the input
+	@Nullable
+	public E solidify() throws IOException, SolidifierException {
+		final Object current = peek();
+		if (current instanceof End) {
+			final Throwable failure = ((End) current).failure;
+			if (failure == null) throw new EOFException();
+			if (failure instanceof IOException) throw (IOException) failure;
+			if (failure instanceof SolidifierException) throw (SolidifierException) failure;
+			if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+			throw (Error) failure;
+		}
+		final Object object = ((Object[]) current)[index++];
+		return object != NULL ? objectClass.cast(object) : null;
+	}
+
+	@Override
+	public boolean hasNext() {
+		try {
+			final Object current = peek();
+			return !(current instanceof End) || ((End) current).failure != null;
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	@Nullable
+	@Override
+	public E next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		try {
+			return solidify();
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		} catch (SolidifierException exception) {
+			throw new UncheckedIOException(new IOException(exception));
+		}
+	}
+
+	// Stops the reader thread, the input is not closed. The thread is not interrupted, which would close an
+	// interruptible channel it reads from, the queue is drained instead so it leaves a full queue at once and
+	// otherwise stops at its next handoff. A thread still decoding or waiting on its input after the join runs out is
+	// left to stop on its own.
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+		this.closed = true;
+		this.current = null;
+		queue.clear();
+		try {
+			readerThread.join(CLOSE_TIMEOUT_MILLIS);
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} finally {
+			queue.clear();
+		}
+	}
+
+	// endregion //====== Consumer thread ======
+
+	// the last element of the queue, a clean end of input or the failure that stopped the reader thread
+	private static final class End {
+		@Nonnull static final End END = new End(null);
+
+		@Nullable final Throwable failure;
+
+		End(@Nullable Throwable failure) {
+			this.failure = failure;
+		}
+	}
+}
@@ -4,19 +4,205 @@ import mrmathami.annotation.Nonnull;
 import mrmathami.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class Solidifier {
-	@Nonnull
-	private final ObjectReader objectReader;
+	@Nonnull private final Set<ObjectProcessor<?>> objectProcessors;
+	@Nonnull private final SolidifierOptions options;
+	// frame streams get a frameReader, which makes a new reader for every frame, the others read with objectReader
+	// and a reset may reuse it if its cache capacity matches
+	@Nullable private ObjectReaderImpl objectReader;
+	@Nullable private FrameReader frameReader;
+	private int cacheCapacity;
+	// kept across resets for its buffers and inflater
+	@Nullable private BlockInputStream blockStream;
+	// the input given to a constructor, its header is only read on first use so that constructors do not throw
+	@Nullable private InputStream pendingStream;
+	@Nullable private ByteBuffer pendingBuffer;
+	// the header of the current input was read, a failed reset leaves it false so no read goes to the previous input
+	private boolean ready;
 
 	public Solidifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull InputStream stream) {
-		this.objectReader = new ObjectReaderImpl(objectProcessors, stream);
+		this(objectProcessors, stream, SolidifierOptions.DEFAULT);
+	}
+
+	public Solidifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull InputStream stream, @Nonnull SolidifierOptions options) {
+		this.objectProcessors = objectProcessors;
+		this.options = options;
+		this.pendingStream = stream;
+	}
+
+	public Solidifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull ByteBuffer buffer) {
+		this(objectProcessors, buffer, SolidifierOptions.DEFAULT);
+	}
+
+	public Solidifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull ByteBuffer buffer, @Nonnull SolidifierOptions options) {
+		this.objectProcessors = objectProcessors;
+		this.options = options;
+		this.pendingBuffer = buffer.duplicate();
+	}
+
+	public Solidifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull FileChannel channel) throws IOException {
+		this(objectProcessors, channel, SolidifierOptions.DEFAULT);
+	}
+
+	// Maps the rest of the file and reads it in place, the mappings live as long as the Solidifier. A file larger than
+	// one mapping, 2 GB, is mapped a window at a time, which needs the channel open until the last window. The channel
+	// position is not moved.
+	public Solidifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull FileChannel channel, @Nonnull SolidifierOptions options) throws IOException {
+		this(objectProcessors, channel, options, MappedFile.MAX_WINDOW_SIZE);
+	}
+
+	// the window size is only smaller in tests
+	Solidifier(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull FileChannel channel, @Nonnull SolidifierOptions options, int windowSize) throws IOException {
+		this.objectProcessors = objectProcessors;
+		this.options = options;
+		final long position = channel.position();
+		final long size = channel.size() - position;
+		if (size <= windowSize) {
+			reset(channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+		} else {
+			reset(new MappedFile(channel, channel.size(), windowSize), position);
+		}
+	}
+
+	// Starts over on another input, which begins with its own header, as if newly created on it. The caches of the
+	// previous reader only go back to their preloaded objects, keeping their table capacity, and the buffers are
+	// kept, unless the new input was written with another cache capacity. The previous input is not closed.
+	public void reset(@Nonnull InputStream stream) throws IOException {
+		this.pendingStream = null;
+		this.pendingBuffer = null;
+		this.ready = false;
+		final StreamHeader header = StreamHeader.read(stream);
+		if (header.frames) {
+			readFrames(stream, header);
+		} else {
+			readObjects(header.blocks ? blocks(stream) : header.rest(stream), header);
+		}
+		this.ready = true;
+	}
+
+	public void reset(@Nonnull ByteBuffer buffer) throws IOException {
+		this.pendingStream = null;
+		this.pendingBuffer = null;
+		this.ready = false;
+		final ByteBuffer source = buffer.duplicate();
+		final StreamHeader header = StreamHeader.read(source);
+		if (header.frames) {
+			readFrames(new ByteBufferInputStream(source), header);
+		} else if (header.blocks) {
+			readObjects(blocks(new ByteBufferInputStream(source)), header);
+		} else {
+			final ObjectReaderImpl objectReader = this.objectReader;
+			if (objectReader != null && cacheCapacity == header.cacheCapacity) {
+				objectReader.reset(source, header.wireFormat);
+			} else {
+				this.objectReader = new ObjectReaderImpl(objectProcessors, source, header.wireFormat, header.cacheCapacity, options.metrics, options.trustedInput);
+				this.cacheCapacity = header.cacheCapacity;
+			}
+			this.frameReader = null;
+		}
+		this.ready = true;
+	}
+
+	private void reset(@Nonnull MappedFile file, long position) throws IOException {
+		final ByteBuffer window = file.map(position);
+		final StreamHeader header = StreamHeader.read(window);
+		final long offset = position + window.position();
+		if (header.frames) {
+			readFrames(new MappedInputStream(file, offset), header);
+		} else if (header.blocks) {
+			readObjects(blocks(new MappedInputStream(file, offset)), header);
+		} else {
+			this.objectReader = new ObjectReaderImpl(objectProcessors, file, offset, header.wireFormat, header.cacheCapacity, options.metrics, options.trustedInput);
+			this.cacheCapacity = header.cacheCapacity;
+			this.frameReader = null;
+		}
+		this.ready = true;
+	}
+
+	// reads the header of the constructor input, which reset forgets, so after a bad header every read fails, as it
+	// does after a reset that failed
+	private void open() throws IOException {
+		if (pendingStream != null) {
+			reset(pendingStream);
+		} else if (pendingBuffer != null) {
+			reset(pendingBuffer);
+		} else {
+			throw new IOException("Invalid stream header.");
+		}
+	}
+
+	private void readFrames(@Nonnull InputStream stream, @Nonnull StreamHeader header) {
+		this.frameReader = new FrameReader(objectProcessors, stream, header, options.metrics, options.trustedInput);
+	}
+
+	private void readObjects(@Nonnull InputStream stream, @Nonnull StreamHeader header) {
+		final ObjectReaderImpl objectReader = this.objectReader;
+		if (objectReader != null && cacheCapacity == header.cacheCapacity) {
+			objectReader.reset(stream, header.wireFormat);
+		} else {
+			this.objectReader = new ObjectReaderImpl(objectProcessors, stream, header.wireFormat, header.cacheCapacity, options.metrics, options.trustedInput);
+			this.cacheCapacity = header.cacheCapacity;
+		}
+		this.frameReader = null;
+	}
+
+	@Nonnull
+	private BlockInputStream blocks(@Nonnull InputStream stream) {
+		if (blockStream == null) {
+			this.blockStream = new BlockInputStream(stream);
+		} else {
+			blockStream.reset(stream);
+		}
+		return blockStream;
+	}
+
+	// all objects of a ParallelLiquifier file, split at frame boundaries so parallel traversal decodes frames concurrently
+	@Nonnull
+	public static <E> Spliterator<E> spliterator(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull FileChannel channel, @Nonnull Class<E> objectClass) throws IOException {
+		return FrameSpliterator.open(objectProcessors, channel, objectClass, SolidifierOptions.DEFAULT);
+	}
+
+	// the metrics are called from every thread that runs a split
+	@Nonnull
+	public static <E> Spliterator<E> spliterator(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull FileChannel channel, @Nonnull Class<E> objectClass, @Nonnull SolidifierOptions options) throws IOException {
+		return FrameSpliterator.open(objectProcessors, channel, objectClass, options);
+	}
+
+	@Nonnull
+	public static <E> Stream<E> stream(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull FileChannel channel, @Nonnull Class<E> objectClass, boolean parallel) throws IOException {
+		return StreamSupport.stream(FrameSpliterator.open(objectProcessors, channel, objectClass, SolidifierOptions.DEFAULT), parallel);
+	}
+
+	@Nonnull
+	public static <E> Stream<E> stream(@Nonnull Set<ObjectProcessor<?>> objectProcessors, @Nonnull FileChannel channel, @Nonnull Class<E> objectClass, boolean parallel, @Nonnull SolidifierOptions options) throws IOException {
+		return StreamSupport.stream(FrameSpliterator.open(objectProcessors, channel, objectClass, options), parallel);
+	}
+
+	// true when the input ends cleanly before the next object
+	boolean atEnd() throws IOException {
+		if (!ready) open();
+		if (frameReader != null) return frameReader.atEnd();
+		assert objectReader != null;
+		return objectReader.atEnd();
 	}
 
 	@Nullable
 	public <E> E solidify(@Nonnull Class<E> objectClass) throws IOException, SolidifierException {
-		return objectReader.readObject(objectClass);
+		if (!ready) open();
+		final Object event = FlightRecorder.beginSolidify();
+		final ObjectReaderImpl objectReader = frameReader != null ? frameReader.nextObject() : this.objectReader;
+		assert objectReader != null;
+		if (event == null) return objectReader.readObject(objectClass);
+		final long startOffset = objectReader.offset();
+		final E object = objectReader.readObject(objectClass);
+		FlightRecorder.endSolidify(event, objectClass, objectReader.offset() - startOffset, objectReader.cacheSize(objectClass));
+		return object;
 	}
 }
-
@@ -0,0 +1,31 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+
+// How a Solidifier reads, whatever the input. Immutable, every with method returns a changed copy.
+public final class SolidifierOptions {
+	// no metrics, every check of the input done
+	@Nonnull public static final SolidifierOptions DEFAULT = new SolidifierOptions(null, false);
+
+	@Nullable final SolidifyMetrics metrics;
+	final boolean trustedInput;
+
+	private SolidifierOptions(@Nullable SolidifyMetrics metrics, boolean trustedInput) {
+		this.metrics = metrics;
+		this.trustedInput = trustedInput;
+	}
+
+	@Nonnull
+	public SolidifierOptions withMetrics(@Nullable SolidifyMetrics metrics) {
+		return new SolidifierOptions(metrics, trustedInput);
+	}
+
+	// With trustedInput, for data written by this library and not tampered with, the reader skips the checks that
+	// only catch malformed input. Cached objects are not hashed into a set to find duplicates, which saves decoding
+	// time and memory. Malformed input may then decode into wrong objects instead of failing.
+	@Nonnull
+	public SolidifierOptions withTrustedInput(boolean trustedInput) {
+		return new SolidifierOptions(metrics, trustedInput);
+	}
+}
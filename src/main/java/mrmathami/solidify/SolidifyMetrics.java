@@ -0,0 +1,22 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+
+// Told about every object a Liquifier writes or a Solidifier reads, keyed by the class it was registered with.
+// Bytes are the encoded size before compression. Bytes and nanos of an object include the objects nested in it,
+// which are reported on their own as well. Nanos are 0 unless isTimed returns true. Calls may come from several
+// threads at once, from the pool threads of a ParallelLiquifier or when the metrics are shared.
+public interface SolidifyMetrics {
+
+	// checked once at construction, timing costs two System.nanoTime calls per object
+	default boolean isTimed() {
+		return false;
+	}
+
+	void objectWritten(@Nonnull Class<?> objectClass, long bytes, long nanos);
+
+	void objectRead(@Nonnull Class<?> objectClass, long bytes, long nanos);
+
+	// a writer cache lookup, a hit is written as an index into the cache
+	void cacheLookup(@Nonnull Class<?> objectClass, boolean hit);
+}
@@ -0,0 +1,125 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sums the metrics per class in memory, safe to share between readers and writers on any number of threads.
+public final class SolidifyMetricsAggregator implements SolidifyMetrics {
+	@Nonnull private final ConcurrentHashMap<Class<?>, Counters> countersMap = new ConcurrentHashMap<>();
+	private final boolean timed;
+
+	public SolidifyMetricsAggregator() {
+		this(false);
+	}
+
+	public SolidifyMetricsAggregator(boolean timed) {
+		this.timed = timed;
+	}
+
+	@Override
+	public boolean isTimed() {
+		return timed;
+	}
+
+	@Nonnull
+	private Counters counters(@Nonnull Class<?> objectClass) {
+		final Counters counters = countersMap.get(objectClass);
+		return counters != null ? counters : countersMap.computeIfAbsent(objectClass, key -> new Counters());
+	}
+
+	@Override
+	public void objectWritten(@Nonnull Class<?> objectClass, long bytes, long nanos) {
+		final Counters counters = counters(objectClass);
+		counters.objectsWritten.increment();
+		counters.bytesWritten.add(bytes);
+		if (timed) counters.nanosWritten.add(nanos);
+	}
+
+	@Override
+	public void objectRead(@Nonnull Class<?> objectClass, long bytes, long nanos) {
+		final Counters counters = counters(objectClass);
+		counters.objectsRead.increment();
+		counters.bytesRead.add(bytes);
+		if (timed) counters.nanosRead.add(nanos);
+	}
+
+	@Override
+	public void cacheLookup(@Nonnull Class<?> objectClass, boolean hit) {
+		final Counters counters = counters(objectClass);
+		(hit ? counters.cacheHits : counters.cacheMisses).increment();
+	}
+
+	// the current sums, ordered by class name, counters still being updated may be seen half way
+	@Nonnull
+	public Map<Class<?>, ClassMetrics> snapshot() {
+		final Map<Class<?>, ClassMetrics> snapshot = new LinkedHashMap<>();
+		countersMap.entrySet().stream()
+				.sorted(Comparator.comparing(entry -> entry.getKey().getName()))
+				.forEach(entry -> snapshot.put(entry.getKey(), entry.getValue().snapshot()));
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	public void reset() {
+		countersMap.clear();
+	}
+
+	@Nonnull
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder(String.format("%-40s %12s %14s %12s %12s %14s %12s %10s %10s%n",
+				"class", "written", "bytes", "write ms", "read", "bytes", "read ms", "hits", "misses"));
+		for (final Map.Entry<Class<?>, ClassMetrics> entry : snapshot().entrySet()) {
+			final ClassMetrics metrics = entry.getValue();
+			builder.append(String.format("%-40s %12d %14d %12.3f %12d %14d %12.3f %10d %10d%n", entry.getKey().getName(),
+					metrics.objectsWritten, metrics.bytesWritten, metrics.nanosWritten / 1e6,
+					metrics.objectsRead, metrics.bytesRead, metrics.nanosRead / 1e6,
+					metrics.cacheHits, metrics.cacheMisses));
+		}
+		return builder.toString();
+	}
+
+	private static final class Counters {
+		@Nonnull private final LongAdder objectsWritten = new LongAdder();
+		@Nonnull private final LongAdder bytesWritten = new LongAdder();
+		@Nonnull private final LongAdder nanosWritten = new LongAdder();
+		@Nonnull private final LongAdder objectsRead = new LongAdder();
+		@Nonnull private final LongAdder bytesRead = new LongAdder();
+		@Nonnull private final LongAdder nanosRead = new LongAdder();
+		@Nonnull private final LongAdder cacheHits = new LongAdder();
+		@Nonnull private final LongAdder cacheMisses = new LongAdder();
+
+		@Nonnull
+		private ClassMetrics snapshot() {
+			return new ClassMetrics(objectsWritten.sum(), bytesWritten.sum(), nanosWritten.sum(),
+					objectsRead.sum(), bytesRead.sum(), nanosRead.sum(), cacheHits.sum(), cacheMisses.sum());
+		}
+	}
+
+	public static final class ClassMetrics {
+		public final long objectsWritten;
+		public final long bytesWritten;
+		public final long nanosWritten;
+		public final long objectsRead;
+		public final long bytesRead;
+		public final long nanosRead;
+		public final long cacheHits;
+		public final long cacheMisses;
+
+		private ClassMetrics(long objectsWritten, long bytesWritten, long nanosWritten, long objectsRead, long bytesRead, long nanosRead, long cacheHits, long cacheMisses) {
+			this.objectsWritten = objectsWritten;
+			this.bytesWritten = bytesWritten;
+			this.nanosWritten = nanosWritten;
+			this.objectsRead = objectsRead;
+			this.bytesRead = bytesRead;
+			this.nanosRead = nanosRead;
+			this.cacheHits = cacheHits;
+			this.cacheMisses = cacheMisses;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// The header is always written raw, ahead of any block framing, so a reader can tell how to unwrap the rest.
+// A bounded stream has its cache capacity after the flags, a little endian int, frame streams are never bounded.
+// Streams written before the header existed start right with their objects in the standard wire format, they are
+// told apart by not starting with the magic bytes. A legacy stream that happens to start with them is misread.
+final class StreamHeader {
+	static final int SIZE = 4;
+	private static final int BOUNDED_SIZE = SIZE + 4;
+	private static final int MAGIC_SIZE = 2;
+	@Nonnull private static final byte[] NO_BYTES = new byte[0];
+
+	private static final int MAGIC_0 = 'S';
+	private static final int MAGIC_1 = 'D';
+	private static final int VERSION = 1;
+
+	private static final int FLAG_COMPACT = 0x01;
+	private static final int FLAG_BLOCKS = 0x02;
+	private static final int FLAG_FRAMES = 0x04;
+	private static final int FLAG_BOUNDED = 0x08;
+	private static final int KNOWN_FLAGS = FLAG_COMPACT | FLAG_BLOCKS | FLAG_FRAMES | FLAG_BOUNDED;
+
+	@Nonnull final WireFormat wireFormat;
+	// the rest of the stream is cut into blocks, see BlockOutputStream
+	final boolean blocks;
+	// the rest of the stream is a sequence of independent frames, see FrameReader
+	final boolean frames;
+	// the number of objects each cache keeps besides the preloaded ones, 0 when the caches never evict
+	final int cacheCapacity;
+	// the bytes of a legacy stream read while looking for the magic, they belong to its first object
+	@Nonnull private final byte[] legacyBytes;
+
+	StreamHeader(@Nonnull WireFormat wireFormat, boolean blocks, boolean frames) {
+		this(wireFormat, blocks, frames, 0);
+	}
+
+	StreamHeader(@Nonnull WireFormat wireFormat, boolean blocks, boolean frames, int cacheCapacity) {
+		assert cacheCapacity >= 0 && !(frames && cacheCapacity > 0);
+		this.wireFormat = wireFormat;
+		this.blocks = blocks;
+		this.frames = frames;
+		this.cacheCapacity = cacheCapacity;
+		this.legacyBytes = NO_BYTES;
+	}
+
+	private StreamHeader(@Nonnull byte[] legacyBytes) {
+		this.wireFormat = WireFormat.STANDARD;
+		this.blocks = false;
+		this.frames = false;
+		this.cacheCapacity = 0;
+		this.legacyBytes = legacyBytes;
+	}
+
+	private static void throwInvalidHeader() throws IOException {
+		throw new IOException("Invalid stream header.");
+	}
+
+	@Nonnull
+	private byte[] toBytes() {
+		final int flags = (wireFormat == WireFormat.COMPACT ? FLAG_COMPACT : 0) | (blocks ? FLAG_BLOCKS : 0)
+				| (frames ? FLAG_FRAMES : 0) | (cacheCapacity > 0 ? FLAG_BOUNDED : 0);
+		if (cacheCapacity <= 0) return new byte[]{(byte) MAGIC_0, (byte) MAGIC_1, (byte) VERSION, (byte) flags};
+		return new byte[]{(byte) MAGIC_0, (byte) MAGIC_1, (byte) VERSION, (byte) flags,
+				(byte) cacheCapacity, (byte) (cacheCapacity >> 8), (byte) (cacheCapacity >> 16), (byte) (cacheCapacity >> 24)};
+	}
+
+	// the flags of the first SIZE bytes, whether the capacity follows is known from them
+	private static int readFlags(@Nonnull byte[] bytes) throws IOException {
+		if (bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1) throwInvalidHeader();
+		if (bytes[2] != VERSION) throw new IOException("Unsupported stream version.");
+		final int flags = bytes[3] & 0xFF;
+		if ((flags & ~KNOWN_FLAGS) != 0) throwInvalidHeader();
+		if ((flags & FLAG_FRAMES) != 0 && (flags & FLAG_BOUNDED) != 0) throwInvalidHeader();
+		return flags;
+	}
+
+	@Nonnull
+	private static StreamHeader fromBytes(int flags, @Nonnull byte[] bytes) throws IOException {
+		final WireFormat wireFormat = (flags & FLAG_COMPACT) != 0 ? WireFormat.COMPACT : WireFormat.STANDARD;
+		final int cacheCapacity = (flags & FLAG_BOUNDED) != 0 ? FrameReader.getInt(bytes, SIZE) : 0;
+		if (cacheCapacity < 0 || (flags & FLAG_BOUNDED) != 0 && cacheCapacity == 0) throwInvalidHeader();
+		return new StreamHeader(wireFormat, (flags & FLAG_BLOCKS) != 0, (flags & FLAG_FRAMES) != 0, cacheCapacity);
+	}
+
+	void write(@Nonnull OutputStream stream) throws IOException {
+		stream.write(toBytes());
+	}
+
+	void write(@Nonnull ByteBuffer target) {
+		target.put(toBytes());
+	}
+
+	// the number of bytes read, less than end - offset only at the end of the stream
+	private static int read(@Nonnull InputStream stream, @Nonnull byte[] bytes, int offset, int end) throws IOException {
+		final int start = offset;
+		while (offset < end) {
+			final int count = stream.read(bytes, offset, end - offset);
+			if (count < 0) break;
+			offset += count;
+		}
+		return offset - start;
+	}
+
+	private static void readFully(@Nonnull InputStream stream, @Nonnull byte[] bytes, int offset, int end) throws IOException {
+		if (read(stream, bytes, offset, end) < end - offset) throw new EOFException();
+	}
+
+	// The stream is left after the header, or for a legacy stream after the bytes looked at, which rest gives back.
+	@Nonnull
+	static StreamHeader read(@Nonnull InputStream stream) throws IOException {
+		final byte[] bytes = new byte[BOUNDED_SIZE];
+		final int count = read(stream, bytes, 0, MAGIC_SIZE);
+		if (count < MAGIC_SIZE || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1) {
+			return new StreamHeader(Arrays.copyOf(bytes, count));
+		}
+		readFully(stream, bytes, MAGIC_SIZE, SIZE);
+		final int flags = readFlags(bytes);
+		if ((flags & FLAG_BOUNDED) != 0) readFully(stream, bytes, SIZE, BOUNDED_SIZE);
+		return fromBytes(flags, bytes);
+	}
+
+	@Nonnull
+	static StreamHeader read(@Nonnull ByteBuffer source) throws IOException {
+		final int position = source.position();
+		if (source.remaining() < MAGIC_SIZE || source.get(position) != MAGIC_0 || source.get(position + 1) != MAGIC_1) {
+			return new StreamHeader(NO_BYTES);
+		}
+		if (source.remaining() < SIZE) throw new EOFException();
+		final byte[] bytes = new byte[BOUNDED_SIZE];
+		source.get(bytes, 0, SIZE);
+		final int flags = readFlags(bytes);
+		if ((flags & FLAG_BOUNDED) != 0) {
+			if (source.remaining() < BOUNDED_SIZE - SIZE) throw new EOFException();
+			source.get(bytes, SIZE, BOUNDED_SIZE - SIZE);
+		}
+		return fromBytes(flags, bytes);
+	}
+
+	// the rest of a stream after read, with the bytes a legacy stream gave up put back in front
+	@Nonnull
+	InputStream rest(@Nonnull InputStream stream) {
+		if (legacyBytes.length == 0) return stream;
+		return new SequenceInputStream(new ByteArrayInputStream(legacyBytes), stream);
+	}
+}
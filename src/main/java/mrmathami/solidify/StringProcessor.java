@@ -3,7 +3,6 @@ package mrmathami.solidify;
 import mrmathami.annotation.Nonnull;
 import mrmathami.annotation.Nullable;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 
 final class StringProcessor implements ObjectProcessor<String> {
 	private static final String EMPTY = "";
@@ -27,6 +26,25 @@ final class StringProcessor implements ObjectProcessor<String> {
 		return String.class;
 	}
 
+	private static int utf8Length(@Nonnull String object) {
+		final int length = object.length();
+		int utf8Length = length;
+		for (int i = 0; i < length; i++) {
+			final char c = object.charAt(i);
+			if (c < 0x80) continue;
+			if (c < 0x800) {
+				utf8Length += 1;
+			} else if (!Character.isSurrogate(c)) {
+				utf8Length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(object.charAt(i + 1))) {
+				// two chars, four bytes
+				utf8Length += 2;
+				i += 1;
+			}
+		}
+		return utf8Length;
+	}
+
 	@Override
 	public void liquify(@Nonnull ObjectWriter objectWriter, @Nullable ObjectWriter.Cache<String> writerCache, @Nullable String object) throws IOException {
 		if (writerCache == null) throw new IllegalStateException("Object cache not available.");
@@ -36,15 +54,14 @@ final class StringProcessor implements ObjectProcessor<String> {
 			objectWriter.writePackedInt(index);
 		} else {
 			assert object != null;
-			final byte[] bytes = object.getBytes(StandardCharsets.UTF_8);
-			final int length = bytes.length;
+			final int length = utf8Length(object);
 			if (length < 0x8000) {
 				objectWriter.writePackedInt(-length);
 			} else {
 				objectWriter.writePackedInt(-0x8000);
 				objectWriter.writePackedInt(length - 0x8000);
 			}
-			objectWriter.writeBytes(bytes);
+			objectWriter.writeUtf8(object);
 		}
 	}
 
@@ -66,8 +83,7 @@ final class StringProcessor implements ObjectProcessor<String> {
 					length = lengthExt + 0x8000;
 					if (length < 0) throw new IOException("Invalid input data.");
 				}
-				final byte[] bytes = objectReader.readBytes(length);
-				final String object = new String(bytes, StandardCharsets.UTF_8);
+				final String object = objectReader.readUtf8(length);
 				slot.put(object);
 				return object;
 			} else {
@@ -0,0 +1,8 @@
+package mrmathami.solidify;
+
+public enum WireFormat {
+	// 1-2 byte packed shorts, 2-4 byte packed ints, 4-8 byte packed longs
+	STANDARD,
+	// LEB128 varints of the zigzag encoded value, 1 byte minimum
+	COMPACT
+}
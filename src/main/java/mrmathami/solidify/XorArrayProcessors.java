@@ -0,0 +1,184 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+
+import java.io.IOException;
+
+final class XorDoubleArrayProcessor extends CachedArrayProcessor<double[]> {
+	private static final int BLOCK_SIZE = 128;
+	private static final int LEADING_BITS = 5;
+	private static final int MAX_LEADING = (1 << LEADING_BITS) - 1;
+	private static final int MEANINGFUL_BITS = 6;
+
+	XorDoubleArrayProcessor() {
+		super(double[].class);
+	}
+
+	@Override
+	int length(@Nonnull double[] array) {
+		return array.length;
+	}
+
+	@Override
+	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull double[] array) throws IOException {
+		final int length = array.length;
+		final BitWriter bitWriter = BitWriter.of(objectWriter);
+		long previous = Double.doubleToRawLongBits(array[0]);
+		// no window yet, the first non-zero xor always writes a new one
+		int previousLeading = 64;
+		int previousTrailing = 64;
+		for (int from = 0; from < length; from += BLOCK_SIZE) {
+			final int to = Math.min(from + BLOCK_SIZE, length);
+			if (from == 0) bitWriter.write(previous, 64);
+			for (int index = Math.max(from, 1); index < to; index++) {
+				final long bits = Double.doubleToRawLongBits(array[index]);
+				final long xor = bits ^ previous;
+				previous = bits;
+				if (xor == 0L) {
+					bitWriter.write(0b0, 1);
+					continue;
+				}
+				final int leading = Math.min(Long.numberOfLeadingZeros(xor), MAX_LEADING);
+				final int trailing = Long.numberOfTrailingZeros(xor);
+				if (leading >= previousLeading && trailing >= previousTrailing) {
+					// 1 then 0: the bits fit in the previous window
+					bitWriter.write(0b01, 2);
+					bitWriter.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+				} else {
+					// 1 then 1: a new window follows
+					final int meaningful = 64 - leading - trailing;
+					bitWriter.write(0b11, 2);
+					bitWriter.write(leading, LEADING_BITS);
+					bitWriter.write(meaningful - 1, MEANINGFUL_BITS);
+					bitWriter.write(xor >>> trailing, meaningful);
+					previousLeading = leading;
+					previousTrailing = trailing;
+				}
+			}
+			objectWriter.writePackedInt(bitWriter.bitCount());
+			bitWriter.writeTo(objectWriter);
+		}
+	}
+
+	@Nonnull
+	@Override
+	protected double[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
+		final double[] array = new double[length];
+		final BitReader bitReader = BitReader.of(objectReader);
+		long previous = 0L;
+		int previousLeading = 64;
+		int previousTrailing = 64;
+		for (int from = 0; from < length; from += BLOCK_SIZE) {
+			final int to = Math.min(from + BLOCK_SIZE, length);
+			bitReader.readFrom(objectReader, objectReader.readPackedInt());
+			if (from == 0) {
+				previous = bitReader.read(64);
+				array[0] = Double.longBitsToDouble(previous);
+			}
+			for (int index = Math.max(from, 1); index < to; index++) {
+				if (bitReader.read(1) != 0L) {
+					if (bitReader.read(1) != 0L) {
+						previousLeading = (int) bitReader.read(LEADING_BITS);
+						previousTrailing = 64 - previousLeading - (int) bitReader.read(MEANINGFUL_BITS) - 1;
+						if (previousTrailing < 0) throw new IOException("Invalid input data.");
+					} else if (previousLeading + previousTrailing >= 64) {
+						throw new IOException("Invalid input data.");
+					}
+					previous ^= bitReader.read(64 - previousLeading - previousTrailing) << previousTrailing;
+				}
+				array[index] = Double.longBitsToDouble(previous);
+			}
+			bitReader.finish();
+		}
+		return array;
+	}
+}
+
+final class XorFloatArrayProcessor extends CachedArrayProcessor<float[]> {
+	private static final int BLOCK_SIZE = 128;
+	private static final int LEADING_BITS = 5;
+	private static final int MEANINGFUL_BITS = 5;
+
+	XorFloatArrayProcessor() {
+		super(float[].class);
+	}
+
+	@Override
+	int length(@Nonnull float[] array) {
+		return array.length;
+	}
+
+	@Override
+	protected void liquify(@Nonnull ObjectWriter objectWriter, @Nonnull float[] array) throws IOException {
+		final int length = array.length;
+		final BitWriter bitWriter = BitWriter.of(objectWriter);
+		int previous = Float.floatToRawIntBits(array[0]);
+		// no window yet, the first non-zero xor always writes a new one
+		int previousLeading = 32;
+		int previousTrailing = 32;
+		for (int from = 0; from < length; from += BLOCK_SIZE) {
+			final int to = Math.min(from + BLOCK_SIZE, length);
+			if (from == 0) bitWriter.write(previous & 0xFFFFFFFFL, 32);
+			for (int index = Math.max(from, 1); index < to; index++) {
+				final int bits = Float.floatToRawIntBits(array[index]);
+				final int xor = bits ^ previous;
+				previous = bits;
+				if (xor == 0) {
+					bitWriter.write(0b0, 1);
+					continue;
+				}
+				final int leading = Integer.numberOfLeadingZeros(xor);
+				final int trailing = Integer.numberOfTrailingZeros(xor);
+				if (leading >= previousLeading && trailing >= previousTrailing) {
+					// 1 then 0: the bits fit in the previous window
+					bitWriter.write(0b01, 2);
+					bitWriter.write((xor >>> previousTrailing) & 0xFFFFFFFFL, 32 - previousLeading - previousTrailing);
+				} else {
+					// 1 then 1: a new window follows
+					final int meaningful = 32 - leading - trailing;
+					bitWriter.write(0b11, 2);
+					bitWriter.write(leading, LEADING_BITS);
+					bitWriter.write(meaningful - 1, MEANINGFUL_BITS);
+					bitWriter.write((xor >>> trailing) & 0xFFFFFFFFL, meaningful);
+					previousLeading = leading;
+					previousTrailing = trailing;
+				}
+			}
+			objectWriter.writePackedInt(bitWriter.bitCount());
+			bitWriter.writeTo(objectWriter);
+		}
+	}
+
+	@Nonnull
+	@Override
+	protected float[] solidify(@Nonnull ObjectReader objectReader, int length) throws IOException {
+		final float[] array = new float[length];
+		final BitReader bitReader = BitReader.of(objectReader);
+		int previous = 0;
+		int previousLeading = 32;
+		int previousTrailing = 32;
+		for (int from = 0; from < length; from += BLOCK_SIZE) {
+			final int to = Math.min(from + BLOCK_SIZE, length);
+			bitReader.readFrom(objectReader, objectReader.readPackedInt());
+			if (from == 0) {
+				previous = (int) bitReader.read(32);
+				array[0] = Float.intBitsToFloat(previous);
+			}
+			for (int index = Math.max(from, 1); index < to; index++) {
+				if (bitReader.read(1) != 0L) {
+					if (bitReader.read(1) != 0L) {
+						previousLeading = (int) bitReader.read(LEADING_BITS);
+						previousTrailing = 32 - previousLeading - (int) bitReader.read(MEANINGFUL_BITS) - 1;
+						if (previousTrailing < 0) throw new IOException("Invalid input data.");
+					} else if (previousLeading + previousTrailing >= 32) {
+						throw new IOException("Invalid input data.");
+					}
+					previous ^= (int) bitReader.read(32 - previousLeading - previousTrailing) << previousTrailing;
+				}
+				array[index] = Float.intBitsToFloat(previous);
+			}
+			bitReader.finish();
+		}
+		return array;
+	}
+}
@@ -0,0 +1,126 @@
+package mrmathami.solidify;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+
+// The Java 11 version of FlightRecorder, emitting JFR events. Every event has a 1 ms default threshold, change it
+// in the recording settings, e.g. mrmathami.solidify.Liquify#threshold=0 ms records every object.
+final class FlightRecorder {
+	private FlightRecorder() {
+	}
+
+	@Nullable
+	static Object beginLiquify() {
+		final LiquifyEvent event = new LiquifyEvent();
+		if (!event.isEnabled()) return null;
+		event.begin();
+		return event;
+	}
+
+	static void endLiquify(@Nonnull Object event, @Nonnull Class<?> objectClass, long bytes, int cacheSize) {
+		final LiquifyEvent liquifyEvent = (LiquifyEvent) event;
+		liquifyEvent.end();
+		if (!liquifyEvent.shouldCommit()) return;
+		liquifyEvent.objectClass = objectClass;
+		liquifyEvent.bytes = bytes;
+		liquifyEvent.cacheSize = cacheSize;
+		liquifyEvent.commit();
+	}
+
+	@Nullable
+	static Object beginSolidify() {
+		final SolidifyEvent event = new SolidifyEvent();
+		if (!event.isEnabled()) return null;
+		event.begin();
+		return event;
+	}
+
+	static void endSolidify(@Nonnull Object event, @Nonnull Class<?> objectClass, long bytes, int cacheSize) {
+		final SolidifyEvent solidifyEvent = (SolidifyEvent) event;
+		solidifyEvent.end();
+		if (!solidifyEvent.shouldCommit()) return;
+		solidifyEvent.objectClass = objectClass;
+		solidifyEvent.bytes = bytes;
+		solidifyEvent.cacheSize = cacheSize;
+		solidifyEvent.commit();
+	}
+
+	@Nullable
+	static Object beginFlush() {
+		final FlushEvent event = new FlushEvent();
+		if (!event.isEnabled()) return null;
+		event.begin();
+		return event;
+	}
+
+	static void endFlush(@Nonnull Object event, long bytes) {
+		final FlushEvent flushEvent = (FlushEvent) event;
+		flushEvent.end();
+		if (!flushEvent.shouldCommit()) return;
+		flushEvent.bytes = bytes;
+		flushEvent.commit();
+	}
+
+	@Nullable
+	static Object beginRefill() {
+		final RefillEvent event = new RefillEvent();
+		if (!event.isEnabled()) return null;
+		event.begin();
+		return event;
+	}
+
+	static void endRefill(@Nonnull Object event, long bytes) {
+		final RefillEvent refillEvent = (RefillEvent) event;
+		refillEvent.end();
+		if (!refillEvent.shouldCommit()) return;
+		refillEvent.bytes = bytes;
+		refillEvent.commit();
+	}
+
+	@Name("mrmathami.solidify.Liquify")
+	@Label("Liquify")
+	@Description("A top level object written by a Liquifier")
+	@Category("Solidify")
+	@Threshold("1 ms")
+	static final class LiquifyEvent extends Event {
+		@Label("Object Class") Class<?> objectClass;
+		@Label("Bytes") @Description("Encoded size before compression, nested objects included") @DataAmount long bytes;
+		@Label("Cache Size") @Description("Objects in the writer cache of the class afterwards") int cacheSize;
+	}
+
+	@Name("mrmathami.solidify.Solidify")
+	@Label("Solidify")
+	@Description("A top level object read by a Solidifier")
+	@Category("Solidify")
+	@Threshold("1 ms")
+	static final class SolidifyEvent extends Event {
+		@Label("Object Class") Class<?> objectClass;
+		@Label("Bytes") @Description("Encoded size before decompression, nested objects included") @DataAmount long bytes;
+		@Label("Cache Size") @Description("Objects in the reader cache of the class afterwards") int cacheSize;
+	}
+
+	@Name("mrmathami.solidify.Flush")
+	@Label("Solidify Flush")
+	@Description("The writer buffer handed to the underlying stream")
+	@Category("Solidify")
+	@Threshold("1 ms")
+	static final class FlushEvent extends Event {
+		@Label("Bytes") @DataAmount long bytes;
+	}
+
+	@Name("mrmathami.solidify.Refill")
+	@Label("Solidify Refill")
+	@Description("The reader buffer filled from the underlying stream")
+	@Category("Solidify")
+	@Threshold("1 ms")
+	static final class RefillEvent extends Event {
+		@Label("Bytes") @DataAmount long bytes;
+	}
+}
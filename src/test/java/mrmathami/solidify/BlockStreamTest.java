@@ -0,0 +1,147 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockStreamTest {
+	@Nonnull private static final Compression[] COMPRESSIONS = {Compression.DEFLATE, Compression.HUFFMAN, Compression.deflate(1)};
+
+	@Nonnull
+	private static byte[] write(@Nonnull Set<ObjectProcessor<?>> processors, @Nonnull Compression compression, @Nonnull byte[]... arrays) throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors, bytes, LiquifierOptions.DEFAULT.withCompression(compression))) {
+			for (final byte[] array : arrays) liquifier.liquify(byte[].class, array);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void check(@Nonnull Compression compression, @Nonnull byte[]... arrays) throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final byte[] bytes = write(processors, compression, arrays);
+		final Solidifier fromStream = new Solidifier(processors, new ByteArrayInputStream(bytes));
+		final Solidifier fromBuffer = new Solidifier(processors, ByteBuffer.wrap(bytes));
+		for (final byte[] array : arrays) {
+			assertArrayEquals(array, fromStream.solidify(byte[].class));
+			assertArrayEquals(array, fromBuffer.solidify(byte[].class));
+		}
+		assertTrue(fromStream.atEnd());
+		assertTrue(fromBuffer.atEnd());
+	}
+
+	@Test
+	void roundTripsEmptyStreams() throws Exception {
+		for (final Compression compression : COMPRESSIONS) check(compression);
+	}
+
+	@Test
+	void roundTripsAroundBlockBoundaries() throws Exception {
+		// the packed length takes 4 bytes past 0x7FFF, so these end right around the 64 KB block
+		final Random random = new Random(7);
+		for (final Compression compression : COMPRESSIONS) {
+			for (final int length : new int[]{1, 127, 128, 129, 65527, 65528, 65529, 65536, 200000}) {
+				final byte[] array = new byte[length];
+				for (int i = 0; i < length; i++) array[i] = (byte) (random.nextInt(3) + 'a');
+				check(compression, array);
+			}
+		}
+	}
+
+	@Test
+	void storesBlocksThatDoNotShrink() throws Exception {
+		final byte[] random = new byte[150000];
+		new Random(8).nextBytes(random);
+		final byte[] zeros = new byte[150000];
+		for (final Compression compression : COMPRESSIONS) check(compression, random, zeros, random);
+	}
+
+	@Test
+	void mixesCodecsInOneStream() throws Exception {
+		// a reset Solidifier meets deflate blocks after Huffman ones on the same block stream
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final byte[] array = new byte[100000];
+		Arrays.fill(array, (byte) 'z');
+		final Solidifier solidifier = new Solidifier(processors, ByteBuffer.wrap(write(processors, Compression.HUFFMAN, array)));
+		assertArrayEquals(array, solidifier.solidify(byte[].class));
+		solidifier.reset(ByteBuffer.wrap(write(processors, Compression.DEFLATE, array)));
+		assertArrayEquals(array, solidifier.solidify(byte[].class));
+		assertTrue(solidifier.atEnd());
+	}
+
+	@Nonnull
+	private static byte[] sample(@Nonnull Compression compression) throws Exception {
+		final byte[] array = new byte[5000];
+		for (int i = 0; i < array.length; i++) array[i] = (byte) (i % 5 + 'a');
+		return write(TestProcessors.standard(), compression, array);
+	}
+
+	private static void assertRejected(@Nonnull byte[] bytes) {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		assertThrows(IOException.class, () -> {
+			final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(bytes));
+			solidifier.solidify(byte[].class);
+			solidifier.atEnd();
+		});
+	}
+
+	@Test
+	void rejectsBadBlockHeaders() throws Exception {
+		// the block header follows the stream header: codec, raw length, stored length
+		for (final Compression compression : COMPRESSIONS) {
+			final byte[] bytes = sample(compression);
+			final byte[] codec = bytes.clone();
+			codec[StreamHeader.SIZE] = 9;
+			assertRejected(codec);
+			final byte[] rawLength = bytes.clone();
+			Arrays.fill(rawLength, StreamHeader.SIZE + 1, StreamHeader.SIZE + 5, (byte) 0);
+			assertRejected(rawLength);
+			final byte[] tooLong = bytes.clone();
+			tooLong[StreamHeader.SIZE + 3] = 2;
+			assertRejected(tooLong);
+			final byte[] storedLength = bytes.clone();
+			storedLength[StreamHeader.SIZE + 5]++;
+			assertRejected(storedLength);
+		}
+	}
+
+	@Test
+	void rejectsTruncatedBlocks() throws Exception {
+		for (final Compression compression : COMPRESSIONS) {
+			final byte[] bytes = sample(compression);
+			for (final int cut : new int[]{1, 10, bytes.length / 2}) assertRejected(Arrays.copyOf(bytes, bytes.length - cut));
+		}
+	}
+
+	@Test
+	void rejectsCorruptPayloads() throws Exception {
+		for (final Compression compression : COMPRESSIONS) {
+			final byte[] bytes = sample(compression);
+			final byte[] corrupt = bytes.clone();
+			for (int i = StreamHeader.SIZE + BlockOutputStream.HEADER_SIZE; i < corrupt.length; i += 3) corrupt[i] ^= 0x5A;
+			assertRejected(corrupt);
+		}
+	}
+
+	@Test
+	void readsStoredOnlyStreams() throws Exception {
+		// blocks that never compress need neither codec
+		final byte[] random = new byte[1000];
+		new Random(9).nextBytes(random);
+		for (final Compression compression : COMPRESSIONS) {
+			final byte[] bytes = write(TestProcessors.standard(), compression, random);
+			assertTrue(bytes[StreamHeader.SIZE] == BlockOutputStream.CODEC_STORED);
+			check(compression, random);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ByteBufferTest {
+	private static final int START = 7;
+	private static final int COUNT = 300;
+
+	@Nonnull
+	private static ByteBuffer allocate(boolean direct, int capacity) {
+		return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+	}
+
+	private static void liquifyAll(@Nonnull Liquifier liquifier) throws Exception {
+		for (int i = 0; i < COUNT; i++) {
+			liquifier.liquify(String.class, "string \u00e9\u4e2d\ud83d\ude00 " + i % 50);
+			liquifier.liquify(Long.class, i * 0x123456789L - 0x10000L);
+			liquifier.liquify(Double.class, i / 7.0);
+			liquifier.liquify(Boolean.class, i % 3 == 0);
+			liquifier.liquify(int[].class, new int[]{i, -i, Integer.MIN_VALUE});
+			liquifier.liquify(long[].class, new long[]{i, Long.MAX_VALUE});
+			liquifier.liquify(char[].class, new char[]{'a', (char) i});
+			liquifier.liquify(byte[].class, new byte[]{(byte) i, 0, -1});
+		}
+	}
+
+	private static void solidifyAll(@Nonnull Solidifier solidifier) throws Exception {
+		for (int i = 0; i < COUNT; i++) {
+			assertEquals("string \u00e9\u4e2d\ud83d\ude00 " + i % 50, solidifier.solidify(String.class));
+			assertEquals(i * 0x123456789L - 0x10000L, solidifier.solidify(Long.class));
+			assertEquals(i / 7.0, solidifier.solidify(Double.class));
+			assertEquals(i % 3 == 0, solidifier.solidify(Boolean.class));
+			assertArrayEquals(new int[]{i, -i, Integer.MIN_VALUE}, solidifier.solidify(int[].class));
+			assertArrayEquals(new long[]{i, Long.MAX_VALUE}, solidifier.solidify(long[].class));
+			assertArrayEquals(new char[]{'a', (char) i}, solidifier.solidify(char[].class));
+			assertArrayEquals(new byte[]{(byte) i, 0, -1}, solidifier.solidify(byte[].class));
+		}
+		assertTrue(solidifier.atEnd());
+	}
+
+	@Test
+	void roundTripsFromANonZeroPosition() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors, expected)) {
+			liquifyAll(liquifier);
+		}
+		for (final boolean direct : new boolean[]{false, true}) {
+			final ByteBuffer buffer = allocate(direct, 1 << 16);
+			((Buffer) buffer).position(START);
+			try (final Liquifier liquifier = new Liquifier(processors, buffer)) {
+				liquifyAll(liquifier);
+			}
+			// the same bytes as through a stream, right after the start position
+			assertEquals(START + expected.size(), buffer.position());
+			final byte[] written = new byte[expected.size()];
+			((Buffer) buffer).flip();
+			((Buffer) buffer).position(START);
+			buffer.duplicate().get(written);
+			assertArrayEquals(expected.toByteArray(), written);
+
+			solidifyAll(new Solidifier(processors, buffer));
+			// the source is only read through a duplicate
+			assertEquals(START, buffer.position());
+		}
+	}
+
+	@Test
+	void movesThePositionOnFlush() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		for (final boolean direct : new boolean[]{false, true}) {
+			final ByteBuffer buffer = allocate(direct, 1024);
+			((Buffer) buffer).position(START);
+			final Liquifier liquifier = new Liquifier(processors, buffer);
+			assertEquals(START + StreamHeader.SIZE, buffer.position());
+			liquifier.liquify(Integer.class, 1);
+			liquifier.flush();
+			final int first = buffer.position();
+			assertTrue(first > START + StreamHeader.SIZE);
+			liquifier.liquify(int[].class, new int[]{1, 2, 3});
+			// encoded in place, but the position only moves on flush
+			assertEquals(first, buffer.position());
+			liquifier.flush();
+			// a new array starts with its negated length, a 4 byte packed int
+			assertEquals(first + 4 + 3 * 4, buffer.position());
+			liquifier.close();
+			assertEquals(first + 4 + 3 * 4, buffer.position());
+		}
+	}
+
+	@Test
+	void overflowsASmallBuffer() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final char[] chars = new char[100];
+		Arrays.fill(chars, 'x');
+		for (final boolean direct : new boolean[]{false, true}) {
+			final Liquifier liquifier = new Liquifier(processors, allocate(direct, 64));
+			assertThrows(BufferOverflowException.class, () -> liquifier.liquify(String.class, new String(chars)));
+			final Liquifier arrayLiquifier = new Liquifier(processors, allocate(direct, 64));
+			assertThrows(BufferOverflowException.class, () -> arrayLiquifier.liquify(byte[].class, new byte[100]));
+			final Liquifier intsLiquifier = new Liquifier(processors, allocate(direct, 64));
+			assertThrows(BufferOverflowException.class, () -> intsLiquifier.liquify(int[].class, new int[100]));
+		}
+	}
+}
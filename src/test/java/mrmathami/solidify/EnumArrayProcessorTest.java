@@ -0,0 +1,100 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EnumArrayProcessorTest {
+	enum None {}
+
+	enum One {A}
+
+	// codes 0 to 3 fill 2 bits
+	enum Three {A, B, C}
+
+	// code 4 needs 3 bits, leaving 5 to 7 invalid
+	enum Four {A, B, C, D}
+
+	@Nonnull
+	private static Set<ObjectProcessor<?>> processors() {
+		return TestProcessors.boxed(ObjectProcessors.forEnumArray(None.class), ObjectProcessors.forEnumArray(One.class),
+				ObjectProcessors.forEnumArray(Three.class), ObjectProcessors.forEnumArray(Four.class));
+	}
+
+	@Nonnull
+	private static <E extends Enum<E>> E[] fill(@Nonnull Class<E> enumClass, int length, long seed) {
+		final E[] constants = enumClass.getEnumConstants();
+		@SuppressWarnings("unchecked") final E[] array = (E[]) Array.newInstance(enumClass, length);
+		final Random random = new Random(seed);
+		for (int i = 0; i < length; i++) {
+			final int code = random.nextInt(constants.length + 1);
+			array[i] = code > 0 ? constants[code - 1] : null;
+		}
+		return array;
+	}
+
+	private static <E extends Enum<E>> void check(@Nonnull Class<E> enumClass, @Nonnull Class<E[]> arrayClass) throws Exception {
+		// codes never straddle words, 32 two bit codes or 21 three bit codes fill one, and 256 words one chunk
+		for (final int length : new int[]{0, 1, 2, 20, 21, 22, 31, 32, 33, 127, 128, 129, 5376, 5377, 8192, 8193, 20000}) {
+			final E[] array = fill(enumClass, length, length);
+			for (final WireFormat wireFormat : WireFormat.values()) {
+				assertArrayEquals(array, TestProcessors.roundTrip(processors(), wireFormat, arrayClass, array));
+			}
+		}
+	}
+
+	@Test
+	void roundTripsNull() throws Exception {
+		assertNull(TestProcessors.roundTrip(processors(), WireFormat.STANDARD, Three[].class, null));
+	}
+
+	@Test
+	void roundTripsEveryWidth() throws Exception {
+		check(None.class, None[].class);
+		check(One.class, One[].class);
+		check(Three.class, Three[].class);
+		check(Four.class, Four[].class);
+	}
+
+	@Test
+	void roundTripsAllNullsAndAllLast() throws Exception {
+		final Four[] nulls = new Four[129];
+		final Four[] last = new Four[129];
+		Arrays.fill(last, Four.D);
+		assertArrayEquals(nulls, TestProcessors.roundTrip(processors(), WireFormat.STANDARD, Four[].class, nulls));
+		assertArrayEquals(last, TestProcessors.roundTrip(processors(), WireFormat.COMPACT, Four[].class, last));
+	}
+
+	@Test
+	void rejectsUnknownCodes() throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors(), bytes)) {
+			liquifier.liquify(Four[].class, new Four[]{Four.D});
+		}
+		final byte[] data = bytes.toByteArray();
+		// header, 2 byte packed length, then the byte holding the one code
+		data[StreamHeader.SIZE + 2] = 7;
+		assertThrows(IOException.class, () -> new Solidifier(processors(), new ByteArrayInputStream(data)).solidify(Four[].class));
+	}
+
+	@Test
+	void rejectsTruncatedCodes() throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors(), bytes)) {
+			liquifier.liquify(Three[].class, fill(Three.class, 1000, 1));
+		}
+		final byte[] data = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 5);
+		assertThrows(IOException.class, () -> new Solidifier(processors(), new ByteArrayInputStream(data)).solidify(Three[].class));
+	}
+}
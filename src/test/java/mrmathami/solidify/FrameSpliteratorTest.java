@@ -0,0 +1,177 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameSpliteratorTest {
+	@Nonnull private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+	@TempDir Path directory;
+
+	@AfterAll
+	static void shutdown() {
+		POOL.shutdown();
+	}
+
+	// counts what the Solidifier reports, from any thread
+	static final class CountingMetrics implements SolidifyMetrics {
+		@Nonnull final AtomicLong read = new AtomicLong();
+
+		@Override
+		public void objectWritten(@Nonnull Class<?> objectClass, long bytes, long nanos) {
+		}
+
+		@Override
+		public void objectRead(@Nonnull Class<?> objectClass, long bytes, long nanos) {
+			if (objectClass == String.class) read.incrementAndGet();
+		}
+
+		@Override
+		public void cacheLookup(@Nonnull Class<?> objectClass, boolean hit) {
+		}
+	}
+
+	@Nonnull
+	private Path write(@Nonnull Compression compression, int frameObjects, int objectCount) throws Exception {
+		final Path file = directory.resolve("frames-" + compression.codec + "-" + frameObjects + "-" + objectCount);
+		try (final OutputStream stream = Files.newOutputStream(file);
+				final ParallelLiquifier liquifier = new ParallelLiquifier(TestProcessors.standard(), stream, LiquifierOptions.DEFAULT.withWireFormat(WireFormat.COMPACT).withCompression(compression), frameObjects, POOL)) {
+			for (int i = 0; i < objectCount; i++) liquifier.liquify(String.class, "object " + i % 300);
+		}
+		return file;
+	}
+
+	@Nonnull
+	private static List<String> expected(int objectCount) {
+		return IntStream.range(0, objectCount).mapToObj(i -> "object " + i % 300).collect(Collectors.toList());
+	}
+
+	@Test
+	void streamsEveryObjectInOrder() throws Exception {
+		for (final Compression compression : new Compression[]{Compression.NONE, Compression.DEFLATE}) {
+			for (final int objectCount : new int[]{0, 1, 127, 128, 129, 5000}) {
+				final Path file = write(compression, 128, objectCount);
+				for (final boolean parallel : new boolean[]{false, true}) {
+					try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+						final List<String> objects = Solidifier.stream(TestProcessors.standard(), channel, String.class, parallel).collect(Collectors.toList());
+						assertEquals(expected(objectCount), objects);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void splitsAtFrameBoundaries() throws Exception {
+		final Path file = write(Compression.NONE, 100, 1000);
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final Spliterator<String> suffix = Solidifier.spliterator(TestProcessors.standard(), channel, String.class);
+			assertEquals(1000, suffix.estimateSize());
+			// a split taken in the middle of a frame keeps the rest of that frame
+			assertTrue(suffix.tryAdvance(object -> assertEquals("object 0", object)));
+			final Spliterator<String> prefix = suffix.trySplit();
+			assertNotNull(prefix);
+			assertEquals(499, prefix.estimateSize());
+			assertEquals(500, suffix.estimateSize());
+			final StringBuilder order = new StringBuilder();
+			prefix.forEachRemaining(object -> order.append(object).append(','));
+			suffix.forEachRemaining(object -> order.append(object).append(','));
+			final StringBuilder expected = new StringBuilder();
+			for (final String object : expected(1000).subList(1, 1000)) expected.append(object).append(',');
+			assertEquals(expected.toString(), order.toString());
+		}
+	}
+
+	@Test
+	void passesOptionsToEveryFrame() throws Exception {
+		final Path file = write(Compression.NONE, 64, 1000);
+		final CountingMetrics metrics = new CountingMetrics();
+		final SolidifierOptions options = SolidifierOptions.DEFAULT.withMetrics(metrics).withTrustedInput(true);
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			// count alone would be answered from the frame headers without reading anything
+			assertEquals(1000, Solidifier.stream(TestProcessors.standard(), channel, String.class, true, options).collect(Collectors.toList()).size());
+		}
+		assertEquals(1000, metrics.read.get());
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final Spliterator<String> spliterator = Solidifier.spliterator(TestProcessors.standard(), channel, String.class, options);
+			spliterator.forEachRemaining(object -> {
+			});
+		}
+		assertEquals(2000, metrics.read.get());
+	}
+
+	@Test
+	void fileChannelSolidifierTakesOptions() throws Exception {
+		final Path file = write(Compression.HUFFMAN, 64, 300);
+		final CountingMetrics metrics = new CountingMetrics();
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final Solidifier solidifier = new Solidifier(TestProcessors.standard(), channel, SolidifierOptions.DEFAULT.withMetrics(metrics));
+			for (final String object : expected(300)) assertEquals(object, solidifier.solidify(String.class));
+			assertTrue(solidifier.atEnd());
+		}
+		assertEquals(300, metrics.read.get());
+	}
+
+	@Test
+	void rejectsStreamsWithoutFrames() throws Exception {
+		final Path file = directory.resolve("plain");
+		try (final Liquifier liquifier = new Liquifier(TestProcessors.standard(), Files.newOutputStream(file))) {
+			liquifier.liquify(String.class, "plain");
+		}
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			assertThrows(IOException.class, () -> Solidifier.spliterator(TestProcessors.standard(), channel, String.class));
+		}
+	}
+
+	@Test
+	void rejectsTruncatedFrames() throws Exception {
+		final Path file = write(Compression.NONE, 64, 200);
+		final byte[] bytes = Files.readAllBytes(file);
+		for (final int cut : new int[]{1, 5, bytes.length / 2}) {
+			Files.write(file, Arrays.copyOf(bytes, bytes.length - cut));
+			try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				assertThrows(IOException.class, () -> Solidifier.spliterator(TestProcessors.standard(), channel, String.class));
+			}
+		}
+	}
+
+	@Test
+	void reportsCorruptPayloadsWhileStreaming() throws Exception {
+		final Path file = write(Compression.NONE, 64, 200);
+		final byte[] bytes = Files.readAllBytes(file);
+		// the first payload starts after the stream and frame headers, its first string length is made huge
+		final int payload = StreamHeader.SIZE + ParallelLiquifier.FRAME_HEADER_SIZE;
+		bytes[payload] = (byte) 0xFF;
+		bytes[payload + 1] = (byte) 0xFF;
+		bytes[payload + 2] = (byte) 0xFF;
+		bytes[payload + 3] = 0x7F;
+		Files.write(file, bytes);
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			assertThrows(UncheckedIOException.class, () -> Solidifier.stream(processors, channel, String.class, false).collect(Collectors.toList()));
+		}
+	}
+}
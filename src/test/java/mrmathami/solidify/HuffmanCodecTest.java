@@ -0,0 +1,138 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HuffmanCodecTest {
+	@Nonnull
+	private static byte[] encode(@Nonnull byte[] block) {
+		final byte[] output = new byte[block.length + HuffmanCodec.TABLE_SIZE + 64];
+		final int length = new HuffmanCodec().encode(block, block.length, output, 0);
+		assertTrue(length > 0 && length < block.length, "block does not shrink");
+		return Arrays.copyOf(output, length);
+	}
+
+	private static void roundTrip(@Nonnull byte[] block) throws IOException {
+		final byte[] encoded = encode(block);
+		final byte[] decoded = new byte[block.length];
+		new HuffmanCodec().decode(encoded, 0, encoded.length, decoded, block.length);
+		assertArrayEquals(block, decoded);
+	}
+
+	@Test
+	void roundTripsSingleSymbol() throws IOException {
+		for (final int size : new int[]{200, 1001, 65536}) {
+			final byte[] block = new byte[size];
+			Arrays.fill(block, (byte) 'x');
+			roundTrip(block);
+		}
+	}
+
+	@Test
+	void roundTripsTwoSymbols() throws IOException {
+		final byte[] block = new byte[4099];
+		for (int i = 0; i < block.length; i++) block[i] = (byte) (i % 7 == 0 ? 0xFF : 0);
+		roundTrip(block);
+	}
+
+	@Test
+	void roundTripsAllSymbols() throws IOException {
+		// every byte value present, most of them rare, so the table uses all 256 entries
+		final byte[] block = new byte[65536];
+		final Random random = new Random(1);
+		for (int i = 0; i < block.length; i++) block[i] = (byte) (i < 256 ? i : random.nextInt(16));
+		roundTrip(block);
+	}
+
+	@Test
+	void roundTripsSkewedFrequencies() throws IOException {
+		// halving frequencies want codes longer than the limit, so the lengths get flattened
+		final byte[] block = new byte[65536];
+		int index = 0;
+		for (int symbol = 0; index < block.length; symbol++) {
+			final int count = Math.max(block.length >>> (symbol + 1), 1);
+			for (int i = 0; i < count && index < block.length; i++) block[index++] = (byte) symbol;
+		}
+		roundTrip(block);
+	}
+
+	@Test
+	void roundTripsOddSizes() throws IOException {
+		// the four segments split unevenly
+		final Random random = new Random(2);
+		for (final int size : new int[]{257, 258, 259, 260, 1023, 4097}) {
+			final byte[] block = new byte[size];
+			for (int i = 0; i < size; i++) block[i] = (byte) (random.nextInt(4) * random.nextInt(4));
+			roundTrip(block);
+		}
+	}
+
+	@Test
+	void refusesBlocksThatDoNotShrink() {
+		final byte[] block = new byte[4096];
+		new Random(3).nextBytes(block);
+		assertEquals(-1, new HuffmanCodec().encode(block, block.length, new byte[8192], 0));
+	}
+
+	@Nonnull
+	private static byte[] sample() {
+		final byte[] block = new byte[3000];
+		final Random random = new Random(4);
+		for (int i = 0; i < block.length; i++) block[i] = (byte) (random.nextInt(8) + 'a');
+		return block;
+	}
+
+	@Test
+	void rejectsTruncatedBlocks() {
+		final byte[] encoded = encode(sample());
+		for (final int length : new int[]{0, 10, HuffmanCodec.TABLE_SIZE + 5, encoded.length / 2, encoded.length - 1}) {
+			assertThrows(IOException.class, () -> new HuffmanCodec().decode(encoded, 0, length, new byte[3000], 3000));
+		}
+	}
+
+	@Test
+	void rejectsBadTables() {
+		final byte[] encoded = encode(sample());
+		// lengths of 15 are past the limit, lengths of 1 for every symbol over-subscribe the code space
+		final byte[] tooLong = encoded.clone();
+		tooLong[0] = (byte) 0xFF;
+		assertThrows(IOException.class, () -> new HuffmanCodec().decode(tooLong, 0, tooLong.length, new byte[3000], 3000));
+		final byte[] overSubscribed = encoded.clone();
+		Arrays.fill(overSubscribed, 0, HuffmanCodec.TABLE_SIZE, (byte) 0x11);
+		assertThrows(IOException.class, () -> new HuffmanCodec().decode(overSubscribed, 0, overSubscribed.length, new byte[3000], 3000));
+	}
+
+	@Test
+	void rejectsBadSegmentLengths() {
+		final byte[] encoded = encode(sample());
+		final byte[] corrupt = encoded.clone();
+		corrupt[HuffmanCodec.TABLE_SIZE + 1] = (byte) 0x7F;
+		assertThrows(IOException.class, () -> new HuffmanCodec().decode(corrupt, 0, corrupt.length, new byte[3000], 3000));
+	}
+
+	@Test
+	void corruptBitsFailOnlyWithIOException() {
+		// flipped bits either decode to other bytes or are caught, they never run off an array
+		final byte[] encoded = encode(sample());
+		final Random random = new Random(6);
+		for (int round = 0; round < 2000; round++) {
+			final byte[] corrupt = encoded.clone();
+			for (int flips = random.nextInt(4) + 1; flips > 0; flips--) {
+				corrupt[random.nextInt(corrupt.length)] ^= (byte) (1 << random.nextInt(8));
+			}
+			try {
+				new HuffmanCodec().decode(corrupt, 0, corrupt.length, new byte[3000], 3000);
+			} catch (IOException ignored) {
+			}
+		}
+	}
+}
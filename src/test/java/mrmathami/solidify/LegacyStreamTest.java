@@ -0,0 +1,89 @@
+package mrmathami.solidify;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Streams written before the stream header existed must still read, as the standard wire format.
+class LegacyStreamTest {
+	enum Color {RED, GREEN, BLUE}
+
+	// written by the Liquifier before the header, the objects read in check
+	private static final String LEGACY_HEX = "fbff000068656c6c6f0200eeff000068c3a96c6c6f20e4b896e7958c20f09f98800000"
+			+ "8000000000800000008080ffffff7f80000000000000008080141a99be1c00000080ffff807f00800000c07ff0ff0940fb21182d"
+			+ "44548080ac2002fffdff0000c00100000003000000feff0000800440000000000000fdff0000c080feff0000806100fdff0000"
+			+ "02000000fbff0000776f726c64";
+
+	private static Set<ObjectProcessor<?>> processors() {
+		return TestProcessors.standard(ObjectProcessors.forEnum(Color.class), ObjectProcessors.forArray(String[].class));
+	}
+
+	private static void check(Solidifier solidifier) throws Exception {
+		assertEquals("hello", solidifier.solidify(String.class));
+		assertEquals("hello", solidifier.solidify(String.class));
+		assertEquals("h\u00e9llo \u4e16\u754c \ud83d\ude00", solidifier.solidify(String.class));
+		assertNull(solidifier.solidify(String.class));
+		assertEquals(0, solidifier.solidify(Integer.class));
+		assertEquals(Integer.MIN_VALUE, solidifier.solidify(Integer.class));
+		assertEquals(Integer.MAX_VALUE, solidifier.solidify(Integer.class));
+		assertEquals(Long.MIN_VALUE, solidifier.solidify(Long.class));
+		assertEquals(123456789012L, solidifier.solidify(Long.class));
+		assertEquals((short) -1, solidifier.solidify(Short.class));
+		assertEquals((byte) 0x7F, solidifier.solidify(Byte.class));
+		assertEquals(-0.0f, solidifier.solidify(Float.class));
+		assertEquals(Float.NaN, solidifier.solidify(Float.class));
+		assertEquals(Double.NEGATIVE_INFINITY, solidifier.solidify(Double.class));
+		assertEquals(Math.PI, solidifier.solidify(Double.class));
+		assertEquals(true, solidifier.solidify(Boolean.class));
+		assertEquals('\u20ac', solidifier.solidify(Character.class));
+		assertEquals(Color.BLUE, solidifier.solidify(Color.class));
+		assertNull(solidifier.solidify(Color.class));
+		assertArrayEquals(new Integer[]{1, 3, null}, solidifier.solidify(Integer[].class));
+		assertArrayEquals(new Double[]{2.5, null}, solidifier.solidify(Double[].class));
+		assertArrayEquals(new Boolean[]{true, false, null}, solidifier.solidify(Boolean[].class));
+		assertArrayEquals(new Character[]{'a', null}, solidifier.solidify(Character[].class));
+		assertArrayEquals(new String[]{"hello", null, "world"}, solidifier.solidify(String[].class));
+		assertTrue(solidifier.atEnd());
+	}
+
+	@Test
+	void readsLegacyStream() throws Exception {
+		check(new Solidifier(processors(), new ByteArrayInputStream(TestProcessors.bytes(LEGACY_HEX))));
+	}
+
+	@Test
+	void readsLegacyBuffer() throws Exception {
+		check(new Solidifier(processors(), ByteBuffer.wrap(TestProcessors.bytes(LEGACY_HEX))));
+	}
+
+	@Test
+	void readsEmptyInputAsLegacy() throws Exception {
+		assertTrue(new Solidifier(processors(), new ByteArrayInputStream(new byte[0])).atEnd());
+		assertTrue(new Solidifier(processors(), ByteBuffer.allocate(0)).atEnd());
+	}
+
+	@Test
+	void readsOneByteLegacyStream() throws Exception {
+		// a boolean is a single byte, shorter than the magic
+		final Solidifier solidifier = new Solidifier(TestProcessors.boxed(), new ByteArrayInputStream(new byte[]{(byte) 0x80}));
+		assertEquals(true, solidifier.solidify(Boolean.class));
+		assertTrue(solidifier.atEnd());
+	}
+
+	@Test
+	void constructorsDoNotReadTheHeader() throws Exception {
+		// the header of a bad stream only fails once read, and then every read fails
+		final Solidifier solidifier = new Solidifier(processors(), new ByteArrayInputStream(new byte[]{'S', 'D', 9, 0}));
+		assertThrows(IOException.class, () -> solidifier.solidify(String.class));
+		assertThrows(IOException.class, () -> solidifier.solidify(String.class));
+	}
+}
@@ -0,0 +1,168 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiquifierOptionsTest {
+	@Nonnull private static final ForkJoinPool POOL = new ForkJoinPool(2);
+	private static final int OBJECT_COUNT = 20000;
+
+	@AfterAll
+	static void shutdown() {
+		POOL.shutdown();
+	}
+
+	// counts what the Liquifier reports, from any thread
+	static final class CountingMetrics implements SolidifyMetrics {
+		@Nonnull final AtomicLong written = new AtomicLong();
+
+		@Override
+		public void objectWritten(@Nonnull Class<?> objectClass, long bytes, long nanos) {
+			if (objectClass == String.class) written.incrementAndGet();
+		}
+
+		@Override
+		public void objectRead(@Nonnull Class<?> objectClass, long bytes, long nanos) {
+		}
+
+		@Override
+		public void cacheLookup(@Nonnull Class<?> objectClass, boolean hit) {
+		}
+	}
+
+	@Nonnull
+	private static LiquifierOptions[] allOptions() {
+		final LiquifierOptions compact = LiquifierOptions.DEFAULT.withWireFormat(WireFormat.COMPACT);
+		return new LiquifierOptions[]{
+				LiquifierOptions.DEFAULT,
+				compact.withCompression(Compression.DEFLATE),
+				compact.withCompression(Compression.HUFFMAN).withCacheCapacity(16),
+				LiquifierOptions.DEFAULT.withAsyncBuffers(1),
+				compact.withCompression(Compression.DEFLATE).withAsyncBuffers(2).withCacheCapacity(100)
+		};
+	}
+
+	private static void check(@Nonnull Set<ObjectProcessor<?>> processors, @Nonnull Solidifier solidifier) throws Exception {
+		for (int i = 0; i < OBJECT_COUNT; i++) assertEquals("object " + i % 1000, solidifier.solidify(String.class));
+		assertTrue(solidifier.atEnd());
+	}
+
+	@Test
+	void roundTripsEveryOptionThroughAStream() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		for (final LiquifierOptions options : allOptions()) {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (final Liquifier liquifier = new Liquifier(processors, bytes, options)) {
+				for (int i = 0; i < OBJECT_COUNT; i++) liquifier.liquify(String.class, "object " + i % 1000);
+			}
+			check(processors, new Solidifier(processors, new ByteArrayInputStream(bytes.toByteArray())));
+		}
+	}
+
+	@Test
+	void roundTripsEveryOptionThroughABuffer() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		for (final LiquifierOptions options : allOptions()) {
+			final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+			try (final Liquifier liquifier = new Liquifier(processors, buffer, options)) {
+				for (int i = 0; i < OBJECT_COUNT; i++) liquifier.liquify(String.class, "object " + i % 1000);
+			}
+			((Buffer) buffer).flip();
+			check(processors, new Solidifier(processors, buffer));
+		}
+	}
+
+	@Test
+	void roundTripsEveryFrameOptionThroughAParallelLiquifier() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		for (final LiquifierOptions options : allOptions()) {
+			if (options.cacheCapacity > 0) continue;
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (final ParallelLiquifier liquifier = new ParallelLiquifier(processors, bytes, options, 1000, POOL)) {
+				for (int i = 0; i < OBJECT_COUNT; i++) liquifier.liquify(String.class, "object " + i % 1000);
+			}
+			check(processors, new Solidifier(processors, new ByteArrayInputStream(bytes.toByteArray())));
+		}
+	}
+
+	@Test
+	void asyncFlushPassesEverythingOn() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors, bytes, LiquifierOptions.DEFAULT.withAsyncBuffers(1))) {
+			int size = 0;
+			// every flush queues the same barrier, each must still wait for its own turn
+			for (int i = 0; i < 100; i++) {
+				liquifier.liquify(String.class, "flushed " + i);
+				liquifier.flush();
+				assertTrue(bytes.size() > size);
+				size = bytes.size();
+			}
+		}
+		final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(bytes.toByteArray()));
+		for (int i = 0; i < 100; i++) assertEquals("flushed " + i, solidifier.solidify(String.class));
+		assertTrue(solidifier.atEnd());
+	}
+
+	@Test
+	void reportsMetricsForEveryOutput() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final CountingMetrics metrics = new CountingMetrics();
+		final LiquifierOptions options = LiquifierOptions.DEFAULT.withMetrics(metrics);
+		try (final Liquifier liquifier = new Liquifier(processors, new ByteArrayOutputStream(), options)) {
+			for (int i = 0; i < 10; i++) liquifier.liquify(String.class, "measured");
+		}
+		try (final Liquifier liquifier = new Liquifier(processors, ByteBuffer.allocate(1024), options)) {
+			for (int i = 0; i < 10; i++) liquifier.liquify(String.class, "measured");
+		}
+		try (final ParallelLiquifier liquifier = new ParallelLiquifier(processors, new ByteArrayOutputStream(), options, 3, POOL)) {
+			for (int i = 0; i < 10; i++) liquifier.liquify(String.class, "measured");
+		}
+		assertEquals(30, metrics.written.get());
+	}
+
+	@Test
+	void rejectsInvalidOptions() {
+		assertThrows(IllegalArgumentException.class, () -> LiquifierOptions.DEFAULT.withAsyncBuffers(-1));
+		assertThrows(IllegalArgumentException.class, () -> LiquifierOptions.DEFAULT.withCacheCapacity(-1));
+		final LiquifierOptions bounded = LiquifierOptions.DEFAULT.withCacheCapacity(10);
+		assertThrows(IllegalArgumentException.class, () -> new ParallelLiquifier(TestProcessors.standard(), new ByteArrayOutputStream(), bounded, 100, POOL));
+	}
+
+	private static long asyncWriterThreads() {
+		return Thread.getAllStackTraces().keySet().stream().filter(thread -> thread.getName().equals("solidify-async-writer")).count();
+	}
+
+	@Test
+	void failedConstructorLeavesNoWriterThread() {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.boxed(new StringProcessor());
+		final LiquifierOptions options = LiquifierOptions.DEFAULT.withAsyncBuffers(2);
+		final long threads = asyncWriterThreads();
+		// a second processor for String makes the writer refuse the set
+		assertThrows(IllegalArgumentException.class, () -> new Liquifier(processors, new ByteArrayOutputStream(), options));
+		assertThrows(IllegalArgumentException.class, () -> new Liquifier(processors, ByteBuffer.allocate(64), options));
+		assertEquals(threads, asyncWriterThreads());
+	}
+
+	@Test
+	void optionsAreImmutable() {
+		final LiquifierOptions options = LiquifierOptions.DEFAULT.withCompression(Compression.DEFLATE);
+		assertEquals(Compression.NONE, LiquifierOptions.DEFAULT.compression);
+		assertEquals(Compression.DEFLATE, options.compression);
+		assertEquals(WireFormat.STANDARD, options.withCacheCapacity(5).wireFormat);
+		assertEquals(0, options.cacheCapacity);
+	}
+}
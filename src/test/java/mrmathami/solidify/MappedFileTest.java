@@ -0,0 +1,120 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedFileTest {
+	private static final int COUNT = 200;
+	// bytes before the stream, where the channel is positioned
+	private static final int PREFIX = 5;
+	private static final int[] WINDOW_SIZES = {MappedFile.MIN_WINDOW_SIZE, 17, 61, 1000};
+
+	@TempDir Path directory;
+
+	@Nonnull
+	private static String string(int i) {
+		final char[] chars = new char[i % 40 * 3];
+		Arrays.fill(chars, (char) ('a' + i % 26));
+		return new String(chars) + "\u00e9\u4e2d " + i % 30;
+	}
+
+	@Nonnull
+	private static int[] ints(int i) {
+		final int[] ints = new int[i % 17 * 5];
+		for (int j = 0; j < ints.length; j++) ints[j] = i * j - 1000;
+		return ints;
+	}
+
+	@Nonnull
+	private Path write(@Nonnull Set<ObjectProcessor<?>> processors, @Nonnull LiquifierOptions options) throws Exception {
+		final Path file = Files.createTempFile(directory, "mapped", ".bin");
+		try (final OutputStream stream = Files.newOutputStream(file)) {
+			stream.write(new byte[PREFIX]);
+			try (final Liquifier liquifier = new Liquifier(processors, stream, options)) {
+				for (int i = 0; i < COUNT; i++) {
+					liquifier.liquify(String.class, string(i));
+					liquifier.liquify(Long.class, i * 0x123456789L);
+					liquifier.liquify(int[].class, ints(i));
+					liquifier.liquify(Double.class, i / 3.0);
+				}
+			}
+		}
+		return file;
+	}
+
+	private static void check(@Nonnull Solidifier solidifier) throws Exception {
+		for (int i = 0; i < COUNT; i++) {
+			assertEquals(string(i), solidifier.solidify(String.class));
+			assertEquals(i * 0x123456789L, solidifier.solidify(Long.class));
+			assertArrayEquals(ints(i), solidifier.solidify(int[].class));
+			assertEquals(i / 3.0, solidifier.solidify(Double.class));
+		}
+		assertTrue(solidifier.atEnd());
+	}
+
+	@Test
+	void readsAcrossWindowBoundaries() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final LiquifierOptions compact = LiquifierOptions.DEFAULT.withWireFormat(WireFormat.COMPACT);
+		final LiquifierOptions[] allOptions = {
+				LiquifierOptions.DEFAULT,
+				compact,
+				compact.withCacheCapacity(8),
+				LiquifierOptions.DEFAULT.withCompression(Compression.DEFLATE)
+		};
+		for (final LiquifierOptions options : allOptions) {
+			final Path file = write(processors, options);
+			for (final int windowSize : WINDOW_SIZES) {
+				try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+					channel.position(PREFIX);
+					check(new Solidifier(processors, channel, SolidifierOptions.DEFAULT, windowSize));
+					// mapping leaves the channel where it was
+					assertEquals(PREFIX, channel.position());
+				}
+			}
+		}
+	}
+
+	@Test
+	void needsTheChannelForTheNextWindow() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final Path file = write(processors, LiquifierOptions.DEFAULT);
+		final Solidifier solidifier;
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			channel.position(PREFIX);
+			solidifier = new Solidifier(processors, channel, SolidifierOptions.DEFAULT, 64);
+			assertEquals(string(0), solidifier.solidify(String.class));
+		}
+		// the later windows cannot be mapped any more
+		assertThrows(IOException.class, () -> check(solidifier));
+	}
+
+	@Test
+	void failsOnATruncatedLastWindow() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final Path file = write(processors, LiquifierOptions.DEFAULT);
+		final byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			channel.position(PREFIX);
+			final Solidifier solidifier = new Solidifier(processors, channel, SolidifierOptions.DEFAULT, 64);
+			assertThrows(EOFException.class, () -> check(solidifier));
+		}
+	}
+}
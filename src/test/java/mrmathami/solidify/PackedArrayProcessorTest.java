@@ -0,0 +1,161 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PackedArrayProcessorTest {
+	// around the 128 value blocks, delta arrays start their blocks after the first value
+	private static final int[] LENGTHS = {0, 1, 2, 127, 128, 129, 130, 256, 257, 1000};
+
+	@Nonnull
+	private static Set<ObjectProcessor<?>> processors(boolean delta) {
+		return TestProcessors.boxed(
+				delta ? ObjectProcessors.DELTA_INT_ARRAY_PROCESSOR : ObjectProcessors.FOR_INT_ARRAY_PROCESSOR,
+				delta ? ObjectProcessors.DELTA_LONG_ARRAY_PROCESSOR : ObjectProcessors.FOR_LONG_ARRAY_PROCESSOR);
+	}
+
+	private static void checkInts(@Nonnull int[] array) throws Exception {
+		for (final boolean delta : new boolean[]{true, false}) {
+			for (final WireFormat wireFormat : WireFormat.values()) {
+				assertArrayEquals(array, TestProcessors.roundTrip(processors(delta), wireFormat, int[].class, array));
+			}
+		}
+	}
+
+	private static void checkLongs(@Nonnull long[] array) throws Exception {
+		for (final boolean delta : new boolean[]{true, false}) {
+			for (final WireFormat wireFormat : WireFormat.values()) {
+				assertArrayEquals(array, TestProcessors.roundTrip(processors(delta), wireFormat, long[].class, array));
+			}
+		}
+	}
+
+	@Test
+	void roundTripsNull() throws Exception {
+		assertNull(TestProcessors.roundTrip(processors(true), WireFormat.STANDARD, int[].class, null));
+		assertNull(TestProcessors.roundTrip(processors(false), WireFormat.STANDARD, long[].class, null));
+	}
+
+	@Test
+	void roundTripsSequences() throws Exception {
+		for (final int length : LENGTHS) {
+			final int[] ints = new int[length];
+			final long[] longs = new long[length];
+			for (int i = 0; i < length; i++) {
+				ints[i] = 1000 + i * 3;
+				longs[i] = 1_000_000_000_000L + i * 7L;
+			}
+			checkInts(ints);
+			checkLongs(longs);
+		}
+	}
+
+	@Test
+	void roundTripsConstantBlocks() throws Exception {
+		for (final int length : LENGTHS) {
+			final int[] ints = new int[length];
+			final long[] longs = new long[length];
+			Arrays.fill(ints, -42);
+			Arrays.fill(longs, Long.MIN_VALUE);
+			checkInts(ints);
+			checkLongs(longs);
+		}
+	}
+
+	@Test
+	void roundTripsExtremes() throws Exception {
+		// deltas between the extremes overflow, the widest blocks
+		for (final int length : LENGTHS) {
+			final int[] ints = new int[length];
+			final long[] longs = new long[length];
+			for (int i = 0; i < length; i++) {
+				ints[i] = i % 2 == 0 ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+				longs[i] = i % 3 == 0 ? Long.MIN_VALUE : i % 3 == 1 ? Long.MAX_VALUE : 0L;
+			}
+			checkInts(ints);
+			checkLongs(longs);
+		}
+	}
+
+	@Test
+	void roundTripsRandomValues() throws Exception {
+		final Random random = new Random(9);
+		for (final int length : LENGTHS) {
+			final int[] ints = new int[length];
+			final long[] longs = new long[length];
+			for (int i = 0; i < length; i++) {
+				ints[i] = random.nextInt() >>> (i % 32);
+				longs[i] = random.nextLong() >> (i % 64);
+			}
+			checkInts(ints);
+			checkLongs(longs);
+		}
+	}
+
+	@Test
+	void reusesTheBitScratchAcrossArrays() throws Exception {
+		// many arrays through one writer and reader, with a cached one in between
+		final Set<ObjectProcessor<?>> processors = processors(true);
+		final Random random = new Random(3);
+		final int[][] arrays = new int[50][];
+		for (int i = 0; i < arrays.length; i++) {
+			arrays[i] = new int[random.nextInt(300)];
+			for (int j = 0; j < arrays[i].length; j++) arrays[i][j] = random.nextInt();
+		}
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors, bytes)) {
+			for (final int[] array : arrays) liquifier.liquify(int[].class, array);
+			liquifier.liquify(int[].class, arrays[7]);
+		}
+		final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(bytes.toByteArray()));
+		int[] seventh = null;
+		for (int i = 0; i < arrays.length; i++) {
+			final int[] array = solidifier.solidify(int[].class);
+			assertArrayEquals(arrays[i], array);
+			if (i == 7) seventh = array;
+		}
+		assertSame(seventh, solidifier.solidify(int[].class));
+	}
+
+	@Nonnull
+	private static byte[] write(@Nonnull Set<ObjectProcessor<?>> processors, @Nonnull int[] array) throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors, bytes)) {
+			liquifier.liquify(int[].class, array);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Test
+	void rejectsInvalidWidth() throws Exception {
+		final Set<ObjectProcessor<?>> processors = processors(false);
+		final byte[] bytes = write(processors, new int[]{1, 2, 3});
+		// header, 2 byte packed length, then the width of the first block
+		bytes[StreamHeader.SIZE + 2] = 33;
+		assertThrows(IOException.class, () -> new Solidifier(processors, new ByteArrayInputStream(bytes)).solidify(int[].class));
+	}
+
+	@Test
+	void rejectsTruncatedBlocks() throws Exception {
+		final Set<ObjectProcessor<?>> processors = processors(true);
+		final int[] array = new int[200];
+		for (int i = 0; i < array.length; i++) array[i] = i * i;
+		final byte[] bytes = write(processors, array);
+		for (final int cut : new int[]{1, 8, bytes.length / 2}) {
+			final byte[] truncated = Arrays.copyOf(bytes, bytes.length - cut);
+			assertThrows(IOException.class, () -> new Solidifier(processors, new ByteArrayInputStream(truncated)).solidify(int[].class));
+		}
+	}
+}
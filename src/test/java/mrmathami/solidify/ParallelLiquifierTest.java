@@ -0,0 +1,206 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelLiquifierTest {
+	@Nonnull private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+	// a value its processor refuses to write when negative
+	static final class Refused {
+		final int value;
+
+		Refused(int value) {
+			this.value = value;
+		}
+	}
+
+	static final class RefusedProcessor implements ObjectProcessor<Refused> {
+		@Nonnull
+		@Override
+		public CacheType getCacheType() {
+			return CacheType.NO_CACHE;
+		}
+
+		@Nonnull
+		@Override
+		public Class<Refused> getObjectClass() {
+			return Refused.class;
+		}
+
+		@Override
+		public void liquify(@Nonnull ObjectWriter objectWriter, @Nullable ObjectWriter.Cache<Refused> writerCache, @Nullable Refused object) throws IOException, LiquifierException {
+			if (object == null || object.value < 0) throw new LiquifierException("Refused.");
+			objectWriter.writeInt(object.value);
+		}
+
+		@Nonnull
+		@Override
+		public Refused solidify(@Nonnull ObjectReader objectReader, @Nullable ObjectReader.Cache<Refused> readerCache) throws IOException {
+			return new Refused(objectReader.readInt());
+		}
+	}
+
+	// a stream that remembers being closed
+	static final class ClosingStream extends ByteArrayOutputStream {
+		boolean closed;
+
+		@Override
+		public void close() {
+			this.closed = true;
+		}
+	}
+
+	@AfterAll
+	static void shutdown() {
+		POOL.shutdown();
+	}
+
+	@Nonnull
+	private static Set<ObjectProcessor<?>> processors() {
+		return TestProcessors.standard(new RefusedProcessor());
+	}
+
+	private static void check(@Nonnull WireFormat wireFormat, @Nonnull Compression compression, int frameObjects, int objectCount) throws Exception {
+		final Set<ObjectProcessor<?>> processors = processors();
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final ParallelLiquifier liquifier = new ParallelLiquifier(processors, bytes, LiquifierOptions.DEFAULT.withWireFormat(wireFormat).withCompression(compression), frameObjects, POOL)) {
+			for (int i = 0; i < objectCount; i++) {
+				// repeats within and across frames, every frame has caches of its own
+				liquifier.liquify(String.class, "s" + i % 50);
+				liquifier.liquify(Integer.class, i % 3 == 0 ? null : i);
+			}
+		}
+		final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(bytes.toByteArray()));
+		for (int i = 0; i < objectCount; i++) {
+			assertEquals("s" + i % 50, solidifier.solidify(String.class));
+			assertEquals(i % 3 == 0 ? null : i, solidifier.solidify(Integer.class));
+		}
+		assertTrue(solidifier.atEnd());
+	}
+
+	@Test
+	void roundTripsEmptyStream() throws Exception {
+		check(WireFormat.STANDARD, Compression.NONE, 128, 0);
+	}
+
+	@Test
+	void roundTripsAroundFrameBoundaries() throws Exception {
+		// two objects per iteration, so 64 iterations fill a frame of 128
+		for (final int objectCount : new int[]{1, 63, 64, 65, 128, 129, 1000}) {
+			check(WireFormat.STANDARD, Compression.NONE, 128, objectCount);
+			check(WireFormat.COMPACT, Compression.DEFLATE, 128, objectCount);
+			check(WireFormat.COMPACT, Compression.HUFFMAN, 128, objectCount);
+		}
+	}
+
+	@Test
+	void roundTripsSingleObjectFrames() throws Exception {
+		check(WireFormat.STANDARD, Compression.NONE, 1, 100);
+	}
+
+	@Test
+	void rejectsInvalidFrameSize() {
+		assertThrows(IllegalArgumentException.class, () -> new ParallelLiquifier(processors(), new ByteArrayOutputStream(), LiquifierOptions.DEFAULT, 0, POOL));
+	}
+
+	@Test
+	void closeWritesPendingFramesAndClosesTheStream() throws Exception {
+		final ClosingStream bytes = new ClosingStream();
+		final ParallelLiquifier liquifier = new ParallelLiquifier(processors(), bytes, LiquifierOptions.DEFAULT, 1000, POOL);
+		liquifier.liquify(String.class, "pending");
+		liquifier.close();
+		assertTrue(bytes.closed);
+		final Solidifier solidifier = new Solidifier(processors(), new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals("pending", solidifier.solidify(String.class));
+		assertTrue(solidifier.atEnd());
+		// closing again does nothing
+		liquifier.close();
+	}
+
+	@Test
+	void failedFrameIsNeverSkipped() throws Exception {
+		final Set<ObjectProcessor<?>> processors = processors();
+		final ClosingStream bytes = new ClosingStream();
+		final ParallelLiquifier liquifier = new ParallelLiquifier(processors, bytes, LiquifierOptions.DEFAULT, 2, POOL);
+		liquifier.liquify(Refused.class, new Refused(1));
+		liquifier.liquify(Refused.class, new Refused(2));
+		liquifier.flush();
+		final int written = bytes.size();
+		try {
+			liquifier.liquify(Refused.class, new Refused(3));
+			liquifier.liquify(Refused.class, new Refused(-1));
+			liquifier.liquify(Refused.class, new Refused(4));
+			liquifier.liquify(Refused.class, new Refused(5));
+		} catch (LiquifierException exception) {
+			// the failed frame may already be done by a later liquify, which throws it as well
+		}
+
+		// the failed frame stays first in line, nothing after it reaches the stream
+		final IOException first = assertThrows(IOException.class, liquifier::flush);
+		assertTrue(first.getCause() instanceof LiquifierException);
+		assertThrows(IOException.class, liquifier::flush);
+		assertEquals(written, bytes.size());
+		final IOException onClose = assertThrows(IOException.class, liquifier::close);
+		assertTrue(onClose.getCause() instanceof LiquifierException);
+		assertTrue(bytes.closed);
+		assertEquals(written, bytes.size());
+
+		// what was written is a complete stream of the frames before the failure
+		final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals(1, solidifier.solidify(Refused.class).value);
+		assertEquals(2, solidifier.solidify(Refused.class).value);
+		assertTrue(solidifier.atEnd());
+	}
+
+	@Test
+	void closeThrowsTheFirstFailure() throws Exception {
+		final ClosingStream bytes = new ClosingStream();
+		// both objects stay in the open frame, so nothing can fail before close
+		final ParallelLiquifier liquifier = new ParallelLiquifier(processors(), bytes, LiquifierOptions.DEFAULT, 4, POOL);
+		liquifier.liquify(Refused.class, new Refused(-1));
+		liquifier.liquify(Refused.class, null);
+		final IOException exception = assertThrows(IOException.class, liquifier::close);
+		assertEquals("Refused.", exception.getCause().getMessage());
+		assertTrue(bytes.closed);
+		// only the stream header made it
+		assertTrue(new Solidifier(processors(), new ByteArrayInputStream(bytes.toByteArray())).atEnd());
+	}
+
+	@Test
+	void writesTheHeaderWithTheFirstFrame() throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ParallelLiquifier liquifier = new ParallelLiquifier(processors(), bytes, LiquifierOptions.DEFAULT, 2, POOL);
+		assertEquals(0, bytes.size());
+		liquifier.liquify(String.class, "first");
+		assertEquals(0, bytes.size());
+		liquifier.flush();
+		assertTrue(bytes.size() > StreamHeader.SIZE + ParallelLiquifier.FRAME_HEADER_SIZE);
+		liquifier.close();
+		final Solidifier solidifier = new Solidifier(processors(), new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals("first", solidifier.solidify(String.class));
+		assertTrue(solidifier.atEnd());
+	}
+
+	@Test
+	void rejectsLiquifyAfterClose() throws Exception {
+		final ClosingStream bytes = new ClosingStream();
+		final ParallelLiquifier liquifier = new ParallelLiquifier(processors(), bytes, LiquifierOptions.DEFAULT, 2, POOL);
+		liquifier.close();
+		assertThrows(IllegalStateException.class, () -> liquifier.liquify(String.class, "late"));
+		// an empty stream still has its header
+		assertEquals(StreamHeader.SIZE, bytes.size());
+	}
+}
@@ -0,0 +1,101 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefetchingSolidifierTest {
+	@Nonnull
+	private static byte[] write(@Nonnull Set<ObjectProcessor<?>> processors, int objectCount) throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors, bytes)) {
+			for (int i = 0; i < objectCount; i++) liquifier.liquify(String.class, i % 7 == 0 ? null : "object " + i);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Test
+	void deliversEveryObjectAcrossBatches() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		for (final int objectCount : new int[]{0, 1, 63, 64, 65, 1000}) {
+			final byte[] bytes = write(processors, objectCount);
+			try (final PrefetchingSolidifier<String> prefetching = new PrefetchingSolidifier<>(new Solidifier(processors, new ByteArrayInputStream(bytes)), String.class, 256)) {
+				for (int i = 0; i < objectCount; i++) {
+					assertTrue(prefetching.hasNext());
+					assertEquals(i % 7 == 0 ? null : "object " + i, prefetching.next());
+				}
+				assertFalse(prefetching.hasNext());
+				assertThrows(EOFException.class, prefetching::solidify);
+			}
+		}
+	}
+
+	@Test
+	void deliversObjectsBeforeTheFailure() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final byte[] bytes = write(processors, 100);
+		// cut in the middle of the last object
+		final byte[] truncated = Arrays.copyOf(bytes, bytes.length - 2);
+		try (final PrefetchingSolidifier<String> prefetching = new PrefetchingSolidifier<>(new Solidifier(processors, new ByteArrayInputStream(truncated)), String.class, 16)) {
+			assertNull(prefetching.solidify());
+			for (int i = 1; i < 99; i++) assertEquals(i % 7 == 0 ? null : "object " + i, prefetching.solidify());
+			assertTrue(prefetching.hasNext());
+			assertThrows(IOException.class, prefetching::solidify);
+		}
+	}
+
+	@Test
+	void closeStopsAReaderBlockedOnAFullQueue() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final byte[] bytes = write(processors, 10000);
+		final PrefetchingSolidifier<String> prefetching = new PrefetchingSolidifier<>(new Solidifier(processors, new ByteArrayInputStream(bytes)), String.class, 64);
+		assertNull(prefetching.solidify());
+		// give the reader thread time to fill the queue and block on it
+		Thread.sleep(100L);
+		final long start = System.nanoTime();
+		prefetching.close();
+		// the join only runs out when the reader thread did not stop
+		assertTrue(System.nanoTime() - start < 900_000_000L);
+		assertThrows(IOException.class, prefetching::solidify);
+		prefetching.close();
+	}
+
+	@Test
+	void closeLeavesTheChannelOpen() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final byte[] bytes = write(processors, 10);
+		final Pipe pipe = Pipe.open();
+		try (final Pipe.SinkChannel sink = pipe.sink(); final Pipe.SourceChannel source = pipe.source()) {
+			// all but the last byte, so the reader thread ends up waiting on the channel
+			sink.write(ByteBuffer.wrap(bytes, 0, bytes.length - 1));
+			final PrefetchingSolidifier<String> prefetching = new PrefetchingSolidifier<>(new Solidifier(processors, Channels.newInputStream(source)), String.class, 4);
+			assertNull(prefetching.solidify());
+			// give the reader thread time to block on the channel
+			Thread.sleep(100L);
+			prefetching.close();
+			// an interrupt would have closed the channel under the reader thread
+			assertTrue(source.isOpen());
+		}
+	}
+
+	@Test
+	void rejectsInvalidPrefetchSize() {
+		final Solidifier solidifier = new Solidifier(TestProcessors.standard(), new ByteArrayInputStream(new byte[0]));
+		assertThrows(IllegalArgumentException.class, () -> new PrefetchingSolidifier<>(solidifier, String.class, 0));
+	}
+}
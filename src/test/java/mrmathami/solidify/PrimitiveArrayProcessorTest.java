@@ -0,0 +1,122 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrimitiveArrayProcessorTest {
+	// around the one byte length, the two byte length and the extended length
+	private static final int[] LENGTHS = {0, 1, 63, 64, 127, 128, 129, 0x7FFF, 0x8000, 0x8001};
+
+	// every kind of primitive array of the given length, the extremes first
+	@Nonnull
+	private static Object[] arrays(int length) {
+		final byte[] bytes = new byte[length];
+		final short[] shorts = new short[length];
+		final int[] ints = new int[length];
+		final long[] longs = new long[length];
+		final float[] floats = new float[length];
+		final double[] doubles = new double[length];
+		final boolean[] booleans = new boolean[length];
+		final char[] chars = new char[length];
+		final float[] specialFloats = {Float.NaN, Float.intBitsToFloat(0x7FC00123), -0.0f, Float.NEGATIVE_INFINITY, Float.MIN_VALUE, Float.MAX_VALUE};
+		final double[] specialDoubles = {Double.NaN, Double.longBitsToDouble(0x7FF8000000000123L), -0.0, Double.POSITIVE_INFINITY, Double.MIN_VALUE, -Double.MAX_VALUE};
+		for (int i = 0; i < length; i++) {
+			bytes[i] = i == 0 ? Byte.MIN_VALUE : i == 1 ? Byte.MAX_VALUE : (byte) (i * 37);
+			shorts[i] = i == 0 ? Short.MIN_VALUE : i == 1 ? Short.MAX_VALUE : (short) (i * 7919);
+			ints[i] = i == 0 ? Integer.MIN_VALUE : i == 1 ? Integer.MAX_VALUE : i * 0x9E3779B9;
+			longs[i] = i == 0 ? Long.MIN_VALUE : i == 1 ? Long.MAX_VALUE : i * 0x9E3779B97F4A7C15L;
+			floats[i] = i < specialFloats.length ? specialFloats[i] : i * 0.37f;
+			doubles[i] = i < specialDoubles.length ? specialDoubles[i] : i * -0.37;
+			booleans[i] = (i * 0x9E3779B9 & 0x100) != 0;
+			chars[i] = i == 0 ? Character.MIN_VALUE : i == 1 ? Character.MAX_VALUE : (char) (i * 7919);
+		}
+		return new Object[]{bytes, shorts, ints, longs, floats, doubles, booleans, chars};
+	}
+
+	// compares floating point values by their raw bits, so -0.0 counts, the wire format keeps only one NaN
+	private static void assertSameArray(@Nonnull Object expected, @Nonnull Object actual) {
+		assertSame(expected.getClass(), actual.getClass());
+		if (expected instanceof float[]) {
+			final float[] floats = (float[]) expected;
+			final float[] result = (float[]) actual;
+			assertEquals(floats.length, result.length);
+			for (int i = 0; i < floats.length; i++) assertEquals(Float.floatToIntBits(floats[i]), Float.floatToRawIntBits(result[i]));
+		} else if (expected instanceof double[]) {
+			final double[] doubles = (double[]) expected;
+			final double[] result = (double[]) actual;
+			assertEquals(doubles.length, result.length);
+			for (int i = 0; i < doubles.length; i++) assertEquals(Double.doubleToLongBits(doubles[i]), Double.doubleToRawLongBits(result[i]));
+		} else {
+			assertTrue(Arrays.deepEquals(new Object[]{expected}, new Object[]{actual}));
+		}
+	}
+
+	@Test
+	void roundTripsEveryKindAroundLengthBoundaries() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		for (final WireFormat wireFormat : WireFormat.values()) {
+			for (final int length : LENGTHS) {
+				for (final Object array : arrays(length)) {
+					@SuppressWarnings("unchecked") final Class<Object> arrayClass = (Class<Object>) array.getClass();
+					assertSameArray(array, TestProcessors.roundTrip(processors, wireFormat, arrayClass, array));
+				}
+			}
+		}
+	}
+
+	@Test
+	void cachesByIdentity() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final int[] shared = {1, 2, 3};
+		final int[] equal = {1, 2, 3};
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors, bytes)) {
+			liquifier.liquify(int[].class, shared);
+			liquifier.liquify(int[].class, shared);
+			liquifier.liquify(int[].class, equal);
+			liquifier.liquify(int[].class, null);
+			liquifier.liquify(int[].class, new int[0]);
+		}
+		final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(bytes.toByteArray()));
+		final int[] first = solidifier.solidify(int[].class);
+		assertSame(first, solidifier.solidify(int[].class));
+		final int[] third = solidifier.solidify(int[].class);
+		assertNotSame(first, third);
+		assertArrayEquals(equal, third);
+		assertNull(solidifier.solidify(int[].class));
+		assertArrayEquals(new int[0], solidifier.solidify(int[].class));
+		assertTrue(solidifier.atEnd());
+	}
+
+	@Test
+	void rejectsTruncatedAndUnknownReferences() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		for (final Object array : arrays(200)) {
+			@SuppressWarnings("unchecked") final Class<Object> arrayClass = (Class<Object>) array.getClass();
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (final Liquifier liquifier = new Liquifier(processors, bytes)) {
+				liquifier.liquify(arrayClass, array);
+			}
+			final byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 1);
+			assertThrows(IOException.class, () -> new Solidifier(processors, new ByteArrayInputStream(truncated)).solidify(arrayClass));
+		}
+		// the header, then a reference to index 5 of an int array cache holding only null and the empty array
+		final byte[] header = Arrays.copyOf(TestProcessors.bytes("53440100"), 5);
+		header[4] = 5;
+		assertThrows(IOException.class, () -> new Solidifier(processors, new ByteArrayInputStream(header)).solidify(int[].class));
+	}
+}
@@ -0,0 +1,190 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResetTest {
+	private static final int MESSAGE_COUNT = 50;
+
+	@Nonnull
+	private static LiquifierOptions[] allOptions() {
+		final LiquifierOptions compact = LiquifierOptions.DEFAULT.withWireFormat(WireFormat.COMPACT);
+		return new LiquifierOptions[]{
+				LiquifierOptions.DEFAULT,
+				compact,
+				compact.withCompression(Compression.DEFLATE),
+				LiquifierOptions.DEFAULT.withCompression(Compression.HUFFMAN),
+				compact.withCacheCapacity(3)
+		};
+	}
+
+	// every message repeats objects within itself and with the messages before it
+	private static void writeMessage(@Nonnull Liquifier liquifier, int message) throws Exception {
+		for (int i = 0; i <= message % 7; i++) {
+			liquifier.liquify(String.class, "message " + message % 3);
+			liquifier.liquify(String.class, "object " + i);
+			liquifier.liquify(Integer.class, message * i);
+		}
+		liquifier.liquify(int[].class, new int[]{message, -message});
+	}
+
+	private static void readMessage(@Nonnull Solidifier solidifier, int message) throws Exception {
+		for (int i = 0; i <= message % 7; i++) {
+			assertEquals("message " + message % 3, solidifier.solidify(String.class));
+			assertEquals("object " + i, solidifier.solidify(String.class));
+			assertEquals(message * i, solidifier.solidify(Integer.class));
+		}
+		assertArrayEquals(new int[]{message, -message}, solidifier.solidify(int[].class));
+		assertTrue(solidifier.atEnd());
+	}
+
+	@Nonnull
+	private static byte[] fresh(@Nonnull Set<ObjectProcessor<?>> processors, @Nonnull LiquifierOptions options, int message) throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors, bytes, options)) {
+			writeMessage(liquifier, message);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Test
+	void resetStreamWritesWhatANewLiquifierWrites() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		for (final LiquifierOptions options : allOptions()) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final Liquifier liquifier = new Liquifier(processors, bytes, options);
+			for (int message = 0; message < MESSAGE_COUNT; message++) {
+				if (message > 0) {
+					bytes = new ByteArrayOutputStream();
+					liquifier.reset(bytes);
+				}
+				writeMessage(liquifier, message);
+				// every other message is closed, a closed Liquifier can be reset as well
+				if (message % 2 == 0) liquifier.close(); else liquifier.flush();
+				assertArrayEquals(fresh(processors, options, message), bytes.toByteArray());
+			}
+		}
+	}
+
+	@Test
+	void resetBufferWritesWhatANewLiquifierWrites() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		for (final LiquifierOptions options : allOptions()) {
+			final ByteBuffer buffer = ByteBuffer.allocate(4096);
+			final Liquifier liquifier = new Liquifier(processors, buffer, options);
+			for (int message = 0; message < MESSAGE_COUNT; message++) {
+				if (message > 0) {
+					((Buffer) buffer).clear();
+					liquifier.reset(buffer);
+				}
+				writeMessage(liquifier, message);
+				liquifier.flush();
+				assertArrayEquals(fresh(processors, options, message), Arrays.copyOf(buffer.array(), buffer.position()));
+			}
+			liquifier.close();
+		}
+	}
+
+	@Test
+	void resetDoesNotCloseThePreviousOutput() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final ParallelLiquifierTest.ClosingStream first = new ParallelLiquifierTest.ClosingStream();
+		final Liquifier liquifier = new Liquifier(processors, first, LiquifierOptions.DEFAULT.withCompression(Compression.DEFLATE));
+		writeMessage(liquifier, 1);
+		liquifier.reset(new ByteArrayOutputStream());
+		assertFalse(first.closed);
+		// the previous output was flushed, so it holds the whole message
+		readMessage(new Solidifier(processors, new ByteArrayInputStream(first.toByteArray())), 1);
+	}
+
+	@Test
+	void asyncLiquifierCannotBeReset() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		try (final Liquifier liquifier = new Liquifier(processors, new ByteArrayOutputStream(), LiquifierOptions.DEFAULT.withAsyncBuffers(1))) {
+			assertThrows(IllegalStateException.class, () -> liquifier.reset(new ByteArrayOutputStream()));
+			assertThrows(IllegalStateException.class, () -> liquifier.reset(ByteBuffer.allocate(16)));
+		}
+	}
+
+	@Test
+	void resetSolidifierReadsEveryKindOfMessage() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		// the options change from message to message, so a reset switches formats, compression and capacities
+		final LiquifierOptions[] options = allOptions();
+		final byte[][] messages = new byte[MESSAGE_COUNT][];
+		for (int message = 0; message < MESSAGE_COUNT; message++) {
+			messages[message] = fresh(processors, options[message % options.length], message);
+		}
+		for (final boolean buffers : new boolean[]{false, true}) {
+			final Solidifier solidifier = buffers
+					? new Solidifier(processors, ByteBuffer.wrap(messages[0]))
+					: new Solidifier(processors, new ByteArrayInputStream(messages[0]));
+			for (int message = 0; message < MESSAGE_COUNT; message++) {
+				if (message > 0) {
+					if (buffers) {
+						solidifier.reset(ByteBuffer.wrap(messages[message]));
+					} else {
+						solidifier.reset(new ByteArrayInputStream(messages[message]));
+					}
+				}
+				readMessage(solidifier, message);
+			}
+		}
+	}
+
+	@Test
+	void resetSolidifierReadsFramesAndLegacyStreams() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+		final ForkJoinPool pool = new ForkJoinPool(2);
+		try (final ParallelLiquifier liquifier = new ParallelLiquifier(processors, frames, LiquifierOptions.DEFAULT, 2, pool)) {
+			for (int i = 0; i < 5; i++) liquifier.liquify(String.class, "frame " + i);
+		} finally {
+			pool.shutdown();
+		}
+		final byte[] plain = fresh(processors, LiquifierOptions.DEFAULT, 3);
+		// a stream from before the header, a standard stream without its first four bytes
+		final byte[] legacy = Arrays.copyOfRange(plain, StreamHeader.SIZE, plain.length);
+
+		final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(frames.toByteArray()));
+		for (int round = 0; round < 2; round++) {
+			for (int i = 0; i < 5; i++) assertEquals("frame " + i, solidifier.solidify(String.class));
+			assertTrue(solidifier.atEnd());
+			solidifier.reset(new ByteArrayInputStream(legacy));
+			readMessage(solidifier, 3);
+			solidifier.reset(ByteBuffer.wrap(plain));
+			readMessage(solidifier, 3);
+			solidifier.reset(new ByteArrayInputStream(frames.toByteArray()));
+		}
+	}
+
+	@Test
+	void failedResetStopsReadingThePreviousInput() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final byte[] message = fresh(processors, LiquifierOptions.DEFAULT, 5);
+		final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(message));
+		assertEquals("message 2", solidifier.solidify(String.class));
+		assertThrows(IOException.class, () -> solidifier.reset(new ByteArrayInputStream(new byte[]{'S', 'D', 9, 0})));
+		assertThrows(IOException.class, () -> solidifier.solidify(String.class));
+		assertThrows(IOException.class, () -> solidifier.reset(ByteBuffer.wrap(new byte[]{'S', 'D', 1, (byte) 0x80})));
+		assertThrows(IOException.class, solidifier::atEnd);
+		// a good input afterwards is read from its start
+		solidifier.reset(ByteBuffer.wrap(message));
+		readMessage(solidifier, 5);
+	}
+}
@@ -0,0 +1,211 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import mrmathami.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingCacheTest {
+	private static final int[] CAPACITIES = {1, 2, 3, 127, 128, 129};
+
+	// a linked list cached by identity, whose processor nests its own class
+	static final class Node {
+		final int value;
+		@Nullable final Node next;
+
+		Node(int value, @Nullable Node next) {
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	static final class NodeProcessor implements ObjectProcessor<Node> {
+		@Nonnull private static final Node[] PRELOAD_OBJECTS = {null};
+
+		@Nonnull
+		@Override
+		public CacheType getCacheType() {
+			return CacheType.IDENTITY_CACHE;
+		}
+
+		@Nonnull
+		@Override
+		public Node[] preloadCache() {
+			return PRELOAD_OBJECTS;
+		}
+
+		@Nonnull
+		@Override
+		public Class<Node> getObjectClass() {
+			return Node.class;
+		}
+
+		@Override
+		public void liquify(@Nonnull ObjectWriter objectWriter, @Nullable ObjectWriter.Cache<Node> writerCache, @Nullable Node object) throws IOException, LiquifierException {
+			assert writerCache != null;
+			final int index = writerCache.putIfAbsent(object);
+			if (index >= 0) {
+				objectWriter.writePackedInt(index);
+			} else {
+				assert object != null;
+				objectWriter.writePackedInt(-1);
+				objectWriter.writeInt(object.value);
+				objectWriter.writeObject(Node.class, object.next);
+			}
+		}
+
+		@Nullable
+		@Override
+		public Node solidify(@Nonnull ObjectReader objectReader, @Nullable ObjectReader.Cache<Node> readerCache) throws IOException, SolidifierException {
+			assert readerCache != null;
+			final int index = objectReader.readPackedInt();
+			try {
+				if (index >= 0) return readerCache.get(index);
+				final ObjectReader.CacheSlot<Node> slot = readerCache.alloc();
+				final int value = objectReader.readInt();
+				final Node node = new Node(value, objectReader.readObject(Node.class));
+				slot.put(node);
+				return node;
+			} catch (ObjectReader.CacheException exception) {
+				throw new IOException("Invalid input data.", exception);
+			}
+		}
+	}
+
+	@Nonnull
+	private static Set<ObjectProcessor<?>> processors() {
+		return TestProcessors.standard(new NodeProcessor());
+	}
+
+	@Nonnull
+	private static byte[] writeStrings(@Nonnull LiquifierOptions options, @Nonnull String... objects) throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors(), bytes, options)) {
+			for (final String object : objects) liquifier.liquify(String.class, object);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Test
+	void roundTripsAroundTheCapacity() throws Exception {
+		final Set<ObjectProcessor<?>> processors = processors();
+		final int[][] arrays = new int[200][];
+		for (int i = 0; i < arrays.length; i++) arrays[i] = new int[]{i, -i, Integer.MIN_VALUE, Integer.MAX_VALUE};
+		final LiquifierOptions compact = LiquifierOptions.DEFAULT.withWireFormat(WireFormat.COMPACT);
+		for (final LiquifierOptions options : new LiquifierOptions[]{LiquifierOptions.DEFAULT, compact, compact.withCompression(Compression.DEFLATE)}) {
+			for (final int capacity : CAPACITIES) {
+				final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				try (final Liquifier liquifier = new Liquifier(processors, bytes, options.withCacheCapacity(capacity))) {
+					// repeats at every distance up to a few hundred, so around every capacity
+					for (int i = 0; i < 5000; i++) {
+						liquifier.liquify(String.class, i % 11 == 0 ? null : "s" + (i * 7919) % 300);
+						liquifier.liquify(int[].class, arrays[(i * 31) % arrays.length]);
+					}
+				}
+				final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(bytes.toByteArray()));
+				for (int i = 0; i < 5000; i++) {
+					assertEquals(i % 11 == 0 ? null : "s" + (i * 7919) % 300, solidifier.solidify(String.class));
+					assertArrayEquals(arrays[(i * 31) % arrays.length], solidifier.solidify(int[].class));
+				}
+				assertTrue(solidifier.atEnd());
+			}
+		}
+	}
+
+	@Test
+	void evictsTheOldestObjectPastTheCapacity() throws Exception {
+		final char[] chars = new char[1000];
+		Arrays.fill(chars, 'x');
+		final String large = new String(chars);
+		for (final int capacity : CAPACITIES) {
+			final LiquifierOptions options = LiquifierOptions.DEFAULT.withCacheCapacity(capacity);
+			// the large string and capacity - 1 others still fit, one more evicts it
+			for (final int others : new int[]{capacity - 1, capacity}) {
+				final String[] objects = new String[others + 2];
+				objects[0] = large;
+				for (int i = 1; i <= others; i++) objects[i] = "o" + i;
+				objects[others + 1] = large;
+				final int size = writeStrings(options, objects).length;
+				final int once = writeStrings(options, Arrays.copyOf(objects, others + 1)).length;
+				if (others < capacity) {
+					assertTrue(size - once < 10);
+				} else {
+					assertTrue(size - once > large.length());
+				}
+				final Solidifier solidifier = new Solidifier(processors(), new ByteArrayInputStream(writeStrings(options, objects)));
+				for (final String object : objects) assertEquals(object, solidifier.solidify(String.class));
+				assertTrue(solidifier.atEnd());
+			}
+		}
+	}
+
+	@Test
+	void keepsBothSidesFlat() throws Exception {
+		final Set<ObjectProcessor<?>> processors = processors();
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectWriterImpl objectWriter = new ObjectWriterImpl(processors, bytes, WireFormat.STANDARD, 100, null);
+		for (int i = 0; i < 10000; i++) objectWriter.writeObject(String.class, "distinct " + i);
+		objectWriter.flush();
+		// the two preloaded strings and the ring
+		assertEquals(102, objectWriter.cacheSize(String.class));
+
+		final ObjectReaderImpl objectReader = new ObjectReaderImpl(processors, new ByteArrayInputStream(bytes.toByteArray()), WireFormat.STANDARD, 100, null);
+		for (int i = 0; i < 10000; i++) assertEquals("distinct " + i, objectReader.readObject(String.class));
+		assertEquals(102, objectReader.cacheSize(String.class));
+	}
+
+	@Test
+	void dropsObjectsEvictedWhileNested() throws Exception {
+		final Set<ObjectProcessor<?>> processors = processors();
+		Node chain = null;
+		for (int i = 0; i < 10; i++) chain = new Node(i, chain);
+		for (final int capacity : CAPACITIES) {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (final Liquifier liquifier = new Liquifier(processors, bytes, LiquifierOptions.DEFAULT.withCacheCapacity(capacity))) {
+				for (int i = 0; i < 3; i++) liquifier.liquify(Node.class, chain);
+			}
+			final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(bytes.toByteArray()));
+			final Node first = solidifier.solidify(Node.class);
+			for (int i = 0; i < 2; i++) {
+				final Node node = solidifier.solidify(Node.class);
+				// a chain that fits is a reference to the first one read
+				if (capacity >= 10) assertSame(first, node);
+				for (Node expected = chain, actual = node; expected != null; expected = expected.next, actual = actual.next) {
+					assert actual != null;
+					assertEquals(expected.value, actual.value);
+				}
+			}
+			assertTrue(solidifier.atEnd());
+		}
+	}
+
+	@Test
+	void rejectsReferencesOutsideTheRing() throws Exception {
+		final LiquifierOptions options = LiquifierOptions.DEFAULT.withCacheCapacity(4);
+		final byte[] once = writeStrings(options, "a");
+		final byte[] twice = writeStrings(options, "a", "a");
+		// the header, then a reference to a slot nothing was read into
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		bytes.write(once, 0, StreamHeader.SIZE + 4);
+		bytes.write(twice, once.length, twice.length - once.length);
+		final Solidifier unread = new Solidifier(processors(), new ByteArrayInputStream(bytes.toByteArray()));
+		assertThrows(IOException.class, () -> unread.solidify(String.class));
+
+		// the same reference is fine once the slot is read
+		final Solidifier solidifier = new Solidifier(processors(), new ByteArrayInputStream(twice));
+		assertEquals("a", solidifier.solidify(String.class));
+		assertEquals("a", solidifier.solidify(String.class));
+		assertTrue(solidifier.atEnd());
+	}
+}
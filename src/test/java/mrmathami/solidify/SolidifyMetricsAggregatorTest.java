@@ -0,0 +1,97 @@
+package mrmathami.solidify;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolidifyMetricsAggregatorTest {
+	private static final String[] STRINGS = {"a", "b", "a", "a", "longer string", "b"};
+	private static final int[] ARRAY = {1, 2, 3};
+
+	@Test
+	void sumsAKnownPayload() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final SolidifyMetricsAggregator metrics = new SolidifyMetricsAggregator();
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors, bytes, LiquifierOptions.DEFAULT.withMetrics(metrics))) {
+			for (final String string : STRINGS) liquifier.liquify(String.class, string);
+			liquifier.liquify(Integer.class, 42);
+			liquifier.liquify(int[].class, ARRAY);
+			liquifier.liquify(int[].class, ARRAY);
+		}
+		final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(bytes.toByteArray()), SolidifierOptions.DEFAULT.withMetrics(metrics));
+		for (final String string : STRINGS) assertEquals(string, solidifier.solidify(String.class));
+		assertEquals(42, solidifier.solidify(Integer.class));
+		assertArrayEquals(ARRAY, solidifier.solidify(int[].class));
+		assertArrayEquals(ARRAY, solidifier.solidify(int[].class));
+		assertTrue(solidifier.atEnd());
+
+		final Map<Class<?>, SolidifyMetricsAggregator.ClassMetrics> snapshot = metrics.snapshot();
+		// ordered by class name
+		assertEquals(Arrays.asList(int[].class, Integer.class, String.class), Arrays.asList(snapshot.keySet().toArray()));
+
+		final SolidifyMetricsAggregator.ClassMetrics strings = snapshot.get(String.class);
+		assertEquals(6, strings.objectsWritten);
+		assertEquals(6, strings.objectsRead);
+		// "a", "b" and "longer string" are new, the other three are references
+		assertEquals(3, strings.cacheHits);
+		assertEquals(3, strings.cacheMisses);
+		// the standard format writes a reference in two bytes and a new length in four
+		assertEquals(3 * 2 + (4 + 1) + (4 + 1) + (4 + 13), strings.bytesWritten);
+		assertEquals(strings.bytesWritten, strings.bytesRead);
+		assertEquals(0, strings.nanosWritten);
+		assertEquals(0, strings.nanosRead);
+
+		final SolidifyMetricsAggregator.ClassMetrics integers = snapshot.get(Integer.class);
+		assertEquals(1, integers.objectsWritten);
+		assertEquals(1, integers.objectsRead);
+		assertEquals(integers.bytesWritten, integers.bytesRead);
+		// boxed values are not cached
+		assertEquals(0, integers.cacheHits + integers.cacheMisses);
+
+		final SolidifyMetricsAggregator.ClassMetrics arrays = snapshot.get(int[].class);
+		assertEquals(2, arrays.objectsWritten);
+		assertEquals(1, arrays.cacheHits);
+		assertEquals(1, arrays.cacheMisses);
+		// a length and three ints, then a reference
+		assertEquals(4 + 12 + 2, arrays.bytesWritten);
+
+		// every byte after the stream header belongs to exactly one top level object
+		assertEquals(bytes.size() - StreamHeader.SIZE, strings.bytesWritten + integers.bytesWritten + arrays.bytesWritten);
+		assertTrue(metrics.toString().contains("java.lang.String"));
+	}
+
+	@Test
+	void resetStartsOverAndKeepsEarlierSnapshots() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final SolidifyMetricsAggregator metrics = new SolidifyMetricsAggregator(true);
+		assertTrue(metrics.isTimed());
+		try (final Liquifier liquifier = new Liquifier(processors, new ByteArrayOutputStream(), LiquifierOptions.DEFAULT.withMetrics(metrics))) {
+			liquifier.liquify(String.class, "before");
+		}
+		final Map<Class<?>, SolidifyMetricsAggregator.ClassMetrics> before = metrics.snapshot();
+		metrics.reset();
+		assertTrue(metrics.snapshot().isEmpty());
+		assertEquals(1, before.get(String.class).objectsWritten);
+		assertThrows(UnsupportedOperationException.class, () -> before.remove(String.class));
+
+		try (final Liquifier liquifier = new Liquifier(processors, new ByteArrayOutputStream(), LiquifierOptions.DEFAULT.withMetrics(metrics))) {
+			liquifier.liquify(String.class, "after");
+			liquifier.liquify(String.class, "after");
+		}
+		final SolidifyMetricsAggregator.ClassMetrics after = metrics.snapshot().get(String.class);
+		assertEquals(2, after.objectsWritten);
+		assertEquals(1, after.cacheHits);
+		assertFalse(metrics.snapshot().containsKey(Integer.class));
+	}
+}
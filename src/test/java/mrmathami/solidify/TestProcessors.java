@@ -0,0 +1,65 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestProcessors {
+	private TestProcessors() {
+	}
+
+	// the boxed and String processors, which have no alternatives, with the given ones added
+	@Nonnull
+	static Set<ObjectProcessor<?>> boxed(@Nonnull ObjectProcessor<?>... processors) {
+		final Set<ObjectProcessor<?>> set = new HashSet<>(Arrays.asList(
+				ObjectProcessors.BOXED_BYTE_PROCESSOR, ObjectProcessors.BOXED_SHORT_PROCESSOR,
+				ObjectProcessors.BOXED_INTEGER_PROCESSOR, ObjectProcessors.BOXED_LONG_PROCESSOR,
+				ObjectProcessors.BOXED_FLOAT_PROCESSOR, ObjectProcessors.BOXED_DOUBLE_PROCESSOR,
+				ObjectProcessors.BOXED_BOOLEAN_PROCESSOR, ObjectProcessors.BOXED_CHARACTER_PROCESSOR,
+				ObjectProcessors.BOXED_BYTE_ARRAY_PROCESSOR, ObjectProcessors.BOXED_SHORT_ARRAY_PROCESSOR,
+				ObjectProcessors.BOXED_INTEGER_ARRAY_PROCESSOR, ObjectProcessors.BOXED_LONG_ARRAY_PROCESSOR,
+				ObjectProcessors.BOXED_FLOAT_ARRAY_PROCESSOR, ObjectProcessors.BOXED_DOUBLE_ARRAY_PROCESSOR,
+				ObjectProcessors.BOXED_BOOLEAN_ARRAY_PROCESSOR, ObjectProcessors.BOXED_CHARACTER_ARRAY_PROCESSOR,
+				ObjectProcessors.STRING_PROCESSOR));
+		set.addAll(Arrays.asList(processors));
+		return set;
+	}
+
+	// boxed with the plain primitive array processors
+	@Nonnull
+	static Set<ObjectProcessor<?>> standard(@Nonnull ObjectProcessor<?>... processors) {
+		final Set<ObjectProcessor<?>> set = boxed(
+				ObjectProcessors.BYTE_ARRAY_PROCESSOR, ObjectProcessors.SHORT_ARRAY_PROCESSOR,
+				ObjectProcessors.INT_ARRAY_PROCESSOR, ObjectProcessors.LONG_ARRAY_PROCESSOR,
+				ObjectProcessors.FLOAT_ARRAY_PROCESSOR, ObjectProcessors.DOUBLE_ARRAY_PROCESSOR,
+				ObjectProcessors.BOOLEAN_ARRAY_PROCESSOR, ObjectProcessors.CHAR_ARRAY_PROCESSOR);
+		set.addAll(Arrays.asList(processors));
+		return set;
+	}
+
+	// writes one object to a stream of the given format and reads it back, the stream must end right after it
+	static <E> E roundTrip(@Nonnull Set<ObjectProcessor<?>> processors, @Nonnull WireFormat wireFormat, @Nonnull Class<E> objectClass, E object) throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors, bytes, LiquifierOptions.DEFAULT.withWireFormat(wireFormat))) {
+			liquifier.liquify(objectClass, object);
+		}
+		final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(bytes.toByteArray()));
+		final E result = solidifier.solidify(objectClass);
+		assertTrue(solidifier.atEnd());
+		return result;
+	}
+
+	@Nonnull
+	static byte[] bytes(@Nonnull String hex) {
+		final byte[] bytes = new byte[hex.length() / 2];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,111 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrustedInputTest {
+	@Nonnull private static final SolidifierOptions TRUSTED = SolidifierOptions.DEFAULT.withTrustedInput(true);
+
+	@Nonnull
+	private static Set<ObjectProcessor<?>> processors() {
+		return TestProcessors.standard(ObjectProcessors.forArray(String[].class));
+	}
+
+	@Nonnull
+	private static byte[] writeStrings(@Nonnull LiquifierOptions options, @Nonnull String... objects) throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors(), bytes, options)) {
+			for (final String object : objects) liquifier.liquify(String.class, object);
+		}
+		return bytes.toByteArray();
+	}
+
+	// the stream of a single new string, written twice, so the reader is asked to cache it twice
+	@Nonnull
+	private static byte[] duplicated(@Nonnull LiquifierOptions options, int headerSize) throws Exception {
+		final byte[] once = writeStrings(options, "twice");
+		final byte[] bytes = Arrays.copyOf(once, once.length * 2 - headerSize);
+		System.arraycopy(once, headerSize, bytes, once.length, once.length - headerSize);
+		return bytes;
+	}
+
+	@Test
+	void roundTripsThroughTheCaches() throws Exception {
+		final Set<ObjectProcessor<?>> processors = processors();
+		final int[][] arrays = new int[20][];
+		for (int i = 0; i < arrays.length; i++) arrays[i] = new int[]{i, Integer.MIN_VALUE, Integer.MAX_VALUE};
+		for (final int capacity : new int[]{0, 1, 3, 128}) {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (final Liquifier liquifier = new Liquifier(processors, bytes, LiquifierOptions.DEFAULT.withCacheCapacity(capacity))) {
+				for (int i = 0; i < 1000; i++) {
+					liquifier.liquify(String.class, "s" + i % 17);
+					liquifier.liquify(int[].class, arrays[i % arrays.length]);
+					liquifier.liquify(String[].class, new String[]{"s" + i % 5, null, ""});
+					liquifier.liquify(Boolean.class, i % 3 == 0);
+				}
+			}
+			final Solidifier solidifier = new Solidifier(processors, new ByteArrayInputStream(bytes.toByteArray()), TRUSTED);
+			int[] previous = null;
+			for (int i = 0; i < 1000; i++) {
+				assertEquals("s" + i % 17, solidifier.solidify(String.class));
+				final int[] array = solidifier.solidify(int[].class);
+				assertArrayEquals(arrays[i % arrays.length], array);
+				// without a capacity a repeated array is the one read before
+				if (capacity == 0 && i == arrays.length) assertSame(previous, array);
+				if (i == 0) previous = array;
+				assertArrayEquals(new String[]{"s" + i % 5, null, ""}, solidifier.solidify(String[].class));
+				assertEquals(i % 3 == 0, solidifier.solidify(Boolean.class));
+			}
+			assertTrue(solidifier.atEnd());
+		}
+	}
+
+	@Test
+	void onlyUntrustedInputRejectsInvalidBooleans() throws Exception {
+		final Set<ObjectProcessor<?>> processors = processors();
+		final byte[] bytes = {0x01, 0x7F};
+		final ObjectReaderImpl checked = new ObjectReaderImpl(processors, new ByteArrayInputStream(bytes), WireFormat.STANDARD, 0, null, false);
+		assertThrows(IOException.class, checked::readBoolean);
+		final ObjectReaderImpl trusted = new ObjectReaderImpl(processors, new ByteArrayInputStream(bytes), WireFormat.STANDARD, 0, null, true);
+		assertTrue(trusted.readBoolean());
+		assertTrue(trusted.readBoolean());
+	}
+
+	@Test
+	void onlyUntrustedInputRejectsDuplicateCachePuts() throws Exception {
+		final LiquifierOptions unbounded = LiquifierOptions.DEFAULT;
+		final LiquifierOptions bounded = LiquifierOptions.DEFAULT.withCacheCapacity(4);
+		// the bounded header carries the capacity after the flags
+		for (final byte[] bytes : new byte[][]{duplicated(unbounded, StreamHeader.SIZE), duplicated(bounded, StreamHeader.SIZE + 4)}) {
+			final Solidifier checked = new Solidifier(processors(), new ByteArrayInputStream(bytes));
+			assertEquals("twice", checked.solidify(String.class));
+			assertThrows(IOException.class, () -> checked.solidify(String.class));
+
+			final Solidifier trusted = new Solidifier(processors(), new ByteArrayInputStream(bytes), TRUSTED);
+			assertEquals("twice", trusted.solidify(String.class));
+			assertEquals("twice", trusted.solidify(String.class));
+			assertTrue(trusted.atEnd());
+		}
+	}
+
+	@Test
+	void trustedInputStillFailsOnTruncation() throws Exception {
+		final byte[] bytes = writeStrings(LiquifierOptions.DEFAULT, "truncated");
+		final Solidifier trusted = new Solidifier(processors(), new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)), TRUSTED);
+		assertThrows(IOException.class, () -> trusted.solidify(String.class));
+		assertFalse(SolidifierOptions.DEFAULT.trustedInput);
+	}
+}
@@ -0,0 +1,113 @@
+package mrmathami.solidify;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WireFormatTest {
+	private static final long[] LONG_VALUES = {0L, 1L, -1L, 63L, 64L, -64L, -65L, 127L, 128L, 129L, -128L, -129L,
+			8191L, 8192L, -8193L, Short.MIN_VALUE, Short.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE,
+			Integer.MIN_VALUE - 1L, Integer.MAX_VALUE + 1L, Long.MIN_VALUE, Long.MAX_VALUE};
+
+	@Test
+	void roundTripsVarintBoundaries() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		for (final WireFormat wireFormat : WireFormat.values()) {
+			for (final long value : LONG_VALUES) {
+				assertEquals(value, TestProcessors.roundTrip(processors, wireFormat, Long.class, value));
+				assertEquals((int) value, TestProcessors.roundTrip(processors, wireFormat, Integer.class, (int) value));
+				assertEquals((short) value, TestProcessors.roundTrip(processors, wireFormat, Short.class, (short) value));
+			}
+		}
+	}
+
+	@Test
+	void roundTripsLengthBoundaries() throws Exception {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		for (final WireFormat wireFormat : WireFormat.values()) {
+			for (final int length : new int[]{0, 1, 127, 128, 129, 16383, 16384}) {
+				final char[] chars = new char[length];
+				Arrays.fill(chars, 'x');
+				final String string = new String(chars);
+				assertEquals(string, TestProcessors.roundTrip(processors, wireFormat, String.class, string));
+				final int[] ints = new int[length];
+				for (int i = 0; i < length; i++) ints[i] = i * 31 - 1000;
+				assertArrayEquals(ints, TestProcessors.roundTrip(processors, wireFormat, int[].class, ints));
+			}
+		}
+	}
+
+	@Test
+	void compactIsSmallerForShortStrings() throws Exception {
+		// string lengths and cache indexes are the varints
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final ByteArrayOutputStream standard = new ByteArrayOutputStream();
+		final ByteArrayOutputStream compact = new ByteArrayOutputStream();
+		try (final Liquifier standardLiquifier = new Liquifier(processors, standard, LiquifierOptions.DEFAULT.withWireFormat(WireFormat.STANDARD));
+				final Liquifier compactLiquifier = new Liquifier(processors, compact, LiquifierOptions.DEFAULT.withWireFormat(WireFormat.COMPACT))) {
+			for (int i = 0; i < 100; i++) {
+				standardLiquifier.liquify(String.class, "s" + i);
+				compactLiquifier.liquify(String.class, "s" + i);
+			}
+		}
+		assertTrue(compact.size() < standard.size());
+	}
+
+	@Test
+	void writesHeaderOnClose() throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final Liquifier liquifier = new Liquifier(TestProcessors.standard(), bytes, LiquifierOptions.DEFAULT.withWireFormat(WireFormat.COMPACT));
+		assertEquals(0, bytes.size());
+		liquifier.close();
+		assertArrayEquals(new byte[]{'S', 'D', 1, 1}, bytes.toByteArray());
+		assertTrue(new Solidifier(TestProcessors.standard(), ByteBuffer.wrap(bytes.toByteArray())).atEnd());
+	}
+
+	@Test
+	void rejectsMalformedHeaders() {
+		final Set<ObjectProcessor<?>> processors = TestProcessors.standard();
+		final byte[][] headers = {
+				{'S', 'D'},
+				{'S', 'D', 1},
+				{'S', 'D', 2, 0},
+				{'S', 'D', 1, 0x10},
+				// frames cannot be bounded
+				{'S', 'D', 1, 0x0C, 1, 0, 0, 0},
+				// bounded needs a positive capacity
+				{'S', 'D', 1, 0x08, 0, 0, 0, 0},
+				{'S', 'D', 1, 0x08, 0, 0, 0, (byte) 0x80},
+				{'S', 'D', 1, 0x08, 1, 0}
+		};
+		for (final byte[] header : headers) {
+			assertThrows(IOException.class, () -> new Solidifier(processors, new ByteArrayInputStream(header)).solidify(Integer.class));
+			assertThrows(IOException.class, () -> new Solidifier(processors, ByteBuffer.wrap(header)).solidify(Integer.class));
+		}
+	}
+
+	@Test
+	void rejectsOverlongVarints() {
+		// a varint int takes at most 5 bytes, here the string length has 6
+		final byte[] overlong = {'S', 'D', 1, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0, 0, 0, 0, 0, 0, 0, 0};
+		assertThrows(IOException.class, () -> new Solidifier(TestProcessors.standard(), ByteBuffer.wrap(overlong)).solidify(String.class));
+		assertThrows(IOException.class, () -> new Solidifier(TestProcessors.standard(), new ByteArrayInputStream(overlong)).solidify(String.class));
+	}
+
+	@Test
+	void rejectsTruncatedValues() {
+		final byte[] truncatedInt = {'S', 'D', 1, 1, (byte) 0x80, (byte) 0xFF};
+		assertThrows(IOException.class, () -> new Solidifier(TestProcessors.standard(), new ByteArrayInputStream(truncatedInt)).solidify(Integer.class));
+		// a varint cut off after a byte with the continuation bit
+		final byte[] truncatedLength = {'S', 'D', 1, 1, (byte) 0x81};
+		assertThrows(IOException.class, () -> new Solidifier(TestProcessors.standard(), ByteBuffer.wrap(truncatedLength)).solidify(String.class));
+	}
+}
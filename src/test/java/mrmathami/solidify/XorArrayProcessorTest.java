@@ -0,0 +1,138 @@
+package mrmathami.solidify;
+
+import mrmathami.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class XorArrayProcessorTest {
+	private static final int[] LENGTHS = {0, 1, 2, 127, 128, 129, 255, 256, 257, 1000};
+
+	@Nonnull
+	private static Set<ObjectProcessor<?>> processors() {
+		return TestProcessors.boxed(ObjectProcessors.XOR_DOUBLE_ARRAY_PROCESSOR, ObjectProcessors.XOR_FLOAT_ARRAY_PROCESSOR);
+	}
+
+	// compares the raw bits, so NaN payloads and the sign of zero must survive
+	private static void checkDoubles(@Nonnull double[] array) throws Exception {
+		for (final WireFormat wireFormat : WireFormat.values()) {
+			final double[] result = TestProcessors.roundTrip(processors(), wireFormat, double[].class, array);
+			assertNotNull(result);
+			assertEquals(array.length, result.length);
+			for (int i = 0; i < array.length; i++) {
+				assertEquals(Double.doubleToRawLongBits(array[i]), Double.doubleToRawLongBits(result[i]), "index " + i);
+			}
+		}
+	}
+
+	private static void checkFloats(@Nonnull float[] array) throws Exception {
+		for (final WireFormat wireFormat : WireFormat.values()) {
+			final float[] result = TestProcessors.roundTrip(processors(), wireFormat, float[].class, array);
+			assertNotNull(result);
+			assertEquals(array.length, result.length);
+			for (int i = 0; i < array.length; i++) {
+				assertEquals(Float.floatToRawIntBits(array[i]), Float.floatToRawIntBits(result[i]), "index " + i);
+			}
+		}
+	}
+
+	@Test
+	void roundTripsNull() throws Exception {
+		assertNull(TestProcessors.roundTrip(processors(), WireFormat.STANDARD, double[].class, null));
+		assertNull(TestProcessors.roundTrip(processors(), WireFormat.COMPACT, float[].class, null));
+	}
+
+	@Test
+	void roundTripsSmoothSeries() throws Exception {
+		for (final int length : LENGTHS) {
+			final double[] doubles = new double[length];
+			final float[] floats = new float[length];
+			for (int i = 0; i < length; i++) {
+				doubles[i] = 20.0 + Math.sin(i / 10.0);
+				floats[i] = (float) doubles[i];
+			}
+			checkDoubles(doubles);
+			checkFloats(floats);
+		}
+	}
+
+	@Test
+	void roundTripsRepeatedValues() throws Exception {
+		for (final int length : LENGTHS) {
+			final double[] doubles = new double[length];
+			final float[] floats = new float[length];
+			Arrays.fill(doubles, 1.5);
+			Arrays.fill(floats, -1.5f);
+			checkDoubles(doubles);
+			checkFloats(floats);
+		}
+	}
+
+	@Test
+	void roundTripsSpecialValues() throws Exception {
+		final double[] doubles = {0.0, -0.0, 0.0, Double.NaN, Double.longBitsToDouble(0x7FF0_0000_0000_0001L),
+				Double.longBitsToDouble(0xFFF8_0000_0000_0123L), Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+				Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, Double.MIN_NORMAL, -0.0};
+		final float[] floats = {0.0f, -0.0f, 0.0f, Float.NaN, Float.intBitsToFloat(0x7F80_0001),
+				Float.intBitsToFloat(0xFFC0_0123), Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY,
+				Float.MIN_VALUE, -Float.MIN_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, Float.MIN_NORMAL, -0.0f};
+		checkDoubles(doubles);
+		checkFloats(floats);
+		checkDoubles(new double[]{-0.0});
+		checkFloats(new float[]{Float.NaN});
+	}
+
+	@Test
+	void roundTripsRandomBits() throws Exception {
+		// every xor a new window of any width
+		final Random random = new Random(5);
+		for (final int length : LENGTHS) {
+			final double[] doubles = new double[length];
+			final float[] floats = new float[length];
+			for (int i = 0; i < length; i++) {
+				doubles[i] = Double.longBitsToDouble(random.nextLong());
+				floats[i] = Float.intBitsToFloat(random.nextInt());
+			}
+			checkDoubles(doubles);
+			checkFloats(floats);
+		}
+	}
+
+	@Nonnull
+	private static byte[] write(@Nonnull double[] array) throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final Liquifier liquifier = new Liquifier(processors(), bytes)) {
+			liquifier.liquify(double[].class, array);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Test
+	void rejectsWrongBitCount() throws Exception {
+		final byte[] bytes = write(new double[]{1.0, 2.0, 3.0, 3.0});
+		// header, 2 byte packed length, then the bit count of the first block
+		bytes[StreamHeader.SIZE + 2]++;
+		assertThrows(IOException.class, () -> new Solidifier(processors(), new ByteArrayInputStream(bytes)).solidify(double[].class));
+	}
+
+	@Test
+	void rejectsTruncatedBlocks() throws Exception {
+		final double[] array = new double[300];
+		for (int i = 0; i < array.length; i++) array[i] = i * 0.25;
+		final byte[] bytes = write(array);
+		for (final int cut : new int[]{1, 9, bytes.length / 2}) {
+			final byte[] truncated = Arrays.copyOf(bytes, bytes.length - cut);
+			assertThrows(IOException.class, () -> new Solidifier(processors(), new ByteArrayInputStream(truncated)).solidify(double[].class));
+		}
+	}
+}